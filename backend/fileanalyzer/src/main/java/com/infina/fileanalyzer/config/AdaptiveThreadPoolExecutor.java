@@ -0,0 +1,219 @@
+package com.infina.fileanalyzer.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ThreadPoolExecutor with a bounded queue that resizes itself from observed metrics.
+ * Every task records how long it waited in the queue and how long it ran. A tuning
+ * thread periodically compares completed-task throughput with the previous interval
+ * and grows the pool while queued work is waiting and more threads still help,
+ * or shrinks it when threads sit idle. Core and maximum size always move together
+ * and stay within the configured limits.
+ *
+ * When every thread is busy and the queue is full, a new task is run by the thread that
+ * submits it (CallerRunsPolicy). That is the backpressure of this executor: the submitter,
+ * e.g. the request or job thread dispatching a batch, analyzes the file itself and stops
+ * submitting until it is done, instead of the task being rejected.
+ */
+public final class AdaptiveThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveThreadPoolExecutor.class);
+
+    // A resize is kept only if it improves throughput by at least this factor
+    private static final double MIN_THROUGHPUT_GAIN = 1.05;
+    // Intervals to keep the size after stepping back, so the pool does not oscillate
+    private static final int HOLD_INTERVALS_AFTER_STEP_BACK = 5;
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final long targetQueueWaitNanos;
+    private final long tuningIntervalMillis;
+    private final ScheduledExecutorService tuner;
+    private final AtomicBoolean tunerStarted = new AtomicBoolean();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final LongAdder finishedTasks = new LongAdder();
+    private final ThreadLocal<Long> taskStartNanos = new ThreadLocal<>();
+
+    // Tuner state, only touched by the tuning thread
+    private double previousThroughput;
+    private int lastResize;
+    private int holdIntervals;
+
+    private AdaptiveThreadPoolExecutor(int minThreads, int maxThreads, int queueCapacity,
+                                       long targetQueueWaitMillis, long tuningIntervalMillis,
+                                       ThreadFactory threadFactory) {
+        super(minThreads, minThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new CallerRunsPolicy());
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetQueueWaitMillis);
+        this.tuningIntervalMillis = tuningIntervalMillis;
+        this.tuner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "PoolTuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates an executor of minThreads threads. Its tuner starts with the first submitted task.
+     *
+     * @param minThreads            Lower limit and initial size of the pool
+     * @param maxThreads            Upper limit of the pool size
+     * @param queueCapacity         Tasks that may wait for a thread before submitters run them themselves
+     * @param targetQueueWaitMillis Average queue wait above which the pool grows
+     * @param tuningIntervalMillis  Interval between two tuning steps
+     * @param threadFactory         Factory of the pool threads
+     * @return New executor
+     * @throws IllegalArgumentException if the limits, capacity or interval are invalid
+     */
+    public static AdaptiveThreadPoolExecutor create(int minThreads, int maxThreads, int queueCapacity,
+                                                    long targetQueueWaitMillis, long tuningIntervalMillis,
+                                                    ThreadFactory threadFactory) {
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Invalid adaptive pool limits: min=" + minThreads + ", max=" + maxThreads);
+        }
+        if (queueCapacity < 1 || targetQueueWaitMillis < 0 || tuningIntervalMillis < 1) {
+            throw new IllegalArgumentException("Invalid adaptive pool settings: queueCapacity=" + queueCapacity
+                    + ", targetQueueWaitMillis=" + targetQueueWaitMillis + ", tuningIntervalMillis=" + tuningIntervalMillis);
+        }
+        return new AdaptiveThreadPoolExecutor(minThreads, maxThreads, queueCapacity,
+                targetQueueWaitMillis, tuningIntervalMillis, threadFactory);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!tunerStarted.get() && !isShutdown()) {
+            startTuner();
+        }
+        super.execute(new QueuedTask(command, System.nanoTime()));
+    }
+
+    // Started here rather than in the constructor, so the tuner never sees a partly constructed executor
+    private void startTuner() {
+        if (tunerStarted.compareAndSet(false, true)) {
+            tuner.scheduleWithFixedDelay(this::tune, tuningIntervalMillis, tuningIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        long now = System.nanoTime();
+        if (task instanceof QueuedTask queuedTask) {
+            queueWaitNanos.add(now - queuedTask.enqueuedAtNanos);
+        }
+        taskStartNanos.set(now);
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable failure) {
+        Long startNanos = taskStartNanos.get();
+        if (startNanos != null) {
+            serviceNanos.add(System.nanoTime() - startNanos);
+            taskStartNanos.remove();
+        }
+        finishedTasks.increment();
+        super.afterExecute(task, failure);
+    }
+
+    @Override
+    protected void terminated() {
+        tuner.shutdownNow();
+        super.terminated();
+    }
+
+    /**
+     * One tuning step: reads and resets the interval counters, then grows, shrinks or keeps the pool size.
+     * Runs on the tuning thread; package-private so tests can step the tuner themselves.
+     */
+    void tune() {
+        try {
+            long finished = finishedTasks.sumThenReset();
+            long waitNanos = queueWaitNanos.sumThenReset();
+            long runNanos = serviceNanos.sumThenReset();
+            int queued = getQueue().size();
+            int active = getActiveCount();
+            int poolSize = getCorePoolSize();
+
+            double throughput = finished * 1000.0 / tuningIntervalMillis;
+            long avgQueueWaitNanos = finished > 0 ? waitNanos / finished : 0;
+            long avgServiceNanos = finished > 0 ? runNanos / finished : 0;
+
+            int newSize = poolSize;
+            boolean backlog = queued > 0 && (avgQueueWaitNanos > targetQueueWaitNanos || finished == 0);
+            if (lastResize > 0 && throughput < previousThroughput * MIN_THROUGHPUT_GAIN && backlog) {
+                // The last growth did not pay off (e.g. the disk is saturated), step back and hold
+                newSize = poolSize - lastResize;
+                holdIntervals = HOLD_INTERVALS_AFTER_STEP_BACK;
+            } else if (holdIntervals > 0) {
+                holdIntervals--;
+            } else if (backlog) {
+                newSize = poolSize + Math.max(1, poolSize / 4);
+            } else if (queued == 0 && active < poolSize / 2) {
+                newSize = poolSize - Math.max(1, poolSize / 4);
+            }
+            newSize = Math.max(minThreads, Math.min(maxThreads, newSize));
+
+            if (newSize != poolSize) {
+                resize(newSize);
+                logger.debug("Adaptive pool resized {} -> {} (throughput={}/s, avgQueueWait={} ms, avgService={} ms, queued={}, active={})",
+                        poolSize, newSize, throughput, avgQueueWaitNanos / 1_000_000.0,
+                        avgServiceNanos / 1_000_000.0, queued, active);
+            }
+            lastResize = newSize - poolSize;
+            previousThroughput = throughput;
+        } catch (RuntimeException e) {
+            logger.warn("Adaptive pool tuning step failed", e);
+        }
+    }
+
+    private void resize(int newSize) {
+        // Keep core <= max at every step
+        if (newSize > getMaximumPoolSize()) {
+            setMaximumPoolSize(newSize);
+            setCorePoolSize(newSize);
+        } else {
+            setCorePoolSize(newSize);
+            setMaximumPoolSize(newSize);
+        }
+    }
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * Runnable wrapper that remembers when the task entered the executor.
+     */
+    private static final class QueuedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAtNanos;
+
+        QueuedTask(Runnable delegate, long enqueuedAtNanos) {
+            this.delegate = delegate;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+}
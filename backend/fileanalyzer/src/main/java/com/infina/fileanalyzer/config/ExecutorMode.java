@@ -0,0 +1,17 @@
+package com.infina.fileanalyzer.config;
+
+/**
+ * Execution strategy for the file analysis executor.
+ * Selected with the file.analyzer.executor.mode property.
+ */
+public enum ExecutorMode {
+    /** Fixed pool of platform threads */
+    PLATFORM,
+    /** One virtual thread per file, suited to many small I/O-bound reads */
+    VIRTUAL,
+    /**
+     * Bounded platform thread pool that resizes itself from throughput and queue wait metrics.
+     * When it is full, new tasks run on the submitting thread.
+     */
+    ADAPTIVE
+}
@@ -1,44 +1,122 @@
 package com.infina.fileanalyzer.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class ThreadPoolConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(ThreadPoolConfig.class);
+
     private static final int MAX_THREADS = 10; // Supports up to 10 files
     private static final String ANALYZE_THREAD_NAME_PREFIX = "FileAnalysis-";
     private static final String ARCHIVE_THREAD_NAME_PREFIX = "Archive-";
+    private static final String CHUNK_THREAD_NAME_PREFIX = "ChunkAnalysis-";
+    private static final String COMPRESSION_THREAD_NAME_PREFIX = "ArchiveCompression-";
+    private static final String EXTRACTION_THREAD_NAME_PREFIX = "ZipExtraction-";
+    private static final String DISCOVERY_THREAD_NAME_PREFIX = "FileDiscovery-";
 
     /**
      * ExecutorService bean for file analysis
-     * Uses a fixed thread pool with support for up to 10 files
+     * PLATFORM mode uses a fixed thread pool with support for up to 10 files,
+     * VIRTUAL mode starts one named virtual thread per file
      */
     @Bean(name = "fileAnalysisExecutor")
-    public ExecutorService fileAnalysisExecutor() {
-        return Executors.newFixedThreadPool(MAX_THREADS, r -> {
+    public ExecutorService fileAnalysisExecutor(
+            @Value("${file.analyzer.executor.mode}") ExecutorMode mode,
+            @Value("${file.analyzer.executor.adaptive.min-threads}") int adaptiveMinThreads,
+            @Value("${file.analyzer.executor.adaptive.max-threads}") int adaptiveMaxThreads,
+            @Value("${file.analyzer.executor.adaptive.queue-capacity}") int adaptiveQueueCapacity,
+            @Value("${file.analyzer.executor.adaptive.target-queue-wait-ms}") long adaptiveTargetQueueWaitMillis,
+            @Value("${file.analyzer.executor.adaptive.tuning-interval-ms}") long adaptiveTuningIntervalMillis) {
+        logger.info("File analysis executor mode: {}", mode);
+        if (mode == ExecutorMode.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name(ANALYZE_THREAD_NAME_PREFIX + "virtual-", 0).factory());
+        }
+
+        ThreadFactory threadFactory = r -> {
             Thread thread = new Thread(r);
             thread.setName(ANALYZE_THREAD_NAME_PREFIX + thread.getId());
             thread.setDaemon(false); // Let the main thread wait
             return thread;
-        });
+        };
+        if (mode == ExecutorMode.ADAPTIVE) {
+            return AdaptiveThreadPoolExecutor.create(adaptiveMinThreads, adaptiveMaxThreads, adaptiveQueueCapacity,
+                    adaptiveTargetQueueWaitMillis, adaptiveTuningIntervalMillis, threadFactory);
+        }
+        return Executors.newFixedThreadPool(MAX_THREADS, threadFactory);
+    }
+
+    /**
+     * Limits how many files are open for analysis at the same time
+     * Needed in VIRTUAL mode, where the number of concurrent tasks is not bounded by a pool size
+     */
+    @Bean(name = "openFileLimiter")
+    public Semaphore openFileLimiter(@Value("${file.analyzer.executor.max-open-files}") int maxOpenFiles) {
+        return new Semaphore(maxOpenFiles);
     }
 
     /**
-     * Single-threaded ExecutorService for archiving operations
+     * Bounded thread pool for archiving operations
+     * Each running batch is archived by one thread of its own. The analysis tasks of a batch
+     * block until its archive writer drains their content, so a batch must never wait for
+     * the archive of another batch to finish. Archive tasks are therefore not queued: once
+     * maxConcurrentBatches writers are running, a new batch is rejected
      */
     @Bean(name = "archiveExecutor")
-    public ExecutorService archiveExecutor() {
-        return Executors.newSingleThreadExecutor(r -> {
+    public ExecutorService archiveExecutor(
+            @Value("${file.analyzer.archive.max-concurrent-batches}") int maxConcurrentBatches) {
+        return new ThreadPoolExecutor(0, maxConcurrentBatches, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
             Thread thread = new Thread(r);
             thread.setName(ARCHIVE_THREAD_NAME_PREFIX+ thread.getId());
             thread.setDaemon(false);
             return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Fixed thread pool for compressing archive blocks in parallel
+     * Sized to the number of available cores, since compression is CPU bound
+     */
+    @Bean(name = "archiveCompressionExecutor")
+    public ExecutorService archiveCompressionExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r);
+            thread.setName(COMPRESSION_THREAD_NAME_PREFIX + thread.getId());
+            thread.setDaemon(false);
+            return thread;
+        });
+    }
+
+    /**
+     * Fixed thread pool for extracting ZIP entries in parallel
+     * Sized to the number of available cores, since inflating is CPU bound
+     */
+    @Bean(name = "zipExtractionExecutor")
+    public ExecutorService zipExtractionExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r);
+            thread.setName(EXTRACTION_THREAD_NAME_PREFIX + thread.getId());
+            thread.setDaemon(false);
+            return thread;
         });
     }
 
@@ -54,4 +132,30 @@ public class ThreadPoolConfig {
             return thread;
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * ForkJoinPool for counting chunks of a single large file in parallel
+     * Sized to the number of available cores
+     */
+    @Bean(name = "chunkAnalysisPool")
+    public ForkJoinPool chunkAnalysisPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(CHUNK_THREAD_NAME_PREFIX + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * ForkJoinPool for listing the directories of an input tree in parallel
+     * Listing is I/O bound, so it gets more threads than there are cores
+     */
+    @Bean(name = "discoveryPool")
+    public ForkJoinPool discoveryPool(@Value("${file.analyzer.discovery.threads}") int threads) {
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(DISCOVERY_THREAD_NAME_PREFIX + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
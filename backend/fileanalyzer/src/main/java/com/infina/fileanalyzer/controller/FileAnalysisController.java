@@ -1,8 +1,11 @@
 package com.infina.fileanalyzer.controller;
 
 import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.ResultCacheStatsDto;
 import com.infina.fileanalyzer.service.FileAnalysisService;
+import com.infina.fileanalyzer.service.abstracts.IDirectoryWatchService;
 import com.infina.fileanalyzer.service.abstracts.IFileDownloadService;
+import com.infina.fileanalyzer.service.abstracts.IFileProcessingService;
 import com.infina.fileanalyzer.service.abstracts.IFileUploadService;
 
 import org.slf4j.Logger;
@@ -12,10 +15,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -30,12 +35,18 @@ public class FileAnalysisController {
     private final FileAnalysisService fileAnalysisService;
     private final IFileUploadService fileUploadService;
     private final IFileDownloadService fileDownloadService;
+    private final IFileProcessingService fileProcessingService;
+    private final IDirectoryWatchService directoryWatchService;
 
     @Autowired
-    public FileAnalysisController(FileAnalysisService fileAnalysisService, IFileUploadService fileUploadService, IFileDownloadService fileDownloadService) {
+    public FileAnalysisController(FileAnalysisService fileAnalysisService, IFileUploadService fileUploadService,
+                                  IFileDownloadService fileDownloadService, IFileProcessingService fileProcessingService,
+                                  IDirectoryWatchService directoryWatchService) {
         this.fileAnalysisService = fileAnalysisService;
         this.fileUploadService = fileUploadService;
         this.fileDownloadService = fileDownloadService;
+        this.fileProcessingService = fileProcessingService;
+        this.directoryWatchService = directoryWatchService;
     }
 
     @PostMapping("/analyze")
@@ -58,6 +69,18 @@ public class FileAnalysisController {
         Map<String, String> config = fileAnalysisService.getConfiguration();
         return ResponseEntity.ok(config);
     }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ResultCacheStatsDto> getResultCacheStats() {
+        logger.info("Request received: get analysis result cache statistics");
+        return ResponseEntity.ok(new ResultCacheStatsDto(fileProcessingService.getResultCacheStats()));
+    }
+
+    @GetMapping("/watch-status")
+    public ResponseEntity<Map<String, Object>> getWatchStatus() {
+        logger.info("Request received: get watch mode status");
+        return ResponseEntity.ok(directoryWatchService.getStatus());
+    }
     /**
      * File upload and analysis endpoint
      * @param file Uploaded file (ZIP, RAR or TXT)
@@ -74,6 +97,26 @@ public class FileAnalysisController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Streaming upload and analysis endpoint
+     * The TXT file is sent as the raw request body and analyzed while it arrives,
+     * without being buffered by multipart handling
+     * @param fileName Name of the uploaded file
+     * @param content Request body
+     * @return Analysis results
+     */
+    @PostMapping(value = "/upload-stream-and-analyze",
+            consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<FileAnalysisResponseDto> uploadStreamAndAnalyze(
+            @RequestParam("fileName") String fileName, InputStream content) {
+
+        logger.info("Streaming file upload request received: {}", fileName);
+
+        FileAnalysisResponseDto result = fileUploadService.processStreamedFile(fileName, content);
+        logger.info("Streaming file upload and analysis completed successfully");
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Multiple files upload and analysis endpoint
      * @param files Uploaded files (TXT, ZIP)
@@ -0,0 +1,98 @@
+package com.infina.fileanalyzer.controller;
+
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.service.abstracts.IFileUploadService;
+import com.infina.fileanalyzer.service.abstracts.IJobService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Asynchronous variants of the analysis endpoints
+ * Every submission returns 202 Accepted with a job ID right away, the job is then polled for its status
+ */
+@RestController
+@RequestMapping("/api/v1/jobs")
+@CrossOrigin(origins = "http://localhost:3000")
+public class JobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+    private static final String JOBS_PATH = "/api/v1/jobs/";
+
+    private final IJobService jobService;
+    private final IFileUploadService fileUploadService;
+
+    @Autowired
+    public JobController(IJobService jobService, IFileUploadService fileUploadService) {
+        this.jobService = jobService;
+        this.fileUploadService = fileUploadService;
+    }
+
+    /**
+     * Starts the analysis of all .txt files in the input directory
+     * @return Status of the started job
+     */
+    @PostMapping("/analyze")
+    public ResponseEntity<JobStatusDto> analyzeFiles() {
+        logger.info("Job request received: analyze all .txt files");
+        return accepted(jobService.submitInputDirectoryAnalysis());
+    }
+
+    /**
+     * Stores the uploaded file and starts its analysis
+     * @param file Uploaded file (ZIP or TXT)
+     * @return Status of the started job
+     */
+    @PostMapping("/upload-and-analyze")
+    public ResponseEntity<JobStatusDto> uploadAndAnalyze(@RequestParam("file") MultipartFile file) {
+        logger.info("Job upload request received: {}", file.getOriginalFilename());
+        return accepted(fileUploadService.submitUploadedFile(file));
+    }
+
+    /**
+     * Stores the uploaded files and starts their analysis
+     * @param files Uploaded files (TXT, ZIP)
+     * @return Status of the started job
+     */
+    @PostMapping("/upload-multiple-and-analyze")
+    public ResponseEntity<JobStatusDto> uploadMultipleAndAnalyze(@RequestParam("files") MultipartFile[] files) {
+        logger.info("Job multiple file upload request received: {} files", files.length);
+        return accepted(fileUploadService.submitMultipleUploadedFiles(files));
+    }
+
+    /**
+     * Returns the status of a job, the files finished so far and, once completed, the result
+     * @param jobId ID of the job
+     * @return Job status
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<JobStatusDto> getJob(@PathVariable String jobId) {
+        logger.debug("Job status request received: {}", jobId);
+        return ResponseEntity.ok(jobService.getJobStatus(jobId));
+    }
+
+    /**
+     * Streams the progress of a job as Server-Sent Events
+     * Events: status, file-completed, file-failed, archive-progress and finally finished
+     * @param jobId ID of the job
+     * @return Event stream that is closed once the job finished
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobEvents(@PathVariable String jobId) {
+        logger.info("Job event stream request received: {}", jobId);
+        return jobService.subscribe(jobId);
+    }
+
+    private ResponseEntity<JobStatusDto> accepted(JobStatusDto status) {
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, JOBS_PATH + status.getJobId())
+                .body(status);
+    }
+}
@@ -0,0 +1,190 @@
+package com.infina.fileanalyzer.dto;
+
+import com.infina.fileanalyzer.entity.AnalysisJob;
+import com.infina.fileanalyzer.entity.FileStats;
+import com.infina.fileanalyzer.entity.JobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) pushed to clients following a job.
+ * Every event carries the running totals and archive progress of the job at the time it was sent,
+ * file events also carry the FileStats of the finished file or the name of the failed one.
+ */
+public class JobEventDto {
+    private String jobId;
+    private JobStatus status;
+    private FileStats fileStats;
+    private String failedFileName;
+    private String errorMessage;
+    private int totalFileCount;
+    private int processedFileCount;
+    private int failedFileCount;
+    private long totalLineCount;
+    private long totalCharacterCount;
+    private long totalByteCount;
+    private int archivedEntryCount;
+    private long archiveBytesRead;
+    private long archiveBytesWritten;
+    private long elapsedMillis;
+    private double bytesPerSecond;
+
+    public JobEventDto() {
+    }
+
+    /**
+     * Builds an event from the current state of the job
+     *
+     * @param job The job the event belongs to
+     */
+    public JobEventDto(AnalysisJob job) {
+        this.jobId = job.getJobId();
+        this.status = job.getStatus();
+        this.errorMessage = job.getErrorMessage();
+        this.totalFileCount = job.getTotalFileCount();
+        this.processedFileCount = job.getProcessedFileCount();
+        this.failedFileCount = job.getFailedFileCount();
+        this.totalLineCount = job.getTotalLineCount();
+        this.totalCharacterCount = job.getTotalCharacterCount();
+        this.totalByteCount = job.getTotalByteCount();
+        this.archivedEntryCount = job.getArchivedEntryCount();
+        this.archiveBytesRead = job.getArchiveBytesRead();
+        this.archiveBytesWritten = job.getArchiveBytesWritten();
+
+        LocalDateTime startedAt = job.getStartedAt();
+        if (startedAt != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            this.elapsedMillis = Duration.between(startedAt, end).toMillis();
+            this.bytesPerSecond = elapsedMillis > 0 ? totalByteCount * 1000.0 / elapsedMillis : 0;
+        }
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public FileStats getFileStats() {
+        return fileStats;
+    }
+
+    public void setFileStats(FileStats fileStats) {
+        this.fileStats = fileStats;
+    }
+
+    public String getFailedFileName() {
+        return failedFileName;
+    }
+
+    public void setFailedFileName(String failedFileName) {
+        this.failedFileName = failedFileName;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public int getTotalFileCount() {
+        return totalFileCount;
+    }
+
+    public void setTotalFileCount(int totalFileCount) {
+        this.totalFileCount = totalFileCount;
+    }
+
+    public int getProcessedFileCount() {
+        return processedFileCount;
+    }
+
+    public void setProcessedFileCount(int processedFileCount) {
+        this.processedFileCount = processedFileCount;
+    }
+
+    public int getFailedFileCount() {
+        return failedFileCount;
+    }
+
+    public void setFailedFileCount(int failedFileCount) {
+        this.failedFileCount = failedFileCount;
+    }
+
+    public long getTotalLineCount() {
+        return totalLineCount;
+    }
+
+    public void setTotalLineCount(long totalLineCount) {
+        this.totalLineCount = totalLineCount;
+    }
+
+    public long getTotalCharacterCount() {
+        return totalCharacterCount;
+    }
+
+    public void setTotalCharacterCount(long totalCharacterCount) {
+        this.totalCharacterCount = totalCharacterCount;
+    }
+
+    public long getTotalByteCount() {
+        return totalByteCount;
+    }
+
+    public void setTotalByteCount(long totalByteCount) {
+        this.totalByteCount = totalByteCount;
+    }
+
+    public int getArchivedEntryCount() {
+        return archivedEntryCount;
+    }
+
+    public void setArchivedEntryCount(int archivedEntryCount) {
+        this.archivedEntryCount = archivedEntryCount;
+    }
+
+    public long getArchiveBytesRead() {
+        return archiveBytesRead;
+    }
+
+    public void setArchiveBytesRead(long archiveBytesRead) {
+        this.archiveBytesRead = archiveBytesRead;
+    }
+
+    public long getArchiveBytesWritten() {
+        return archiveBytesWritten;
+    }
+
+    public void setArchiveBytesWritten(long archiveBytesWritten) {
+        this.archiveBytesWritten = archiveBytesWritten;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public void setBytesPerSecond(double bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+}
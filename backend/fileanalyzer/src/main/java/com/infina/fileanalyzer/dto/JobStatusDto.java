@@ -0,0 +1,197 @@
+package com.infina.fileanalyzer.dto;
+
+import com.infina.fileanalyzer.entity.AnalysisJob;
+import com.infina.fileanalyzer.entity.FileStats;
+import com.infina.fileanalyzer.entity.JobStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the state of an asynchronous analysis job.
+ * While the job runs it carries the results of the files finished so far,
+ * once it completes it also carries the final analysis and archive result.
+ */
+public class JobStatusDto {
+    private String jobId;
+    private String description;
+    private JobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int totalFileCount;
+    private int processedFileCount;
+    private int failedFileCount;
+    private long totalLineCount;
+    private long totalCharacterCount;
+    private long totalByteCount;
+    private int archivedEntryCount;
+    private long archiveBytesWritten;
+    private List<FileStats> completedFiles;
+    private FileAnalysisResponseDto result;
+    private String errorMessage;
+
+    public JobStatusDto() {
+    }
+
+    /**
+     * Builds a snapshot of the given job
+     *
+     * @param job The job to describe
+     */
+    public JobStatusDto(AnalysisJob job) {
+        this.jobId = job.getJobId();
+        this.description = job.getDescription();
+        this.status = job.getStatus();
+        this.submittedAt = job.getSubmittedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.totalFileCount = job.getTotalFileCount();
+        this.completedFiles = job.getCompletedFiles();
+        this.failedFileCount = job.getFailedFileCount();
+        this.processedFileCount = job.getProcessedFileCount();
+        this.totalLineCount = job.getTotalLineCount();
+        this.totalCharacterCount = job.getTotalCharacterCount();
+        this.totalByteCount = job.getTotalByteCount();
+        this.archivedEntryCount = job.getArchivedEntryCount();
+        this.archiveBytesWritten = job.getArchiveBytesWritten();
+        this.result = job.getResult();
+        this.errorMessage = job.getErrorMessage();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getTotalFileCount() {
+        return totalFileCount;
+    }
+
+    public void setTotalFileCount(int totalFileCount) {
+        this.totalFileCount = totalFileCount;
+    }
+
+    public int getProcessedFileCount() {
+        return processedFileCount;
+    }
+
+    public void setProcessedFileCount(int processedFileCount) {
+        this.processedFileCount = processedFileCount;
+    }
+
+    public int getFailedFileCount() {
+        return failedFileCount;
+    }
+
+    public void setFailedFileCount(int failedFileCount) {
+        this.failedFileCount = failedFileCount;
+    }
+
+    public long getTotalLineCount() {
+        return totalLineCount;
+    }
+
+    public void setTotalLineCount(long totalLineCount) {
+        this.totalLineCount = totalLineCount;
+    }
+
+    public long getTotalCharacterCount() {
+        return totalCharacterCount;
+    }
+
+    public void setTotalCharacterCount(long totalCharacterCount) {
+        this.totalCharacterCount = totalCharacterCount;
+    }
+
+    public long getTotalByteCount() {
+        return totalByteCount;
+    }
+
+    public void setTotalByteCount(long totalByteCount) {
+        this.totalByteCount = totalByteCount;
+    }
+
+    public int getArchivedEntryCount() {
+        return archivedEntryCount;
+    }
+
+    public void setArchivedEntryCount(int archivedEntryCount) {
+        this.archivedEntryCount = archivedEntryCount;
+    }
+
+    public long getArchiveBytesWritten() {
+        return archiveBytesWritten;
+    }
+
+    public void setArchiveBytesWritten(long archiveBytesWritten) {
+        this.archiveBytesWritten = archiveBytesWritten;
+    }
+
+    public List<FileStats> getCompletedFiles() {
+        return completedFiles;
+    }
+
+    public void setCompletedFiles(List<FileStats> completedFiles) {
+        this.completedFiles = completedFiles;
+    }
+
+    public FileAnalysisResponseDto getResult() {
+        return result;
+    }
+
+    public void setResult(FileAnalysisResponseDto result) {
+        this.result = result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
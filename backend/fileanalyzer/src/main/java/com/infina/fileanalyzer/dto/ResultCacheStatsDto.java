@@ -0,0 +1,100 @@
+package com.infina.fileanalyzer.dto;
+
+import com.infina.fileanalyzer.engine.AnalysisResultCache;
+
+/**
+ * Data Transfer Object (DTO) for the statistics of the analysis result cache
+ */
+public class ResultCacheStatsDto {
+    private boolean enabled;
+    private long versionHits;
+    private long contentHits;
+    private long misses;
+    private long sampleCollisions;
+    private long evictions;
+    private int entries;
+    private double hitRatio;
+
+    public ResultCacheStatsDto() {
+    }
+
+    /**
+     * @param stats Statistics of the cache, or null if the cache is disabled
+     */
+    public ResultCacheStatsDto(AnalysisResultCache.Stats stats) {
+        this.enabled = stats != null;
+        if (stats != null) {
+            this.versionHits = stats.versionHits();
+            this.contentHits = stats.contentHits();
+            this.misses = stats.misses();
+            this.sampleCollisions = stats.sampleCollisions();
+            this.evictions = stats.evictions();
+            this.entries = stats.entries();
+            this.hitRatio = stats.hitRatio();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getVersionHits() {
+        return versionHits;
+    }
+
+    public void setVersionHits(long versionHits) {
+        this.versionHits = versionHits;
+    }
+
+    public long getContentHits() {
+        return contentHits;
+    }
+
+    public void setContentHits(long contentHits) {
+        this.contentHits = contentHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getSampleCollisions() {
+        return sampleCollisions;
+    }
+
+    public void setSampleCollisions(long sampleCollisions) {
+        this.sampleCollisions = sampleCollisions;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+}
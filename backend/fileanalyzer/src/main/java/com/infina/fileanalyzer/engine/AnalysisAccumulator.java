@@ -0,0 +1,139 @@
+package com.infina.fileanalyzer.engine;
+
+import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.entity.FileStats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Concurrent running totals for one analysis batch.
+ * Analysis tasks fold their FileStats in as they finish, so the batch totals are
+ * available as soon as the last file completes, without a second pass over the results.
+ * Sums use striped LongAccumulators with Math.addExact, so overflow fails loudly
+ * instead of wrapping around.
+ * Every file is also reported to the progress listener of the batch, and either to the
+ * result summary when the batch runs in summary mode or to the file list of the result.
+ */
+public class AnalysisAccumulator {
+
+    private final LocalDateTime analysisStartTime;
+    private final AnalysisProgressListener listener;
+    private final ResultSummary summary;
+    // Lock-free, in completion order; null in summary mode, where only the top files stay in memory
+    private final Queue<FileStats> fileStats;
+    private final LongAccumulator totalLines = exactSum();
+    private final LongAccumulator totalCharacters = exactSum();
+    private final LongAccumulator totalBytes = exactSum();
+    private final LongAccumulator totalProcessingNanos = exactSum();
+    private final LongAccumulator successfulFiles = exactSum();
+    private final LongAccumulator failedFiles = exactSum();
+
+    public AnalysisAccumulator(LocalDateTime analysisStartTime) {
+        this(analysisStartTime, AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * @param analysisStartTime Start of the batch
+     * @param listener          Receives every file as it is added
+     */
+    public AnalysisAccumulator(LocalDateTime analysisStartTime, AnalysisProgressListener listener) {
+        this(analysisStartTime, listener, null);
+    }
+
+    /**
+     * @param analysisStartTime Start of the batch
+     * @param listener          Receives every file as it is added
+     * @param summary           Receives every file in summary mode, null to keep the full file list
+     */
+    public AnalysisAccumulator(LocalDateTime analysisStartTime, AnalysisProgressListener listener,
+                               ResultSummary summary) {
+        this.analysisStartTime = analysisStartTime;
+        this.listener = listener;
+        this.summary = summary;
+        this.fileStats = summary == null ? new ConcurrentLinkedQueue<>() : null;
+    }
+
+    private static LongAccumulator exactSum() {
+        return new LongAccumulator(Math::addExact, 0);
+    }
+
+    /**
+     * Adds the statistics of one finished file. Safe to call from many threads.
+     *
+     * @param stats Result of a single file analysis
+     * @throws ArithmeticException if a total exceeds the 64-bit range
+     */
+    public void add(FileStats stats) {
+        if (summary != null) {
+            summary.add(stats);
+        } else {
+            fileStats.add(stats);
+        }
+        if (!stats.isProcessingCompleted()) {
+            failedFiles.accumulate(1);
+            listener.onFileFailed(stats.getFileName(), null);
+            return;
+        }
+        totalLines.accumulate(stats.getLineCount());
+        totalCharacters.accumulate(stats.getCharacterCount());
+        totalBytes.accumulate(stats.getByteCount());
+        totalProcessingNanos.accumulate(stats.getProcessingTimeNanos());
+        successfulFiles.accumulate(1);
+        listener.onFileCompleted(stats);
+    }
+
+    /**
+     * Records a file whose analysis task failed before producing FileStats.
+     *
+     * @param source Name of the file
+     * @param cause  Reason of the failure
+     */
+    public void addFailure(String source, Throwable cause) {
+        failedFiles.accumulate(1);
+        listener.onFileFailed(source, cause);
+    }
+
+    public long getSuccessfulFileCount() {
+        return successfulFiles.get();
+    }
+
+    public long getFailedFileCount() {
+        return failedFiles.get();
+    }
+
+    /**
+     * Builds the batch result from the running totals.
+     * In summary mode the result carries the top files of the summary instead of the file list,
+     * and the processed file count is taken from the totals; otherwise it lists every file added,
+     * in the order they were added.
+     *
+     * @return AnalysisResult with totals taken from this accumulator
+     * @throws ArithmeticException if a total exceeds the 64-bit range
+     */
+    public AnalysisResult toResult() {
+        AnalysisResult result;
+        if (summary != null) {
+            result = new AnalysisResult();
+            result.setResultMode(ResultMode.SUMMARY);
+            result.setSlowestFiles(summary.getSlowestFiles());
+            result.setLargestFiles(summary.getLargestFiles());
+            result.setTotalProcessedFiles(Math.toIntExact(successfulFiles.get() + failedFiles.get()));
+        } else {
+            result = new AnalysisResult(new ArrayList<>(fileStats));
+        }
+        result.setAnalysisStartTime(analysisStartTime);
+        result.setAnalysisEndTime(LocalDateTime.now());
+
+        result.setTotalLineCount(totalLines.get());
+        result.setTotalCharacterCount(totalCharacters.get());
+        result.setTotalByteCount(totalBytes.get());
+        result.setTotalProcessingTimeNanos(totalProcessingNanos.get());
+        result.setSuccessfulFileCount(Math.toIntExact(successfulFiles.get()));
+        result.setFailedFileCount(Math.toIntExact(failedFiles.get()));
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * Read strategy used by the counting engine for a single file.
+ */
+public enum AnalysisMode {
+    /** File is read sequentially into a pooled direct buffer */
+    STREAMING,
+    /** File is memory-mapped in fixed-size windows and counted in place */
+    MAPPED,
+    /** File is split into aligned chunks that are mapped and counted in parallel */
+    PARALLEL_MAPPED
+}
@@ -0,0 +1,52 @@
+package com.infina.fileanalyzer.engine;
+
+import com.infina.fileanalyzer.entity.FileStats;
+
+/**
+ * Receives progress of one analysis batch while it runs.
+ * Called from the analysis threads as files finish, so implementations must be thread-safe
+ * and should return quickly.
+ */
+public interface AnalysisProgressListener {
+
+    /**
+     * Listener that ignores all progress.
+     */
+    AnalysisProgressListener NONE = new AnalysisProgressListener() {
+    };
+
+    /**
+     * Called once before the analysis tasks of the batch are submitted.
+     *
+     * @param fileCount Number of files in the batch
+     */
+    default void onBatchStarted(int fileCount) {
+    }
+
+    /**
+     * Called when a file was analyzed successfully.
+     *
+     * @param stats Result of the file
+     */
+    default void onFileCompleted(FileStats stats) {
+    }
+
+    /**
+     * Called when the analysis of a file failed.
+     *
+     * @param source Name of the file
+     * @param cause  Reason of the failure, or null if the file did not complete without an error
+     */
+    default void onFileFailed(String source, Throwable cause) {
+    }
+
+    /**
+     * Called by the archive thread after each entry it took from the pipeline.
+     *
+     * @param entryCount   Entries taken so far
+     * @param bytesRead    Uncompressed bytes taken so far
+     * @param bytesWritten Bytes written to the archive file so far
+     */
+    default void onArchiveProgress(int entryCount, long bytesRead, long bytesWritten) {
+    }
+}
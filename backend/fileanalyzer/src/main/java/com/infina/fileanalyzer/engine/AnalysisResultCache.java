@@ -0,0 +1,311 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache of file counts, keyed by the SHA-256 of the content.
+ * <p>
+ * A file is looked up in three steps, cheapest first:
+ * <ol>
+ *     <li>Path, size and modification time seen before: the counts are reused without hashing.</li>
+ *     <li>Size and the CRC32C of the first and last few KB match a cached file: the file is hashed
+ *     without counting, and the counts are reused if the full SHA-256 matches. The CRC32C is only
+ *     a pre-filter, a content is never identified by it.</li>
+ *     <li>Otherwise the file is counted and hashed in the same read and the result is cached.</li>
+ * </ol>
+ * The content still reaches the sink in every case, so a file that is archived is read on a hit
+ * as well; only the counting is saved. Without a sink, an unchanged file is not read at all.
+ * Only a sample match whose full hash then differs costs a second read.
+ * <p>
+ * A miss costs more than counting alone because the content is hashed with SHA-256 as well,
+ * which makes it roughly two thirds slower. The cache only pays off when the same files are
+ * analyzed again, so it is disabled by default.
+ */
+public class AnalysisResultCache {
+
+    private static final int SAMPLE_BYTES = 4096;
+
+    private final DirectBufferPool bufferPool;
+    private final Store store;
+    private final LruMap<String, TextCounts> countsByHash;
+    private final LruMap<String, String> hashBySample;
+    private final LruMap<FileVersion, String> hashByVersion;
+
+    private final LongAdder versionHits = new LongAdder();
+    private final LongAdder contentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sampleCollisions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries Number of distinct contents kept before the least recently used is evicted
+     * @param bufferPool Pool supplying the buffers of hash-only reads
+     */
+    public AnalysisResultCache(int maxEntries, DirectBufferPool bufferPool) {
+        this(maxEntries, bufferPool, null);
+    }
+
+    /**
+     * @param maxEntries Number of distinct contents kept before the least recently used is evicted
+     * @param bufferPool Pool supplying the buffers of hash-only reads
+     * @param store      Receives newly counted files and supplies evicted counts, or null
+     */
+    public AnalysisResultCache(int maxEntries, DirectBufferPool bufferPool, Store store) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid cache size: " + maxEntries);
+        }
+        this.bufferPool = bufferPool;
+        this.store = store;
+        this.countsByHash = new LruMap<>(maxEntries, evictions);
+        this.hashBySample = new LruMap<>(maxEntries, null);
+        this.hashByVersion = new LruMap<>(maxEntries, null);
+    }
+
+    /**
+     * Counts that are computed on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Analysis {
+        TextCounts analyze(ContentSink sink) throws IOException;
+    }
+
+    /**
+     * Durable storage behind the cache.
+     */
+    public interface Store {
+
+        /**
+         * Called after a file was counted and added to the cache.
+         */
+        void stored(Entry entry);
+
+        /**
+         * Called when a content hash is known but its counts are no longer cached.
+         *
+         * @return Stored counts of the content, or null if unknown
+         */
+        TextCounts find(String contentHash);
+    }
+
+    /**
+     * One counted file, as kept by a {@link Store}.
+     *
+     * @param contentHash        SHA-256 of the content, see {@link ContentDigest#finish()}
+     * @param sample             Size and CRC32C of the first and last bytes of the content
+     * @param path               Absolute, normalized path of the file
+     * @param size               Size of the file
+     * @param lastModifiedMillis Modification time of the file when it was counted
+     * @param counts             Counts of the content
+     */
+    public record Entry(String contentHash, String sample, Path path, long size, long lastModifiedMillis,
+                        TextCounts counts) {
+    }
+
+    /**
+     * Returns the counts of a file, from the cache when its content was counted before.
+     *
+     * @param filePath File to count
+     * @param fileSize Size of the file
+     * @param sink     Receives the whole content in every case, or null
+     * @param analysis Counts the file while passing its content to the given sink
+     * @return Counts of the file
+     * @throws IOException if the file cannot be read, is not valid UTF-8 or the sink fails
+     */
+    public TextCounts analyze(Path filePath, long fileSize, ContentSink sink, Analysis analysis) throws IOException {
+        FileVersion version = new FileVersion(filePath.toAbsolutePath().normalize(), fileSize,
+                Files.getLastModifiedTime(filePath).toMillis());
+
+        // Unchanged file: neither counted nor hashed, only copied to the sink if there is one
+        String versionHash = hashByVersion.get(version);
+        TextCounts cached = versionHash != null ? findCounts(versionHash) : null;
+        if (cached != null) {
+            if (sink != null) {
+                copy(filePath, sink);
+            }
+            versionHits.increment();
+            return cached;
+        }
+
+        String sample = sample(filePath, fileSize);
+        String candidateHash = hashBySample.get(sample);
+        TextCounts candidate = candidateHash != null ? findCounts(candidateHash) : null;
+        if (candidate != null) {
+            // Probably seen before: hash only, and count only if the content turns out to differ
+            ContentDigest digest = new ContentDigest(sink);
+            copy(filePath, digest);
+            String fileHash = digest.finish();
+            if (fileHash.equals(candidateHash)) {
+                hashByVersion.put(version, fileHash);
+                contentHits.increment();
+                return candidate;
+            }
+            sampleCollisions.increment();
+            TextCounts counts = analysis.analyze(null);
+            store(fileHash, sample, version, counts);
+            return counts;
+        }
+
+        // Not seen before: count and hash in the same read
+        ContentDigest digest = new ContentDigest(sink);
+        TextCounts counts = analysis.analyze(digest);
+        store(digest.finish(), sample, version, counts);
+        return counts;
+    }
+
+    /**
+     * Adds a file that was counted earlier, e.g. by a previous run, without replacing newer entries.
+     * Files identified by another checksum than SHA-256, e.g. by an older version, are ignored.
+     *
+     * @param entry File to add
+     */
+    public void restore(Entry entry) {
+        if (!ContentDigest.isContentHash(entry.contentHash())) {
+            return;
+        }
+        countsByHash.putIfAbsent(entry.contentHash(), entry.counts());
+        hashBySample.putIfAbsent(entry.sample(), entry.contentHash());
+        hashByVersion.putIfAbsent(new FileVersion(entry.path(), entry.size(), entry.lastModifiedMillis()),
+                entry.contentHash());
+    }
+
+    /**
+     * Returns the content hash of a file that was counted at the given size and modification time.
+     *
+     * @param filePath           File that was counted
+     * @param fileSize           Size of the file when it was counted
+     * @param lastModifiedMillis Modification time of the file when it was counted
+     * @return SHA-256 of the content, or null if that version of the file is not cached
+     */
+    public String findContentHash(Path filePath, long fileSize, long lastModifiedMillis) {
+        return hashByVersion.get(new FileVersion(filePath.toAbsolutePath().normalize(), fileSize, lastModifiedMillis));
+    }
+
+    private TextCounts findCounts(String contentHash) {
+        TextCounts counts = countsByHash.get(contentHash);
+        if (counts == null && store != null) {
+            counts = store.find(contentHash);
+            if (counts != null) {
+                countsByHash.put(contentHash, counts);
+            }
+        }
+        return counts;
+    }
+
+    private void store(String contentHash, String sample, FileVersion version, TextCounts counts) {
+        countsByHash.put(contentHash, counts);
+        hashBySample.put(sample, contentHash);
+        hashByVersion.put(version, contentHash);
+        misses.increment();
+        if (store != null) {
+            store.stored(new Entry(contentHash, sample, version.path(), version.size(),
+                    version.lastModifiedMillis(), counts));
+        }
+    }
+
+    // Reads the whole file into the sink
+    private void copy(Path filePath, ContentSink sink) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while (channel.read(buffer.clear()) != -1) {
+                sink.write(buffer.flip());
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    // Size plus the CRC32C of the first and last bytes, which tells most different files apart
+    private static String sample(Path filePath, long fileSize) throws IOException {
+        int headLength = (int) Math.min(fileSize, SAMPLE_BYTES);
+        int tailLength = (int) Math.min(fileSize - headLength, SAMPLE_BYTES);
+        byte[] sample = new byte[headLength + tailLength];
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            readFully(channel, ByteBuffer.wrap(sample, 0, headLength), 0);
+            readFully(channel, ByteBuffer.wrap(sample, headLength, tailLength), fileSize - tailLength);
+        }
+        return fileSize + ":" + ContentDigest.checksum(sample, 0, sample.length);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File shrank while it was sampled");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * @return Hit, miss and eviction counts since the cache was created
+     */
+    public Stats getStats() {
+        return new Stats(versionHits.sum(), contentHits.sum(), misses.sum(), sampleCollisions.sum(),
+                evictions.sum(), countsByHash.size());
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param versionHits      Files reused by path, size and modification time without hashing
+     * @param contentHits      Files reused after hashing their content
+     * @param misses           Files that had to be counted
+     * @param sampleCollisions Misses that were read twice because only their sample matched
+     * @param evictions        Contents evicted to stay within the size limit
+     * @param entries          Contents currently cached
+     */
+    public record Stats(long versionHits, long contentHits, long misses, long sampleCollisions,
+                        long evictions, int entries) {
+
+        public double hitRatio() {
+            long lookups = versionHits + contentHits + misses;
+            return lookups > 0 ? (double) (versionHits + contentHits) / lookups : 0;
+        }
+    }
+
+    private record FileVersion(Path path, long size, long lastModifiedMillis) {
+    }
+
+    // Access-ordered map that drops its least recently used entry beyond the limit
+    private static final class LruMap<K, V> {
+
+        private final Map<K, V> map;
+
+        LruMap(int maxEntries, LongAdder evictions) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    boolean evict = size() > maxEntries;
+                    if (evict && evictions != null) {
+                        evictions.increment();
+                    }
+                    return evict;
+                }
+            };
+        }
+
+        synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        synchronized void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        synchronized void putIfAbsent(K key, V value) {
+            map.putIfAbsent(key, value);
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * How archive entries are compressed.
+ */
+public enum ArchiveCompressionMode {
+    /** Blocks are compressed one after another on the archive thread */
+    SERIAL,
+    /** Blocks are compressed concurrently on the archive compression pool */
+    PARALLEL
+}
@@ -0,0 +1,253 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands file content from the analysis threads to a single archive writer.
+ * An analysis thread opens an entry when it starts reading a file and writes every
+ * buffer it counts into it. The writer takes entries in the order they were opened
+ * and drains each one completely before moving to the next.
+ * Entry queues are bounded, so a slow writer throttles the readers instead of whole
+ * files being buffered in memory. An entry is only opened by a thread that is already
+ * reading, so the entry the writer waits for always has an active producer.
+ *
+ * Since the writer drains one entry at a time in opening order, the other readers can only
+ * fill their own queues and then wait for it. Files are still counted in parallel, but their
+ * reads effectively run at the pace of the archive writer, one entry after the other.
+ * Every chunk is copied into a newly allocated array.
+ *
+ * The writer only keeps the archive after the analysis side committed the pipeline.
+ * Finishing alone just ends the entries, e.g. before the analysis result is known.
+ */
+public class ArchivePipeline {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final byte[] END_OF_ENTRY = new byte[0];
+
+    private final int chunkSize;
+    private final int queuedChunksPerEntry;
+    private final BlockingQueue<Entry> entries = new LinkedBlockingQueue<>();
+    private final Entry endOfArchive;
+    private boolean finished;
+    private boolean committed;
+    private volatile Throwable failure;
+
+    /**
+     * @param chunkSize            Size of the chunks content is copied into
+     * @param queuedChunksPerEntry Chunks an entry may hold before its reader blocks
+     */
+    public ArchivePipeline(int chunkSize, int queuedChunksPerEntry) {
+        if (chunkSize <= 0 || queuedChunksPerEntry <= 0) {
+            throw new IllegalArgumentException("Invalid archive pipeline limits: chunkSize=" + chunkSize
+                    + ", queuedChunksPerEntry=" + queuedChunksPerEntry);
+        }
+        this.chunkSize = chunkSize;
+        this.queuedChunksPerEntry = queuedChunksPerEntry;
+        this.endOfArchive = new Entry(null, null, -1);
+    }
+
+    /**
+     * Opens the archive entry of content that is about to be read.
+     *
+     * @param name         Name of the entry in the archive
+     * @param source       File the content is read from, or null if it does not come from a file
+     * @param expectedSize Expected content size in bytes, or -1 if unknown
+     * @return Entry to write the content to
+     * @throws IllegalStateException if the pipeline was already finished
+     */
+    public synchronized Entry openEntry(String name, Path source, long expectedSize) {
+        if (finished) {
+            throw new IllegalStateException("Archive pipeline is already finished");
+        }
+        Entry entry = new Entry(name, source, expectedSize);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Signals that no more entries will be opened. Safe to call more than once.
+     */
+    public synchronized void finish() {
+        if (!finished) {
+            finished = true;
+            entries.add(endOfArchive);
+        }
+    }
+
+    /**
+     * Signals that the analysis of every entry succeeded, so the writer may keep the archive
+     * and delete its source files. Also finishes the pipeline. Has no effect after a failure.
+     */
+    public synchronized void commit() {
+        finish();
+        committed = true;
+        notifyAll();
+    }
+
+    /**
+     * Takes the next entry for the writer.
+     *
+     * @return Next entry in opening order, or null once the pipeline is finished and drained
+     * @throws IOException          if the pipeline has failed
+     * @throws InterruptedException if interrupted while waiting for an entry
+     */
+    public Entry nextEntry() throws IOException, InterruptedException {
+        Entry entry;
+        do {
+            checkFailure();
+            entry = entries.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } while (entry == null);
+        if (entry == endOfArchive) {
+            // Keep the marker for any further calls
+            entries.add(endOfArchive);
+            // The analysis may fail and finish while the writer waits for the marker
+            checkFailure();
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Waits until the analysis side committed or failed the pipeline.
+     * The writer calls this before it completes the archive.
+     *
+     * @throws IOException          if the pipeline has failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void awaitCommit() throws IOException, InterruptedException {
+        while (!committed && failure == null) {
+            wait();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Marks the pipeline as failed, either by the writer or because the analysis failed.
+     * From then on entry writes are discarded, so readers are neither blocked nor failed
+     * by the archive, and the writer stops at its next read. Only the first cause is kept.
+     *
+     * @param cause Reason the pipeline stopped
+     */
+    public synchronized void fail(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+        }
+        notifyAll();
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IOException("Archive pipeline failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Content of one archive entry, written by one reader and drained by the writer.
+     */
+    public final class Entry implements ContentSink {
+
+        private final String name;
+        private final Path source;
+        private final long expectedSize;
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(queuedChunksPerEntry);
+        private volatile IOException readFailure;
+
+        private Entry(String name, Path source, long expectedSize) {
+            this.name = name;
+            this.source = source;
+            this.expectedSize = expectedSize;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return File the content is read from, or null if it does not come from a file
+         */
+        public Path getSource() {
+            return source;
+        }
+
+        /**
+         * @return Expected content size in bytes, or -1 if unknown
+         */
+        public long getExpectedSize() {
+            return expectedSize;
+        }
+
+        @Override
+        public void write(ByteBuffer data) throws IOException {
+            while (data.hasRemaining() && failure == null) {
+                byte[] chunk = new byte[Math.min(chunkSize, data.remaining())];
+                data.get(chunk);
+                enqueue(chunk);
+            }
+        }
+
+        /**
+         * Marks the entry as complete after the whole file was written.
+         *
+         * @throws IOException if interrupted while waiting for queue space
+         */
+        public void complete() throws IOException {
+            enqueue(END_OF_ENTRY);
+        }
+
+        /**
+         * Marks the entry as failed because the file could not be read completely.
+         * The writer fails the archive instead of storing a truncated entry.
+         *
+         * @param cause Read error
+         */
+        public void abort(IOException cause) {
+            readFailure = cause;
+        }
+
+        /**
+         * Takes the next chunk of the entry content, waiting until the reader provides it.
+         *
+         * @return Next chunk in file order, or null once the reader completed the entry
+         * @throws IOException          if the reader aborted the entry or the pipeline failed
+         * @throws InterruptedException if interrupted while waiting for content
+         */
+        public byte[] nextChunk() throws IOException, InterruptedException {
+            while (true) {
+                byte[] chunk = chunks.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk == END_OF_ENTRY) {
+                    // Keep the marker for any further calls
+                    chunks.add(END_OF_ENTRY);
+                    return null;
+                }
+                if (chunk != null) {
+                    return chunk;
+                }
+                if (readFailure != null) {
+                    throw new IOException("Failed to read content of " + name, readFailure);
+                }
+                checkFailure();
+            }
+        }
+
+        private void enqueue(byte[] chunk) throws IOException {
+            try {
+                while (!chunks.offer(chunk, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (failure != null) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while passing content of " + name + " to the archive");
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * What the submitting thread does when the task window of a batch is full.
+ */
+public enum BackpressureMode {
+    /** The submitting thread waits until a task in flight completes */
+    BLOCK,
+    /** The submitting thread runs the task itself */
+    CALLER_RUNS
+}
@@ -0,0 +1,22 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * Mutable tally filled by a {@link CountingKernel} for one block of bytes.
+ * Every field is a plain count of byte classes, so blocks can be counted
+ * independently of the UTF-8 decoder state.
+ */
+public final class ByteClassCounts {
+    long lineFeeds;
+    long carriageReturns;
+    long crLfPairs;
+    long sequenceStarts;
+    long fourByteStarts;
+
+    void reset() {
+        lineFeeds = 0;
+        carriageReturns = 0;
+        crLfPairs = 0;
+        sequenceStarts = 0;
+        fourByteStarts = 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * Counts for a contiguous byte range of a file.
+ * Keeps the first and last byte of the range so that adjacent ranges can be merged
+ * without double counting a "\r\n" pair that straddles their boundary.
+ */
+public final class ChunkCounts {
+
+    private static final int LF = '\n';
+    private static final int CR = '\r';
+
+    /** Counts of an empty range, the identity element of {@link #merge(ChunkCounts)} */
+    public static final ChunkCounts EMPTY = new ChunkCounts(0, 0, 0, -1, -1);
+
+    private final long lineBreaks;
+    private final long characterCount;
+    private final long byteCount;
+    private final int firstByte;
+    private final int lastByte;
+
+    ChunkCounts(long lineBreaks, long characterCount, long byteCount, int firstByte, int lastByte) {
+        this.lineBreaks = lineBreaks;
+        this.characterCount = characterCount;
+        this.byteCount = byteCount;
+        this.firstByte = firstByte;
+        this.lastByte = lastByte;
+    }
+
+    /**
+     * Combines these counts with the counts of the range that immediately follows.
+     *
+     * @param next Counts of the following range
+     * @return Counts of both ranges as if they had been counted in one pass
+     */
+    public ChunkCounts merge(ChunkCounts next) {
+        if (byteCount == 0) {
+            return next;
+        }
+        if (next.byteCount == 0) {
+            return this;
+        }
+        // A "\r" ending this range and a "\n" starting the next one form a single line break
+        long splitCrLf = lastByte == CR && next.firstByte == LF ? 1 : 0;
+        return new ChunkCounts(
+                lineBreaks + next.lineBreaks - splitCrLf,
+                characterCount + next.characterCount,
+                byteCount + next.byteCount,
+                firstByte,
+                next.lastByte);
+    }
+
+    /**
+     * Converts range counts into final file counts.
+     * A last line without a terminator is counted as a line.
+     *
+     * @return TextCounts for the whole file
+     */
+    public TextCounts toTextCounts() {
+        boolean unterminatedLastLine = byteCount > 0 && lastByte != LF && lastByte != CR;
+        return new TextCounts(lineBreaks + (unterminatedLastLine ? 1 : 0), characterCount, byteCount);
+    }
+
+    public long getLineBreaks() {
+        return lineBreaks;
+    }
+
+    public long getCharacterCount() {
+        return characterCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+}
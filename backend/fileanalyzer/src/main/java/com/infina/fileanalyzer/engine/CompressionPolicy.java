@@ -0,0 +1,88 @@
+package com.infina.fileanalyzer.engine;
+
+import java.util.zip.Deflater;
+
+/**
+ * Chooses the compression of an archive entry from a sample of its first block.
+ * Tiny entries and entries whose sample barely shrinks are stored uncompressed;
+ * the others are deflated at a level derived from the configured target.
+ * The sample is compressed at the fastest level, which is cheap compared to
+ * compressing the whole entry and predicts the achievable ratio well enough.
+ */
+public class CompressionPolicy {
+
+    // Sample size, enough to see past file headers and short repetitions
+    private static final int SAMPLE_BYTES = 64 * 1024;
+    // Below this sampled ratio the fast level already gets close to the best ratio
+    private static final double HIGHLY_REDUNDANT_RATIO = 0.15;
+    private static final int DEFAULT_LEVEL = 6;
+
+    private final CompressionTarget target;
+    private final long storeBelowBytes;
+    private final double storeRatioThreshold;
+
+    /**
+     * @param target              Throughput versus ratio target
+     * @param storeBelowBytes     Entries smaller than this are stored uncompressed
+     * @param storeRatioThreshold Entries whose sample compresses to more than this fraction
+     *                            of its size are stored uncompressed
+     */
+    public CompressionPolicy(CompressionTarget target, long storeBelowBytes, double storeRatioThreshold) {
+        this.target = target;
+        this.storeBelowBytes = storeBelowBytes;
+        this.storeRatioThreshold = storeRatioThreshold;
+    }
+
+    /**
+     * Chooses the compression for an entry.
+     *
+     * @param firstBlock    Buffer holding the start of the entry
+     * @param length        Number of valid bytes in the buffer
+     * @param completeEntry Whether the buffer holds the whole entry
+     * @return Chosen method and level
+     */
+    public Choice choose(byte[] firstBlock, int length, boolean completeEntry) {
+        if (completeEntry && length < storeBelowBytes) {
+            return Choice.STORED;
+        }
+        double sampledRatio = sampleRatio(firstBlock, Math.min(length, SAMPLE_BYTES));
+        if (sampledRatio > storeRatioThreshold) {
+            return Choice.STORED;
+        }
+        return switch (target) {
+            case SPEED -> new Choice(false, Deflater.BEST_SPEED);
+            case RATIO -> new Choice(false, Deflater.BEST_COMPRESSION);
+            case BALANCED -> new Choice(false, sampledRatio < HIGHLY_REDUNDANT_RATIO ? Deflater.BEST_SPEED : DEFAULT_LEVEL);
+        };
+    }
+
+    // Compressed size of the sample at the fastest level divided by its size
+    private static double sampleRatio(byte[] data, int length) {
+        if (length == 0) {
+            return 1.0;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] output = new byte[8192];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(output);
+            }
+            return (double) compressed / length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Compression chosen for one entry.
+     *
+     * @param stored Whether the entry is stored uncompressed
+     * @param level  Deflater level, ignored for stored entries
+     */
+    public record Choice(boolean stored, int level) {
+        public static final Choice STORED = new Choice(true, Deflater.NO_COMPRESSION);
+    }
+}
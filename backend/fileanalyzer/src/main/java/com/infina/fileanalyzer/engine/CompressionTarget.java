@@ -0,0 +1,13 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * Trade-off between archiving throughput and compression ratio.
+ */
+public enum CompressionTarget {
+    /** Fastest DEFLATE level for every compressible entry */
+    SPEED,
+    /** Fast level for highly redundant content, default level otherwise */
+    BALANCED,
+    /** Best DEFLATE level for every compressible entry */
+    RATIO
+}
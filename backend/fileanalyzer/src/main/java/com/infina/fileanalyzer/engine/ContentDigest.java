@@ -0,0 +1,93 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * SHA-256 of content that passes through on its way to another sink.
+ * Wrapping the sink of an analysis hashes the content in the same read that counts it.
+ */
+public class ContentDigest implements ContentSink {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int HASH_LENGTH = 64;
+
+    private final MessageDigest digest;
+    private final ContentSink delegate;
+
+    /**
+     * @param delegate Sink receiving the content after it was hashed, or null
+     */
+    public ContentDigest(ContentSink delegate) {
+        this.digest = newDigest();
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        digest.update(data.duplicate());
+        if (delegate != null) {
+            delegate.write(data);
+        }
+    }
+
+    /**
+     * Completes the hash. The digest must not be written to afterwards.
+     *
+     * @return Hex encoded SHA-256 of all content written
+     */
+    public String finish() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes a byte range without passing it on.
+     *
+     * @param data   Bytes to hash
+     * @param offset Start of the range
+     * @param length Length of the range
+     * @return Hex encoded SHA-256 of the range
+     */
+    public static String hash(byte[] data, int offset, int length) {
+        MessageDigest digest = newDigest();
+        digest.update(data, offset, length);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes a cheap CRC32C checksum of a byte range. It only tells contents apart,
+     * equal checksums must still be confirmed by comparing the SHA-256 of the contents.
+     *
+     * @param data   Bytes to check
+     * @param offset Start of the range
+     * @param length Length of the range
+     * @return Hex encoded CRC32C of the range
+     */
+    public static String checksum(byte[] data, int offset, int length) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(data, offset, length);
+        return HexFormat.of().toHexDigits((int) checksum.getValue());
+    }
+
+    /**
+     * @param hash Stored content hash
+     * @return Whether the hash was computed by {@link #finish()}, as opposed to e.g. a CRC32C
+     *         identity written by an older version
+     */
+    public static boolean isContentHash(String hash) {
+        return hash.length() == HASH_LENGTH && hash.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
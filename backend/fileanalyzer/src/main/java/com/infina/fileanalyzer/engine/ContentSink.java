@@ -0,0 +1,21 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Second consumer of the bytes an analyzer reads, e.g. an archive entry.
+ * Analyzers pass every buffer they count to the sink in file order, so the
+ * file is read from storage only once for both consumers.
+ */
+public interface ContentSink {
+
+    /**
+     * Consumes the remaining bytes of the buffer.
+     * The buffer is only valid during the call; implementations must copy what they keep.
+     *
+     * @param data Bytes read from the file
+     * @throws IOException if the bytes cannot be consumed
+     */
+    void write(ByteBuffer data) throws IOException;
+}
@@ -0,0 +1,25 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * Bulk byte classification used by {@link Utf8TextCounter} for blocks of input.
+ * Implementations must produce exactly the same counts; they only differ in speed.
+ */
+public interface CountingKernel {
+
+    /**
+     * Counts line feeds, carriage returns, "\r\n" pairs fully inside the range,
+     * UTF-8 sequence start bytes and 4-byte sequence start bytes.
+     *
+     * @param data   Array holding the block
+     * @param from   Index of the first byte of the block
+     * @param to     Index after the last byte of the block
+     * @param counts Tally the counts are added to
+     * @return true if every byte in the block is ASCII
+     */
+    boolean count(byte[] data, int from, int to, ByteClassCounts counts);
+
+    /**
+     * @return Short name of the kernel for logging
+     */
+    String name();
+}
@@ -0,0 +1,109 @@
+package com.infina.fileanalyzer.engine;
+
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Factory and self-test for the optional SIMD counting kernel.
+ * The vector kernel is only instantiated reflectively, so the application still
+ * starts (with the scalar decoder loop) when jdk.incubator.vector is not enabled,
+ * or when the build left the kernel out (it is only compiled with the vector-api Maven profile).
+ */
+public final class CountingKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "com.infina.fileanalyzer.engine.VectorCountingKernel";
+    private static final String VECTOR_KERNEL_RESOURCE = VECTOR_KERNEL_CLASS.replace('.', '/') + ".class";
+
+    private static final int SELF_TEST_SAMPLES = 256;
+    private static final int SELF_TEST_MAX_LENGTH = 20_000;
+    private static final String[] SELF_TEST_FRAGMENTS = {
+            "a", "line", " ", "\t", "\n", "\r", "\r\n", "\u00E7", "\u011F", "\u20AC", "\uD83D\uDE00", "\uFEFF"
+    };
+
+    private CountingKernels() {
+    }
+
+    /**
+     * @return true if the Vector API module was added to the boot layer (--add-modules jdk.incubator.vector)
+     */
+    public static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * Looks the kernel class up without loading it, since loading needs the Vector API module.
+     *
+     * @return true if the vector kernel was compiled into this build
+     */
+    public static boolean isVectorKernelIncluded() {
+        return CountingKernels.class.getClassLoader().getResource(VECTOR_KERNEL_RESOURCE) != null;
+    }
+
+    /**
+     * Creates the Vector API kernel.
+     *
+     * @return CountingKernel backed by the Vector API
+     * @throws IllegalStateException if the Vector API module is not available
+     */
+    public static CountingKernel createVectorKernel() {
+        if (!isVectorApiAvailable()) {
+            throw new IllegalStateException("Module " + VECTOR_MODULE + " is not available");
+        }
+        try {
+            return (CountingKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Failed to create vector counting kernel", e);
+        }
+    }
+
+    /**
+     * Counts a fixed set of generated samples with the given kernel and with the
+     * scalar decoder loop, feeding them in irregular chunk sizes.
+     *
+     * @param kernel Kernel to verify
+     * @return true if the kernel matched the scalar results on every sample
+     */
+    public static boolean selfTest(CountingKernel kernel) {
+        Random random = new Random(42);
+        for (int sample = 0; sample < SELF_TEST_SAMPLES; sample++) {
+            byte[] data = generateSample(random);
+            boolean malformed = sample % 16 == 15;
+            if (malformed && data.length > 0) {
+                data[random.nextInt(data.length)] = (byte) (0x80 | random.nextInt(0x80));
+            }
+            int chunkSize = 1 + random.nextInt(4096);
+            if (!countSample(data, chunkSize, kernel).equals(countSample(data, chunkSize, null))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] generateSample(Random random) {
+        int targetLength = random.nextInt(SELF_TEST_MAX_LENGTH);
+        // Every fourth sample is pure ASCII to exercise the fast path
+        boolean asciiOnly = random.nextInt(4) == 0;
+        StringBuilder text = new StringBuilder(targetLength);
+        while (text.length() < targetLength) {
+            String fragment = SELF_TEST_FRAGMENTS[random.nextInt(SELF_TEST_FRAGMENTS.length)];
+            if (!asciiOnly || fragment.chars().allMatch(c -> c < 0x80)) {
+                text.append(fragment);
+            }
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String countSample(byte[] data, int chunkSize, CountingKernel kernel) {
+        Utf8TextCounter counter = new Utf8TextCounter(kernel);
+        try {
+            for (int offset = 0; offset < data.length; offset += chunkSize) {
+                counter.update(data, offset, Math.min(chunkSize, data.length - offset));
+            }
+            return counter.finish().toString();
+        } catch (MalformedInputException e) {
+            return "malformed";
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.infina.fileanalyzer.engine;
+
+import com.infina.fileanalyzer.entity.FileStats;
+import com.infina.fileanalyzer.entity.ManifestEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Last known analysis result of every file of one directory.
+ * A scan compares the files found in the directory with the manifest by size and modification
+ * time, so only new and changed files have to be analyzed again; the results of the others
+ * are taken from the manifest. Files are identified by their path relative to the directory,
+ * which is also the name their FileStats carry.
+ */
+public class DirectoryManifest {
+
+    // Sorted by name, so totals and listings do not depend on the listing order
+    private final Map<String, ManifestEntry> entries = new TreeMap<>();
+
+    public DirectoryManifest() {
+    }
+
+    /**
+     * @param entries Entries of a saved manifest
+     */
+    public DirectoryManifest(Collection<ManifestEntry> entries) {
+        for (ManifestEntry entry : entries) {
+            if (entry.getFileName() != null && entry.getFileStats() != null) {
+                this.entries.put(entry.getFileName(), entry);
+            }
+        }
+    }
+
+    /**
+     * Compares the current files of the directory with the manifest.
+     *
+     * @param directory Directory the files belong to
+     * @param files     All files currently in the directory tree
+     * @return Unchanged, new or changed, and removed files
+     * @throws IOException if the attributes of a file cannot be read
+     */
+    public Changes diff(Path directory, List<Path> files) throws IOException {
+        List<ManifestEntry> unchanged = new ArrayList<>();
+        List<FileState> changed = new ArrayList<>();
+        Set<String> present = new HashSet<>();
+        for (Path file : files) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String fileName = ParallelDirectoryWalker.relativeName(directory, file);
+            FileState state = new FileState(file, fileName, attributes.size(), attributes.lastModifiedTime().toMillis());
+            present.add(fileName);
+
+            ManifestEntry entry = entries.get(fileName);
+            if (entry != null && entry.getSize() == state.size()
+                    && entry.getLastModifiedMillis() == state.lastModifiedMillis()) {
+                unchanged.add(entry);
+            } else {
+                changed.add(state);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String fileName : entries.keySet()) {
+            if (!present.contains(fileName)) {
+                removed.add(fileName);
+            }
+        }
+        return new Changes(unchanged, changed, removed);
+    }
+
+    /**
+     * Records the outcome of analyzing the changed files of a scan.
+     * Removed files are dropped, and so are changed files without a completed result,
+     * which makes the next scan analyze them again.
+     *
+     * @param changes        Scan the results belong to
+     * @param results        Results of the analysis of the changed files
+     * @param contentHashes  Supplies the content hash of an analyzed file, or null if unknown
+     */
+    public void apply(Changes changes, List<FileStats> results, ContentHashLookup contentHashes) {
+        changes.removed().forEach(entries::remove);
+
+        Map<String, FileStats> resultsByName = new HashMap<>();
+        for (FileStats stats : results) {
+            resultsByName.put(stats.getFileName(), stats);
+        }
+        for (FileState state : changes.changed()) {
+            String fileName = state.name();
+            FileStats stats = resultsByName.get(fileName);
+            if (stats != null && stats.isProcessingCompleted()) {
+                entries.put(fileName, new ManifestEntry(fileName, state.size(), state.lastModifiedMillis(),
+                        contentHashes.find(state), stats));
+            } else {
+                entries.remove(fileName);
+            }
+        }
+    }
+
+    /**
+     * @return Results of all files in the manifest, ordered by file name
+     */
+    public List<FileStats> getFileStats() {
+        List<FileStats> fileStats = new ArrayList<>(entries.size());
+        for (ManifestEntry entry : entries.values()) {
+            fileStats.add(entry.getFileStats());
+        }
+        return fileStats;
+    }
+
+    /**
+     * @return All entries, ordered by file name
+     */
+    public List<ManifestEntry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Finds the content hash of an analyzed file.
+     */
+    @FunctionalInterface
+    public interface ContentHashLookup {
+        String find(FileState state);
+    }
+
+    /**
+     * Size and modification time of a file when it was scanned.
+     *
+     * @param path               File
+     * @param name               Path of the file relative to the directory
+     * @param size               Size of the file
+     * @param lastModifiedMillis Modification time of the file
+     */
+    public record FileState(Path path, String name, long size, long lastModifiedMillis) {
+    }
+
+    /**
+     * Result of comparing a directory with its manifest.
+     *
+     * @param unchanged Entries of files whose size and modification time did not change
+     * @param changed   New files and files whose size or modification time changed
+     * @param removed   Names of files in the manifest that are no longer in the directory
+     */
+    public record Changes(List<ManifestEntry> unchanged, List<FileState> changed, List<String> removed) {
+
+        public boolean isEmpty() {
+            return changed.isEmpty() && removed.isEmpty();
+        }
+
+        public List<Path> changedFiles() {
+            return changed.stream().map(FileState::path).toList();
+        }
+    }
+}
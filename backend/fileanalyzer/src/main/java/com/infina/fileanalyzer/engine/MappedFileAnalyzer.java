@@ -0,0 +1,67 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Counts lines, characters and bytes of a file directly from mapped memory.
+ * The file is mapped window by window, so files far larger than the heap
+ * (and larger than the 2 GB limit of a single mapping) can be analyzed
+ * without copying their content into Java buffers.
+ * Each window is unmapped as soon as it is counted.
+ */
+public class MappedFileAnalyzer {
+
+    private final long windowSize;
+    private final CountingKernel countingKernel;
+
+    /**
+     * @param windowSize     Size of each mapped window in bytes
+     * @param countingKernel Bulk counting kernel, or null for the scalar decoder loop
+     */
+    public MappedFileAnalyzer(long windowSize, CountingKernel countingKernel) {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mapping window size must be between 1 and "
+                    + Integer.MAX_VALUE + " bytes: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.countingKernel = countingKernel;
+    }
+
+    /**
+     * Maps the file in consecutive windows and counts its content.
+     *
+     * @param filePath Path to the file to analyze
+     * @return TextCounts for the whole file
+     * @throws IOException if the file cannot be mapped or is not valid UTF-8
+     */
+    public TextCounts analyze(Path filePath) throws IOException {
+        return analyze(filePath, null);
+    }
+
+    /**
+     * Maps the file in consecutive windows, counts them and passes each window to the sink.
+     * With a sink the whole file is forwarded even if it is not valid UTF-8.
+     *
+     * @param filePath Path to the file to analyze
+     * @param sink     Second consumer of the content, or null
+     * @return TextCounts for the whole file
+     * @throws IOException if the file cannot be mapped, is not valid UTF-8 or the sink fails
+     */
+    public TextCounts analyze(Path filePath, ContentSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            TeeCounter counter = new TeeCounter(countingKernel, sink);
+            long size = channel.size();
+            for (long position = 0; position < size; position += windowSize) {
+                long length = Math.min(windowSize, size - position);
+                MappedWindows.withWindow(channel, position, length, window -> {
+                    counter.update(window);
+                    return null;
+                });
+            }
+            return counter.finish();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maps file windows for the analyzers and releases them as soon as they are consumed.
+ * A mapping otherwise lives until its buffer is garbage collected and keeps the file in use,
+ * so on Windows the file could not be deleted after archiving. A file truncated by another
+ * process while it is mapped makes the JVM fail the read with an InternalError (SIGBUS);
+ * it is reported as an IOException of that file instead.
+ */
+final class MappedWindows {
+
+    // sun.misc.Unsafe.invokeCleaner bound to the Unsafe instance, or null if the JDK does not expose it
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private MappedWindows() {
+    }
+
+    /**
+     * Consumer of one mapped window. The window must not be used after the call returns.
+     */
+    @FunctionalInterface
+    interface WindowFunction<T> {
+        T apply(MappedByteBuffer window) throws IOException;
+    }
+
+    /**
+     * Maps a range of the file read-only, passes it to the function and unmaps it.
+     *
+     * @param channel  Channel of the file
+     * @param position Offset of the window in the file
+     * @param length   Length of the window in bytes
+     * @param function Consumer of the window
+     * @return Result of the function
+     * @throws IOException if the range cannot be mapped, the file shrank while it was read or the function fails
+     */
+    static <T> T withWindow(FileChannel channel, long position, long length, WindowFunction<T> function)
+            throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        try {
+            return function.apply(window);
+        } catch (InternalError e) {
+            throw new IOException("File changed while it was mapped, at offset " + position, e);
+        } finally {
+            unmap(window);
+        }
+    }
+
+    private static void unmap(ByteBuffer window) {
+        if (INVOKE_CLEANER == null) {
+            return; // Left to the garbage collector
+        }
+        try {
+            INVOKE_CLEANER.invokeExact(window);
+        } catch (Throwable e) {
+            // The window is still released by the garbage collector
+        }
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            MethodHandle invokeCleaner = MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class));
+            return invokeCleaner.bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
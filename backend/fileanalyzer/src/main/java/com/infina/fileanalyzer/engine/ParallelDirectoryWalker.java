@@ -0,0 +1,233 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Walks a directory tree on a ForkJoinPool, listing each subdirectory in its own task.
+ * Files are passed to the consumer as soon as they are found, from the pool threads, so work
+ * on them can start while the rest of the tree is still being listed.
+ * <p>
+ * Include and exclude rules are globs. A glob containing {@code /} is matched against the path
+ * relative to the root, any other glob against the file name only, so {@code *.txt} matches at
+ * every depth and {@code archive/**} only below the top-level {@code archive} directory.
+ * A file is passed on if it matches an include glob (or there are none) and no exclude glob;
+ * excluded directories are not entered. Symbolic links to files are followed, links to
+ * directories are not, so the walk cannot loop.
+ * <p>
+ * The tree may change during the walk: entries that disappear after they were listed are
+ * skipped, and so are subdirectories and entries that cannot be read, which the result lists.
+ * Only a root that cannot be listed fails the walk.
+ * <p>
+ * A consumer stops the walk by throwing: directories that were not listed yet are skipped,
+ * and the exception is rethrown by {@link #walk} once the running listings ended.
+ */
+public class ParallelDirectoryWalker {
+
+    private final ForkJoinPool pool;
+    private final List<Rule> includes;
+    private final List<Rule> excludes;
+    private final boolean recursive;
+
+    /**
+     * @param pool         Pool the directories are listed on
+     * @param includeGlobs Globs selecting the files to pass on, all files if empty
+     * @param excludeGlobs Globs of files and directories to skip
+     * @param recursive    Whether to walk subdirectories or only the root
+     */
+    public ParallelDirectoryWalker(ForkJoinPool pool, List<String> includeGlobs, List<String> excludeGlobs,
+                                   boolean recursive) {
+        this.pool = pool;
+        this.includes = includeGlobs.stream().map(Rule::of).toList();
+        this.excludes = excludeGlobs.stream().map(Rule::of).toList();
+        this.recursive = recursive;
+    }
+
+    /**
+     * Outcome of a {@link #walk}.
+     *
+     * @param fileCount       Number of files passed to the consumer
+     * @param unreadablePaths Subdirectories and entries that were skipped because they could not be read
+     */
+    public record WalkResult(long fileCount, List<Path> unreadablePaths) {
+    }
+
+    /**
+     * Walks the tree below the root and waits until every directory was listed.
+     *
+     * @param root     Directory to walk
+     * @param consumer Receives every selected file; called concurrently from the pool threads
+     * @return Number of files passed on and the paths that were skipped
+     * @throws IOException if the root cannot be listed
+     */
+    public WalkResult walk(Path root, Consumer<Path> consumer) throws IOException {
+        LongAdder fileCount = new LongAdder();
+        Queue<Path> unreadablePaths = new ConcurrentLinkedQueue<>();
+        try {
+            pool.invoke(new DirectoryTask(root, root, consumer, fileCount, unreadablePaths, new AtomicBoolean()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new WalkResult(fileCount.sum(), List.copyOf(unreadablePaths));
+    }
+
+    /**
+     * Name of a file relative to the root of a walk, with {@code /} as separator on every platform.
+     *
+     * @param root Root of the walk
+     * @param file File below the root
+     * @return Relative name, e.g. {@code logs/2024/app.txt}, or the file name if the file is not below the root
+     */
+    public static String relativeName(Path root, Path file) {
+        if (!file.startsWith(root) || file.equals(root)) {
+            return file.getFileName().toString();
+        }
+        Path relative = root.relativize(file);
+        StringBuilder name = new StringBuilder();
+        for (Path part : relative) {
+            if (!name.isEmpty()) {
+                name.append('/');
+            }
+            name.append(part);
+        }
+        return name.toString();
+    }
+
+    private boolean isIncluded(Path relative) {
+        return (includes.isEmpty() || matchesAny(includes, relative)) && !matchesAny(excludes, relative);
+    }
+
+    private static boolean matchesAny(List<Rule> rules, Path relative) {
+        for (Rule rule : rules) {
+            if (rule.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A glob matched against the relative path, or against the file name if it has no separator
+    private record Rule(PathMatcher matcher, boolean matchesPath) {
+
+        static Rule of(String glob) {
+            return new Rule(FileSystems.getDefault().getPathMatcher("glob:" + glob), glob.contains("/"));
+        }
+
+        boolean matches(Path relative) {
+            return matcher.matches(matchesPath ? relative : relative.getFileName());
+        }
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+
+        private final Path root;
+        private final Path directory;
+        private final Consumer<Path> consumer;
+        private final LongAdder fileCount;
+        private final Queue<Path> unreadablePaths;
+        private final AtomicBoolean stopped;
+
+        DirectoryTask(Path root, Path directory, Consumer<Path> consumer, LongAdder fileCount,
+                      Queue<Path> unreadablePaths, AtomicBoolean stopped) {
+            this.root = root;
+            this.directory = directory;
+            this.consumer = consumer;
+            this.fileCount = fileCount;
+            this.unreadablePaths = unreadablePaths;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try {
+                listDirectory(subdirectories);
+                for (DirectoryTask subdirectory : subdirectories) {
+                    subdirectory.join();
+                }
+            } catch (RuntimeException | Error e) {
+                // Subdirectories that have not started skip their listing, the others are waited for
+                stopped.set(true);
+                subdirectories.forEach(DirectoryTask::quietlyJoin);
+                throw e;
+            }
+        }
+
+        private void listDirectory(List<DirectoryTask> subdirectories) {
+            if (stopped.get()) {
+                return;
+            }
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (stopped.get()) {
+                        return;
+                    }
+                    BasicFileAttributes attributes = readAttributes(entry);
+                    if (attributes == null) {
+                        continue;
+                    }
+                    Path relative = root.relativize(entry);
+                    if (attributes.isDirectory()) {
+                        if (recursive && !matchesAny(excludes, relative)) {
+                            DirectoryTask subdirectory = new DirectoryTask(root, entry, consumer, fileCount,
+                                    unreadablePaths, stopped);
+                            subdirectory.fork();
+                            subdirectories.add(subdirectory);
+                        }
+                    } else if ((attributes.isRegularFile() || attributes.isSymbolicLink() && Files.isRegularFile(entry))
+                            && isIncluded(relative)) {
+                        consumer.accept(entry);
+                        fileCount.increment();
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Removed since its parent was listed; a missing root is still an error
+                failIfRoot(e);
+            } catch (IOException e) {
+                // Access denied or an I/O error; the rest of the walk goes on without this subdirectory
+                failIfRoot(e);
+                unreadablePaths.add(directory);
+            } catch (DirectoryIteratorException e) {
+                // Failed while listing, the entries before the failure were already taken
+                failIfRoot(e.getCause());
+                unreadablePaths.add(directory);
+            }
+        }
+
+        // Attributes of a listed entry, or null if it vanished or cannot be read
+        private BasicFileAttributes readAttributes(Path entry) {
+            try {
+                return Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                unreadablePaths.add(entry);
+                return null;
+            }
+        }
+
+        private void failIfRoot(IOException e) {
+            if (directory.equals(root)) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts a single large file on several cores.
+ * The file is split into byte ranges whose boundaries are moved forward to the
+ * next UTF-8 sequence start, each range is mapped and counted by a ForkJoin task,
+ * and the partial counts are merged back in file order.
+ * Every mapped range is unmapped as soon as it is consumed.
+ */
+public class ParallelFileAnalyzer {
+
+    // Longest run of continuation bytes allowed after a UTF-8 lead byte
+    private static final int MAX_CONTINUATION_BYTES = 3;
+
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final CountingKernel countingKernel;
+
+    /**
+     * @param pool           ForkJoinPool the chunk tasks run on
+     * @param chunkSize      Target size of each chunk in bytes
+     * @param countingKernel Bulk counting kernel, or null for the scalar decoder loop
+     */
+    public ParallelFileAnalyzer(ForkJoinPool pool, long chunkSize, CountingKernel countingKernel) {
+        if (chunkSize <= MAX_CONTINUATION_BYTES || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk size must be between " + (MAX_CONTINUATION_BYTES + 1)
+                    + " and " + Integer.MAX_VALUE + " bytes: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.countingKernel = countingKernel;
+    }
+
+    /**
+     * Splits the file into aligned chunks, counts them in parallel and merges the results.
+     *
+     * @param filePath Path to the file to analyze
+     * @return TextCounts for the whole file
+     * @throws IOException if the file cannot be mapped or is not valid UTF-8
+     */
+    public TextCounts analyze(Path filePath) throws IOException {
+        return analyze(filePath, null);
+    }
+
+    /**
+     * Counts the file in parallel while the calling thread passes the same mapped
+     * chunks to the sink in file order. Both consumers share the mapped pages, so the
+     * file is still read from storage once. With a sink the whole file is forwarded
+     * even if it is not valid UTF-8.
+     *
+     * @param filePath Path to the file to analyze
+     * @param sink     Second consumer of the content, or null
+     * @return TextCounts for the whole file
+     * @throws IOException if the file cannot be mapped, is not valid UTF-8 or the sink fails
+     */
+    public TextCounts analyze(Path filePath, ContentSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel);
+            ChunkTask task = new ChunkTask(channel, countingKernel, boundaries, 0, boundaries.length - 1);
+            if (sink == null) {
+                return pool.invoke(task).toTextCounts();
+            }
+
+            pool.execute(task);
+            try {
+                for (int i = 0; i < boundaries.length - 1; i++) {
+                    long length = boundaries[i + 1] - boundaries[i];
+                    if (length > 0) {
+                        MappedWindows.withWindow(channel, boundaries[i], length, window -> {
+                            sink.write(window);
+                            return null;
+                        });
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                task.cancel(false);
+                throw e;
+            }
+            return task.join().toTextCounts();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Computes chunk start offsets, each moved past continuation bytes so no UTF-8 sequence is split
+    private long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunkCount = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        long[] boundaries = new long[chunkCount + 1];
+        ByteBuffer probe = ByteBuffer.allocate(MAX_CONTINUATION_BYTES);
+
+        for (int i = 1; i < chunkCount; i++) {
+            long boundary = i * chunkSize;
+            probe.clear();
+            channel.read(probe, boundary);
+            probe.flip();
+            int skip = 0;
+            while (skip < probe.limit() && isContinuationByte(probe.get(skip))) {
+                skip++;
+            }
+            boundaries[i] = boundary + skip;
+        }
+        boundaries[chunkCount] = size;
+        return boundaries;
+    }
+
+    private static boolean isContinuationByte(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Counts the chunks between two boundary indexes, splitting in halves until a single chunk remains.
+     */
+    private static final class ChunkTask extends RecursiveTask<ChunkCounts> {
+
+        private final FileChannel channel;
+        private final CountingKernel countingKernel;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, CountingKernel countingKernel, long[] boundaries, int from, int to) {
+            this.channel = channel;
+            this.countingKernel = countingKernel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ChunkCounts compute() {
+            if (to - from == 1) {
+                return countChunk(boundaries[from], boundaries[to]);
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(channel, countingKernel, boundaries, from, middle);
+            ChunkTask right = new ChunkTask(channel, countingKernel, boundaries, middle, to);
+            left.fork();
+            ChunkCounts rightCounts = right.compute();
+            return left.join().merge(rightCounts);
+        }
+
+        private ChunkCounts countChunk(long start, long end) {
+            if (end <= start) {
+                return ChunkCounts.EMPTY;
+            }
+            try {
+                return MappedWindows.withWindow(channel, start, end - start, chunk -> {
+                    Utf8TextCounter counter = new Utf8TextCounter(countingKernel);
+                    counter.update(chunk);
+                    return counter.finishChunk();
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
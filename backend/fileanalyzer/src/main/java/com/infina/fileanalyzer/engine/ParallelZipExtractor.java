@@ -0,0 +1,197 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts ZIP entries concurrently using the central directory.
+ * ZipFile gives random access to every entry, so each selected entry is inflated by
+ * its own task into an output file that is sized up front from the central directory,
+ * and entries that do not match the filter are never inflated.
+ * Entry names that would resolve outside the destination directory are skipped.
+ */
+public class ParallelZipExtractor {
+
+    private final ExecutorService pool;
+    private final int bufferSize;
+
+    /**
+     * @param pool       Pool the entries are extracted on
+     * @param bufferSize Size of the copy buffer of each extraction task
+     */
+    public ParallelZipExtractor(ExecutorService pool, int bufferSize) {
+        this.pool = pool;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Extracts the matching entries of a ZIP file.
+     *
+     * @param zipPath     ZIP file to extract
+     * @param destination Directory the entries are extracted into
+     * @param nameFilter  Selects the file entries to extract by name
+     * @param flatten     Whether to drop the directories of entry names and extract only file names
+     * @return Extracted files and skipped entries
+     * @throws IOException          if the archive cannot be read or an entry cannot be written
+     * @throws InterruptedException if interrupted while waiting for the extraction tasks
+     */
+    public Result extract(Path zipPath, Path destination, Predicate<String> nameFilter, boolean flatten)
+            throws IOException, InterruptedException {
+        Path root = destination.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            // Later entries with the same target replace earlier ones, as with sequential extraction
+            Map<Path, ZipEntry> targets = new LinkedHashMap<>();
+            List<String> unsafeEntries = new ArrayList<>();
+            int filteredEntries = 0;
+
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                Path target = resolveTarget(root, entry.getName(), flatten);
+                if (target == null) {
+                    unsafeEntries.add(entry.getName());
+                } else if (entry.isDirectory()) {
+                    if (!flatten) {
+                        Files.createDirectories(target);
+                    }
+                } else if (!nameFilter.test(entry.getName())) {
+                    filteredEntries++;
+                } else {
+                    targets.put(target, entry);
+                }
+            }
+
+            List<Future<Path>> futures = new ArrayList<>(targets.size());
+            try {
+                for (Map.Entry<Path, ZipEntry> target : targets.entrySet()) {
+                    futures.add(pool.submit(() -> extractEntry(zipFile, target.getValue(), target.getKey())));
+                }
+                List<Path> extractedFiles = new ArrayList<>(futures.size());
+                for (Future<Path> future : futures) {
+                    extractedFiles.add(future.get());
+                }
+                return new Result(extractedFiles, unsafeEntries, filteredEntries);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Failed to extract ZIP entry: " + cause.getMessage(), cause);
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Returns the file name of an entry, i.e. the part after the last directory separator.
+     *
+     * @param entryName Full entry name
+     * @return File name of the entry, empty for directory entries
+     */
+    public static String fileNameOf(String entryName) {
+        int separator = Math.max(entryName.lastIndexOf('/'), entryName.lastIndexOf('\\'));
+        return entryName.substring(separator + 1);
+    }
+
+    /**
+     * Returns the path of an entry inside the archive, normalized like the relative names of a
+     * directory walk: {@code /} as separator, without {@code .} segments and resolved {@code ..} segments.
+     *
+     * @param entryName Full entry name
+     * @return Relative name, e.g. {@code logs/2024/app.txt}, or null for directory entries and for
+     *         names that are absolute or would leave the directory the archive is extracted into
+     */
+    public static String relativeNameOf(String entryName) {
+        String name = entryName.replace('\\', '/');
+        if (name.startsWith("/") || name.endsWith("/")) {
+            return null;
+        }
+        Deque<String> segments = new ArrayDeque<>();
+        for (String segment : name.split("/")) {
+            if (segment.equals("..")) {
+                if (segments.pollLast() == null) {
+                    return null;
+                }
+            } else if (!segment.isEmpty() && !segment.equals(".")) {
+                segments.addLast(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    // Resolves the output path of an entry, or null if it would leave the destination directory
+    private static Path resolveTarget(Path root, String entryName, boolean flatten) {
+        Path target;
+        try {
+            if (flatten) {
+                String fileName = fileNameOf(entryName);
+                if (fileName.isEmpty()) {
+                    return null;
+                }
+                target = root.resolve(fileName).normalize();
+            } else {
+                target = root.resolve(entryName).normalize();
+            }
+        } catch (RuntimeException e) {
+            // Names that are not valid paths on this file system
+            return null;
+        }
+        return target.startsWith(root) && !target.equals(root) ? target : null;
+    }
+
+    private Path extractEntry(ZipFile zipFile, ZipEntry entry, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (InputStream input = zipFile.getInputStream(entry);
+             RandomAccessFile output = new RandomAccessFile(target.toFile(), "rw")) {
+            // Reserve the final size from the central directory, so the file is extended once
+            if (entry.getSize() > 0) {
+                output.setLength(entry.getSize());
+            }
+            FileChannel channel = output.getChannel();
+            byte[] buffer = new byte[bufferSize];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            long written = 0;
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                wrapped.clear().limit(read);
+                while (wrapped.hasRemaining()) {
+                    written += channel.write(wrapped, written);
+                }
+            }
+            // Drops anything beyond the actual content, e.g. of a previous longer file
+            channel.truncate(written);
+        }
+        return target;
+    }
+
+    /**
+     * Outcome of one extraction.
+     *
+     * @param extractedFiles  Files that were written
+     * @param unsafeEntries   Entry names skipped because they would leave the destination directory
+     * @param filteredEntries Number of file entries skipped by the name filter without being inflated
+     */
+    public record Result(List<Path> extractedFiles, List<String> unsafeEntries, int filteredEntries) {
+    }
+}
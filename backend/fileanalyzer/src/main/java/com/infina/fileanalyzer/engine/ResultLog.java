@@ -0,0 +1,261 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary log of typed records in a single file.
+ * <p>
+ * Every record is stored as {@code length, type, payload, checksum}: a 4-byte payload length,
+ * a 1-byte type, the payload and a CRC32C of type and payload. Records are never rewritten,
+ * so a record's offset stays valid for as long as the file exists and can be used as an index.
+ * A record that was only partly written when the process stopped fails its length or checksum
+ * test; {@link #scan} cuts the file back to the last complete record before new ones are appended.
+ * A record damaged in the middle of the file cuts off the records after it as well.
+ * <p>
+ * Records that are no longer needed stay in the file until {@link #compact} rewrites it with
+ * the records that are still needed; their offsets change then.
+ */
+public class ResultLog implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+
+    private final Path file;
+    private FileChannel channel;
+    private long end;
+    private boolean scanned;
+
+    /**
+     * Opens the log, creating the file and its directory if they do not exist.
+     *
+     * @param file Log file
+     * @throws IOException if the file cannot be opened
+     */
+    public ResultLog(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Receives the records of a scan in file order.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long offset, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    /**
+     * Decides which records a {@link #compact} keeps.
+     */
+    @FunctionalInterface
+    public interface RecordFilter {
+        boolean keep(long offset, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    /**
+     * Outcome of a {@link #scan}.
+     *
+     * @param records        Number of records read
+     * @param discardedBytes Bytes cut off after the last complete record; records behind a damaged
+     *                       one are among them, since the log cannot be read past it
+     * @param discardedAt    Offset the log was cut at, which is its size if nothing was discarded
+     */
+    public record ScanResult(int records, long discardedBytes, long discardedAt) {
+    }
+
+    /**
+     * Reads every complete record from the start of the log and truncates the file after the last one.
+     * Must be called once before the first {@link #append}.
+     *
+     * @param visitor Receives each record; the payload buffer is only valid during the call
+     * @return Number of records read and bytes discarded
+     * @throws IOException if the file cannot be read or the visitor fails
+     */
+    public synchronized ScanResult scan(RecordVisitor visitor) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        int records = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        while (offset + HEADER_BYTES + TRAILER_BYTES <= size) {
+            readFully(header.clear(), offset);
+            int length = header.getInt(0);
+            byte type = header.get(Integer.BYTES);
+            if (length < 0 || length > MAX_PAYLOAD_BYTES
+                    || offset + HEADER_BYTES + length + TRAILER_BYTES > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, offset + HEADER_BYTES);
+            readFully(trailer.clear(), offset + HEADER_BYTES + length);
+            if (trailer.getInt(0) != checksum(type, payload)) {
+                break;
+            }
+            visitor.visit(offset, type, payload);
+            offset += HEADER_BYTES + length + TRAILER_BYTES;
+            records++;
+        }
+        if (offset < size) {
+            // Incomplete or damaged record, e.g. the process stopped during an append
+            channel.truncate(offset);
+        }
+        end = offset;
+        scanned = true;
+        return new ScanResult(records, size - offset, offset);
+    }
+
+    /**
+     * Appends a record at the end of the log.
+     *
+     * @param type    Type of the record
+     * @param payload Content of the record
+     * @return Offset of the record, for {@link #read}
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long append(byte type, byte[] payload) throws IOException {
+        if (!scanned) {
+            throw new IllegalStateException("Result log must be scanned before appending: " + file);
+        }
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Record of " + payload.length + " bytes exceeds the limit of "
+                    + MAX_PAYLOAD_BYTES + " bytes");
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length + TRAILER_BYTES);
+        record.putInt(payload.length).put(type).put(payload)
+                .putInt(checksum(type, ByteBuffer.wrap(payload)))
+                .flip();
+
+        long offset = end;
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        end = position;
+        return offset;
+    }
+
+    /**
+     * Rewrites the log with only the records the filter keeps, in their previous order.
+     * The records are copied to a new file that then replaces the log, so a crash during the
+     * compaction leaves the previous log in place.
+     *
+     * @param filter Receives each record; the payload buffer is only valid during the call
+     * @return New offsets of the kept records, by their previous offsets
+     * @throws IOException if the log cannot be read or the new file cannot be written
+     */
+    public synchronized Map<Long, Long> compact(RecordFilter filter) throws IOException {
+        if (!scanned) {
+            throw new IllegalStateException("Result log must be scanned before compacting: " + file);
+        }
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Map<Long, Long> offsets = new HashMap<>();
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long offset = 0;
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (offset < end) {
+                readFully(header.clear(), offset);
+                int length = header.getInt(0);
+                long recordBytes = HEADER_BYTES + length + TRAILER_BYTES;
+                ByteBuffer record = ByteBuffer.allocate((int) recordBytes);
+                readFully(record, offset);
+                if (filter.keep(offset, header.get(Integer.BYTES), record.slice(HEADER_BYTES, length))) {
+                    offsets.put(offset, position);
+                    while (record.hasRemaining()) {
+                        position += target.write(record, position);
+                    }
+                }
+                offset += recordBytes;
+            }
+            target.force(true);
+            end = position;
+        }
+        // The open log is closed first, since an open file cannot be replaced on every platform
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return offsets;
+    }
+
+    /**
+     * Reads a single record.
+     *
+     * @param offset       Offset returned by {@link #append} or passed to a {@link RecordVisitor}
+     * @param expectedType Type the record must have
+     * @return Payload of the record
+     * @throws IOException if the record cannot be read, has another type or is damaged
+     */
+    public synchronized byte[] read(long offset, byte expectedType) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        int length = header.getInt(0);
+        byte type = header.get(Integer.BYTES);
+        if (type != expectedType || length < 0 || length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("No record of type " + expectedType + " at offset " + offset + " of " + file);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, offset + HEADER_BYTES);
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        readFully(trailer, offset + HEADER_BYTES + length);
+        if (trailer.getInt(0) != checksum(type, payload)) {
+            throw new IOException("Damaged record at offset " + offset + " of " + file);
+        }
+        return payload.array();
+    }
+
+    /**
+     * Forces appended records to the storage device.
+     *
+     * @throws IOException if the file cannot be synchronized
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * @return Size of the log in bytes
+     */
+    public synchronized long size() {
+        return end;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of " + file + " at offset " + position);
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private static int checksum(byte type, ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+}
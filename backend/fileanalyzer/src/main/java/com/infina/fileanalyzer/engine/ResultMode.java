@@ -0,0 +1,11 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * How the per-file results of a batch are returned.
+ */
+public enum ResultMode {
+    /** Every FileStats is kept and returned with the batch result */
+    FULL,
+    /** Only totals and the top files are kept; every FileStats is written out as it completes */
+    SUMMARY
+}
@@ -0,0 +1,85 @@
+package com.infina.fileanalyzer.engine;
+
+import com.infina.fileanalyzer.entity.FileStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Constant-memory view of the per-file results of one batch.
+ * Keeps only the N slowest and the N largest successfully analyzed files, each in a bounded
+ * min-heap, and hands every FileStats to a row sink as it completes, e.g. to spill it to a file.
+ * Memory therefore does not grow with the number of files in the batch.
+ */
+public class ResultSummary {
+
+    private static final Comparator<FileStats> BY_PROCESSING_TIME =
+            Comparator.comparingLong(FileStats::getProcessingTimeNanos);
+    private static final Comparator<FileStats> BY_SIZE = Comparator.comparingLong(FileStats::getByteCount);
+
+    private final int topN;
+    private final Consumer<FileStats> rowSink;
+    private final PriorityQueue<FileStats> slowestFiles;
+    private final PriorityQueue<FileStats> largestFiles;
+
+    /**
+     * @param topN    Files kept per ranking
+     * @param rowSink Receives every file as it is added, on the adding thread
+     */
+    public ResultSummary(int topN, Consumer<FileStats> rowSink) {
+        if (topN < 0) {
+            throw new IllegalArgumentException("Invalid number of top files: " + topN);
+        }
+        this.topN = topN;
+        this.rowSink = rowSink;
+        this.slowestFiles = new PriorityQueue<>(topN + 1, BY_PROCESSING_TIME);
+        this.largestFiles = new PriorityQueue<>(topN + 1, BY_SIZE);
+    }
+
+    /**
+     * Adds the statistics of one finished file. Safe to call from many threads.
+     *
+     * @param stats Result of a single file analysis
+     */
+    public void add(FileStats stats) {
+        rowSink.accept(stats);
+        if (!stats.isProcessingCompleted() || topN == 0) {
+            return;
+        }
+        synchronized (this) {
+            offer(slowestFiles, stats);
+            offer(largestFiles, stats);
+        }
+    }
+
+    /**
+     * @return Up to N files with the longest processing time, slowest first
+     */
+    public synchronized List<FileStats> getSlowestFiles() {
+        return descending(slowestFiles, BY_PROCESSING_TIME);
+    }
+
+    /**
+     * @return Up to N files with the most bytes, largest first
+     */
+    public synchronized List<FileStats> getLargestFiles() {
+        return descending(largestFiles, BY_SIZE);
+    }
+
+    // The head of the heap is the smallest kept file, it is dropped once the heap holds more than N
+    private void offer(PriorityQueue<FileStats> heap, FileStats stats) {
+        heap.offer(stats);
+        if (heap.size() > topN) {
+            heap.poll();
+        }
+    }
+
+    private static List<FileStats> descending(PriorityQueue<FileStats> heap, Comparator<FileStats> order) {
+        List<FileStats> files = new ArrayList<>(heap);
+        files.sort(order.reversed());
+        return files;
+    }
+}
@@ -0,0 +1,78 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Counts lines, characters and bytes of a file or stream in a single streaming pass.
+ * The content is read through a channel into a pooled direct buffer and
+ * decoded incrementally, so heap usage does not depend on the file size.
+ */
+public class StreamingFileAnalyzer {
+
+    private final DirectBufferPool bufferPool;
+    private final CountingKernel countingKernel;
+
+    /**
+     * @param bufferPool     Pool supplying the read buffers
+     * @param countingKernel Bulk counting kernel, or null for the scalar decoder loop
+     */
+    public StreamingFileAnalyzer(DirectBufferPool bufferPool, CountingKernel countingKernel) {
+        this.bufferPool = bufferPool;
+        this.countingKernel = countingKernel;
+    }
+
+    /**
+     * Reads the file once and returns its counts.
+     *
+     * @param filePath Path to the file to analyze
+     * @return TextCounts for the whole file
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    public TextCounts analyze(Path filePath) throws IOException {
+        return analyze(filePath, null);
+    }
+
+    /**
+     * Reads the file once, counts it and passes every buffer to the sink.
+     * With a sink the whole file is forwarded even if it is not valid UTF-8.
+     *
+     * @param filePath Path to the file to analyze
+     * @param sink     Second consumer of the content, or null
+     * @return TextCounts for the whole file
+     * @throws IOException if the file cannot be read, is not valid UTF-8 or the sink fails
+     */
+    public TextCounts analyze(Path filePath, ContentSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return analyze(channel, sink);
+        }
+    }
+
+    /**
+     * Reads a channel to its end, counts the content and passes every buffer to the sink.
+     * Used for content that does not come from a file, e.g. an inflating ZIP entry.
+     * The channel is not closed.
+     *
+     * @param channel Channel to read
+     * @param sink    Second consumer of the content, or null
+     * @return TextCounts for the whole content
+     * @throws IOException if the channel cannot be read, the content is not valid UTF-8 or the sink fails
+     */
+    public TextCounts analyze(ReadableByteChannel channel, ContentSink sink) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        try {
+            TeeCounter counter = new TeeCounter(countingKernel, sink);
+            while (channel.read(buffer.clear()) != -1) {
+                buffer.flip();
+                counter.update(buffer);
+            }
+            return counter.finish();
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.infina.fileanalyzer.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded set of tasks in flight for one batch.
+ * At most maxInFlight tasks are handed to the executor at a time; when the window is full,
+ * the submitting thread either waits for a free slot or runs the task itself. Submission
+ * therefore keeps pace with execution, and neither the executor queue nor the number of
+ * pending tasks grows with the size of the batch.
+ * No handle or result is kept per task: each result is passed to the sink of the window on
+ * the thread that produced it, so the window needs the same memory for any batch size.
+ * The first failure, of a task or of the sink, is kept and reported by {@link #awaitCompletion()}.
+ * Once a task failed or the window was cancelled, tasks that have not started yet are
+ * skipped and {@link #submit} returns false.
+ *
+ * @param <T> Result type of the tasks
+ */
+public class TaskWindow<T> {
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final BackpressureMode backpressure;
+    private final Semaphore slots;
+    private final Consumer<? super T> sink;
+    private int submitted;
+    private int completed;
+    private int callerRuns;
+    private boolean cancelled;
+    private Throwable failure;
+
+    /**
+     * @param executor     Executor running the tasks
+     * @param maxInFlight  Tasks that may be submitted and not yet completed
+     * @param backpressure What the submitting thread does when the window is full
+     */
+    public TaskWindow(Executor executor, int maxInFlight, BackpressureMode backpressure) {
+        this(executor, maxInFlight, backpressure, result -> { });
+    }
+
+    /**
+     * @param executor     Executor running the tasks
+     * @param maxInFlight  Tasks that may be submitted and not yet completed
+     * @param backpressure What the submitting thread does when the window is full
+     * @param sink         Receives every result on the thread that produced it; must be thread-safe
+     */
+    public TaskWindow(Executor executor, int maxInFlight, BackpressureMode backpressure, Consumer<? super T> sink) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Invalid task window size: " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.backpressure = backpressure;
+        this.slots = new Semaphore(maxInFlight);
+        this.sink = sink;
+    }
+
+    /**
+     * Submits a task once the window has room for it. Safe to call from many threads.
+     *
+     * @param task Task producing one result
+     * @return false if the task was not submitted because the window failed or was cancelled
+     * @throws InterruptedException       if the thread is interrupted while waiting for a slot
+     * @throws RejectedExecutionException if the executor does not accept the task
+     */
+    public boolean submit(Supplier<T> task) throws InterruptedException {
+        if (isStopped()) {
+            return false;
+        }
+        if (backpressure == BackpressureMode.CALLER_RUNS && !slots.tryAcquire()) {
+            synchronized (this) {
+                submitted++;
+                callerRuns++;
+            }
+            run(task);
+            return true;
+        }
+        if (backpressure == BackpressureMode.BLOCK) {
+            slots.acquire();
+        }
+        synchronized (this) {
+            if (cancelled || failure != null) {
+                slots.release();
+                return false;
+            }
+            submitted++;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(task);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            synchronized (this) {
+                submitted--;
+                notifyAll();
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every submitted task completed or one of them failed.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws ExecutionException   with the first failure of a task or of the sink
+     */
+    public synchronized void awaitCompletion() throws InterruptedException, ExecutionException {
+        while (failure == null && completed < submitted) {
+            wait();
+        }
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+    }
+
+    /**
+     * Stops the window; tasks that have not started yet are skipped and no new tasks are accepted.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Cancels the window and waits until the tasks that already started have returned, e.g. before
+     * a resource they read from is closed. Interrupts are deferred until the wait is over.
+     */
+    public synchronized void cancelAndAwait() {
+        cancelled = true;
+        boolean interrupted = false;
+        while (completed < submitted) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized int getSubmittedCount() {
+        return submitted;
+    }
+
+    public synchronized int getCompletedCount() {
+        return completed;
+    }
+
+    /**
+     * @return Tasks the submitting thread ran itself because the window was full
+     */
+    public synchronized int getCallerRunCount() {
+        return callerRuns;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public BackpressureMode getBackpressure() {
+        return backpressure;
+    }
+
+    private synchronized boolean isStopped() {
+        return cancelled || failure != null;
+    }
+
+    private void run(Supplier<T> task) {
+        Throwable taskFailure = null;
+        if (!isStopped()) {
+            try {
+                T result = task.get();
+                if (result != null) {
+                    sink.accept(result);
+                }
+            } catch (RuntimeException | Error e) {
+                taskFailure = e;
+            }
+        }
+        synchronized (this) {
+            completed++;
+            if (taskFailure != null && failure == null) {
+                failure = taskFailure;
+            }
+            notifyAll();
+        }
+    }
+}
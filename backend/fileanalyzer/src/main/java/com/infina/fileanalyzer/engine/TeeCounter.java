@@ -0,0 +1,45 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.MalformedInputException;
+
+/**
+ * Utf8TextCounter that also forwards every buffer to a ContentSink.
+ * With a sink, invalid UTF-8 does not stop the read: counting stops, the rest of
+ * the file still reaches the sink, and the failure is reported by finish().
+ */
+final class TeeCounter {
+
+    private final Utf8TextCounter counter;
+    private final ContentSink sink;
+    private MalformedInputException malformed;
+
+    TeeCounter(CountingKernel countingKernel, ContentSink sink) {
+        this.counter = new Utf8TextCounter(countingKernel);
+        this.sink = sink;
+    }
+
+    void update(ByteBuffer data) throws IOException {
+        if (sink == null) {
+            counter.update(data);
+            return;
+        }
+        ByteBuffer forward = data.duplicate();
+        if (malformed == null) {
+            try {
+                counter.update(data);
+            } catch (MalformedInputException e) {
+                malformed = e;
+            }
+        }
+        sink.write(forward);
+    }
+
+    TextCounts finish() throws IOException {
+        if (malformed != null) {
+            throw malformed;
+        }
+        return counter.finish();
+    }
+}
@@ -0,0 +1,39 @@
+package com.infina.fileanalyzer.engine;
+
+/**
+ * Immutable result of a single counting pass over a file's content.
+ * Line and character counts follow the same rules as {@code Files.lines} and
+ * {@code Files.readString(...).length()} so results match the previous implementation.
+ */
+public final class TextCounts {
+    private final long lineCount;
+    private final long characterCount;
+    private final long byteCount;
+
+    public TextCounts(long lineCount, long characterCount, long byteCount) {
+        this.lineCount = lineCount;
+        this.characterCount = characterCount;
+        this.byteCount = byteCount;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public long getCharacterCount() {
+        return characterCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TextCounts{" +
+                "lineCount=" + lineCount +
+                ", characterCount=" + characterCount +
+                ", byteCount=" + byteCount +
+                '}';
+    }
+}
@@ -0,0 +1,239 @@
+package com.infina.fileanalyzer.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.MalformedInputException;
+
+/**
+ * Incremental line/character/byte counter for UTF-8 encoded text.
+ * Bytes are fed in arbitrary chunks and decoded on the fly without building Strings.
+ * Counting rules:
+ * - Lines end with "\n", "\r" or "\r\n"; a trailing line without terminator is counted
+ * - Characters are UTF-16 code units, so supplementary code points count as two
+ * - Malformed UTF-8 is rejected, like the strict decoder used by Files.readString
+ *
+ * Without a bulk kernel every byte goes through the decoder loop. With a kernel,
+ * input is classified block by block and the decoder only re-checks blocks that
+ * contain non-ASCII bytes.
+ *
+ * Instances keep state between chunks and are not thread-safe.
+ */
+public final class Utf8TextCounter {
+
+    private static final int LF = '\n';
+    private static final int CR = '\r';
+    private static final int BLOCK_SIZE = 8192;
+
+    // Optional bulk kernel; null selects the byte-at-a-time decoder loop
+    private final CountingKernel bulkKernel;
+    private final ByteClassCounts blockCounts;
+    private byte[] scratch;
+
+    private long lineBreaks;
+    private long characters;
+    private long bytes;
+    private int firstByte = -1;
+    private int lastByte = -1;
+    private boolean previousWasCr;
+
+    // UTF-8 decoder state: continuation bytes still expected and the valid range for the next one
+    private int pendingContinuations;
+    private int nextLower = 0x80;
+    private int nextUpper = 0xBF;
+
+    public Utf8TextCounter() {
+        this(null);
+    }
+
+    public Utf8TextCounter(CountingKernel bulkKernel) {
+        this.bulkKernel = bulkKernel;
+        this.blockCounts = bulkKernel != null ? new ByteClassCounts() : null;
+    }
+
+    /**
+     * Consumes the remaining bytes of the buffer.
+     * The buffer position is advanced to its limit.
+     *
+     * @param buffer Buffer holding the next chunk of the file
+     * @throws MalformedInputException if the chunk contains an invalid UTF-8 sequence
+     */
+    public void update(ByteBuffer buffer) throws MalformedInputException {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        if (limit == start) {
+            return;
+        }
+        if (bulkKernel == null) {
+            for (int i = start; i < limit; i++) {
+                accept(buffer.get(i) & 0xFF);
+            }
+        } else {
+            // Kernels work on arrays, so copy block-sized slices into a reusable scratch array
+            if (scratch == null) {
+                scratch = new byte[BLOCK_SIZE];
+            }
+            for (int position = start; position < limit; position += BLOCK_SIZE) {
+                int length = Math.min(BLOCK_SIZE, limit - position);
+                buffer.get(position, scratch, 0, length);
+                countBlock(scratch, 0, length);
+            }
+        }
+        recordBoundaryBytes(buffer.get(start) & 0xFF, buffer.get(limit - 1) & 0xFF, limit - start);
+        buffer.position(limit);
+    }
+
+    /**
+     * Consumes a range of a byte array.
+     *
+     * @param data   Array holding the next chunk of the file
+     * @param offset Index of the first byte to consume
+     * @param length Number of bytes to consume
+     * @throws MalformedInputException if the chunk contains an invalid UTF-8 sequence
+     */
+    public void update(byte[] data, int offset, int length) throws MalformedInputException {
+        if (length == 0) {
+            return;
+        }
+        int limit = offset + length;
+        if (bulkKernel == null) {
+            for (int i = offset; i < limit; i++) {
+                accept(data[i] & 0xFF);
+            }
+        } else {
+            for (int position = offset; position < limit; position += BLOCK_SIZE) {
+                countBlock(data, position, Math.min(position + BLOCK_SIZE, limit));
+            }
+        }
+        recordBoundaryBytes(data[offset] & 0xFF, data[limit - 1] & 0xFF, length);
+    }
+
+    /**
+     * Completes the pass and returns the final counts.
+     *
+     * @return TextCounts for all bytes consumed so far
+     * @throws MalformedInputException if the input ends in the middle of a UTF-8 sequence
+     */
+    public TextCounts finish() throws MalformedInputException {
+        return finishChunk().toTextCounts();
+    }
+
+    /**
+     * Completes the pass over one range of a larger file.
+     * The range must start and end on UTF-8 sequence boundaries.
+     *
+     * @return ChunkCounts that can be merged with the counts of adjacent ranges
+     * @throws MalformedInputException if the range ends in the middle of a UTF-8 sequence
+     */
+    public ChunkCounts finishChunk() throws MalformedInputException {
+        if (pendingContinuations > 0) {
+            throw new MalformedInputException(1);
+        }
+        return new ChunkCounts(lineBreaks, characters, bytes, firstByte, lastByte);
+    }
+
+    private void recordBoundaryBytes(int first, int last, int length) {
+        if (bytes == 0) {
+            firstByte = first;
+        }
+        bytes += length;
+        lastByte = last;
+    }
+
+    // Counts a non-empty block with the bulk kernel and validates it only if it is not pure ASCII
+    private void countBlock(byte[] data, int from, int to) throws MalformedInputException {
+        blockCounts.reset();
+        boolean ascii = bulkKernel.count(data, from, to, blockCounts);
+        if (!ascii) {
+            validate(data, from, to);
+        } else if (pendingContinuations > 0) {
+            throw new MalformedInputException(1);
+        }
+
+        long breaks = blockCounts.lineFeeds + blockCounts.carriageReturns - blockCounts.crLfPairs;
+        // "\r" at the end of the previous block and "\n" at the start of this one form a single break
+        if (previousWasCr && data[from] == LF) {
+            breaks--;
+        }
+        lineBreaks += breaks;
+        characters += blockCounts.sequenceStarts + blockCounts.fourByteStarts;
+        previousWasCr = data[to - 1] == CR;
+    }
+
+    // Runs the decoder state machine over a block without counting
+    private void validate(byte[] data, int from, int to) throws MalformedInputException {
+        for (int i = from; i < to; i++) {
+            int b = data[i] & 0xFF;
+            if (pendingContinuations > 0) {
+                acceptContinuation(b);
+            } else if (b >= 0x80) {
+                startSequence(b);
+            }
+        }
+    }
+
+    private void accept(int b) throws MalformedInputException {
+        if (pendingContinuations > 0) {
+            acceptContinuation(b);
+            return;
+        }
+
+        if (b < 0x80) {
+            characters++;
+            if (b == LF) {
+                // "\r\n" was already counted at the "\r"
+                if (!previousWasCr) {
+                    lineBreaks++;
+                }
+                previousWasCr = false;
+            } else if (b == CR) {
+                lineBreaks++;
+                previousWasCr = true;
+            } else {
+                previousWasCr = false;
+            }
+            return;
+        }
+
+        previousWasCr = false;
+        characters += startSequence(b);
+    }
+
+    private void acceptContinuation(int b) throws MalformedInputException {
+        if (b < nextLower || b > nextUpper) {
+            throw new MalformedInputException(1);
+        }
+        pendingContinuations--;
+        nextLower = 0x80;
+        nextUpper = 0xBF;
+    }
+
+    // Sets up the decoder for a multi-byte sequence and returns its length in UTF-16 code units
+    private int startSequence(int b) throws MalformedInputException {
+        if (b >= 0xC2 && b <= 0xDF) {
+            pendingContinuations = 1;
+            return 1;
+        } else if (b == 0xE0) {
+            pendingContinuations = 2;
+            nextLower = 0xA0; // reject overlong encodings
+            return 1;
+        } else if (b == 0xED) {
+            pendingContinuations = 2;
+            nextUpper = 0x9F; // reject surrogate code points
+            return 1;
+        } else if (b >= 0xE1 && b <= 0xEF) {
+            pendingContinuations = 2;
+            return 1;
+        } else if (b == 0xF0) {
+            pendingContinuations = 3;
+            nextLower = 0x90; // reject overlong encodings
+            return 2;
+        } else if (b >= 0xF1 && b <= 0xF3) {
+            pendingContinuations = 3;
+            return 2;
+        } else if (b == 0xF4) {
+            pendingContinuations = 3;
+            nextUpper = 0x8F; // reject code points above U+10FFFF
+            return 2;
+        }
+        throw new MalformedInputException(1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.infina.fileanalyzer.engine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * CountingKernel built on the incubating Vector API.
+ * Classifies a full vector of bytes (32 with AVX2, 64 with AVX-512) per iteration.
+ * Only loaded through {@link CountingKernels} when the jdk.incubator.vector module is present.
+ *
+ * The speedup is limited to ASCII blocks. A block with any non-ASCII byte is still counted
+ * here, but {@link Utf8TextCounter} then validates it byte by byte with the scalar decoder,
+ * so text with non-ASCII characters in most blocks, such as Turkish prose where nearly every
+ * 8 KB block has one, is about as fast as without the kernel.
+ * ByteBuffer input, i.e. pooled direct and mapped buffers, is also copied into a scratch
+ * array block by block first, since the kernel works on arrays.
+ */
+final class VectorCountingKernel implements CountingKernel {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    // Signed view of UTF-8 bytes: continuation bytes 0x80-0xBF are -128..-65, 4-byte leads 0xF0-0xFF are -16..-1
+    private static final byte MIN_SEQUENCE_START = (byte) 0xC0;
+    private static final byte MIN_FOUR_BYTE_START = (byte) 0xF0;
+
+    @Override
+    public boolean count(byte[] data, int from, int to, ByteClassCounts counts) {
+        int lanes = SPECIES.length();
+        long lineFeeds = 0;
+        long carriageReturns = 0;
+        long crLfPairs = 0;
+        long sequenceStarts = 0;
+        long fourByteStarts = 0;
+        boolean ascii = true;
+
+        int i = from;
+        // The pair check reads one vector shifted by a byte, so keep one spare byte at the end
+        for (; i + lanes < to; i += lanes) {
+            ByteVector bytes = ByteVector.fromArray(SPECIES, data, i);
+            ByteVector nextBytes = ByteVector.fromArray(SPECIES, data, i + 1);
+
+            VectorMask<Byte> crMask = bytes.eq(CR);
+            lineFeeds += bytes.eq(LF).trueCount();
+            carriageReturns += crMask.trueCount();
+            crLfPairs += crMask.and(nextBytes.eq(LF)).trueCount();
+
+            VectorMask<Byte> nonAscii = bytes.lt((byte) 0);
+            if (nonAscii.anyTrue()) {
+                ascii = false;
+                sequenceStarts += bytes.compare(VectorOperators.GE, MIN_SEQUENCE_START).trueCount();
+                fourByteStarts += bytes.compare(VectorOperators.GE, MIN_FOUR_BYTE_START).and(nonAscii).trueCount();
+            } else {
+                sequenceStarts += lanes;
+            }
+        }
+
+        // Scalar tail
+        for (; i < to; i++) {
+            byte b = data[i];
+            if (b == LF) {
+                lineFeeds++;
+            } else if (b == CR) {
+                carriageReturns++;
+                if (i + 1 < to && data[i + 1] == LF) {
+                    crLfPairs++;
+                }
+            }
+            if (b >= 0) {
+                sequenceStarts++;
+            } else {
+                ascii = false;
+                if (b >= MIN_SEQUENCE_START) {
+                    sequenceStarts++;
+                    if (b >= MIN_FOUR_BYTE_START) {
+                        fourByteStarts++;
+                    }
+                }
+            }
+        }
+
+        counts.lineFeeds += lineFeeds;
+        counts.carriageReturns += carriageReturns;
+        counts.crLfPairs += crLfPairs;
+        counts.sequenceStarts += sequenceStarts;
+        counts.fourByteStarts += fourByteStarts;
+        return ascii;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize() + "bit";
+    }
+}
@@ -0,0 +1,524 @@
+package com.infina.fileanalyzer.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a ZIP archive whose entries are DEFLATE-compressed in independent blocks.
+ * Like pigz, each block is compressed on its own with the last 32 KB of the previous
+ * block as preset dictionary and ends on a byte boundary (sync flush), so the blocks
+ * can be compressed on a worker pool and simply concatenated into one valid stream.
+ * Blocks of consecutive entries are in flight at the same time, so small files are
+ * compressed in parallel too. CRCs are computed in order on the writing thread.
+ * Local headers are patched with the final CRC and sizes once an entry is written,
+ * and ZIP64 records are added when sizes, offsets or the entry count require them.
+ * Without a compression pool the blocks are compressed on the writing thread.
+ * The CompressionPolicy picks STORED or a DEFLATE level per entry from its first block.
+ */
+public class ZipArchiveWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final short ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_ENTRY_COUNT_LIMIT = 0xFFFF;
+    // Worst-case DEFLATE growth of incompressible data, used to decide on ZIP64 headers up front
+    private static final int DEFLATE_OVERHEAD_DIVISOR = 1000;
+    private static final int DEFLATE_OVERHEAD_FIXED = 1 << 20;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int LOCAL_CRC_OFFSET = 14;
+    private static final int ZIP64_LOCAL_EXTRA_SIZE = 20;
+
+    // One Deflater per compression thread and level, reset for every block
+    private static final ThreadLocal<Deflater[]> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater[Deflater.BEST_COMPRESSION + 1]);
+
+    private final FileChannel channel;
+    private final ExecutorService compressionPool;
+    private final int blockSize;
+    private final CompressionPolicy compressionPolicy;
+    private final int maxBlocksInFlight;
+
+    private final Deque<Object> pending = new ArrayDeque<>();
+    private final List<EntryRecord> entries = new ArrayList<>();
+    private int blocksInFlight;
+    private long bytesRead;
+    private long position;
+    private boolean closed;
+
+    /**
+     * @param outputPath        Path of the ZIP file to create
+     * @param compressionPool   Pool compressing the blocks, or null to compress on the calling thread
+     * @param blockSize         Uncompressed size of each independently compressed block
+     * @param compressionPolicy Chooses method and level of each entry
+     * @param maxBlocksInFlight Blocks that may be queued or compressing before the writer waits
+     * @throws IOException if the output file cannot be created
+     */
+    public ZipArchiveWriter(Path outputPath, ExecutorService compressionPool, int blockSize,
+                            CompressionPolicy compressionPolicy, int maxBlocksInFlight) throws IOException {
+        if (blockSize < DICTIONARY_SIZE || maxBlocksInFlight < 1) {
+            throw new IllegalArgumentException("Invalid ZIP writer limits: blockSize=" + blockSize
+                    + ", maxBlocksInFlight=" + maxBlocksInFlight);
+        }
+        this.channel = FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.compressionPool = compressionPool;
+        this.blockSize = blockSize;
+        this.compressionPolicy = compressionPolicy;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+    }
+
+    /**
+     * Reads an entry from the archive pipeline until its reader completes it, and
+     * submits its blocks for compression. Compressed blocks are written in order as
+     * they become ready, possibly while later entries are already being read.
+     *
+     * @param entry Pipeline entry to archive
+     * @throws IOException          if the entry content cannot be read or the archive cannot be written
+     * @throws InterruptedException if interrupted while waiting for content or compression
+     */
+    public void writeEntry(ArchivePipeline.Entry entry) throws IOException, InterruptedException {
+        EntryRecord record = new EntryRecord(entry.getName(), needsZip64(entry.getExpectedSize()));
+        pending.add(record);
+
+        CRC32 crc = new CRC32();
+        long uncompressedSize = 0;
+        byte[] block = new byte[blockSize];
+        int blockLength = 0;
+        byte[] dictionary = null;
+
+        for (byte[] chunk = entry.nextChunk(); chunk != null; chunk = entry.nextChunk()) {
+            crc.update(chunk);
+            uncompressedSize += chunk.length;
+            bytesRead += chunk.length;
+            int offset = 0;
+            while (offset < chunk.length) {
+                if (blockLength == blockSize) {
+                    // More content follows, so the full block is not the last one
+                    if (record.choice == null) {
+                        record.choice = compressionPolicy.choose(block, blockLength, false);
+                    }
+                    submitBlock(record.choice, block, blockLength, dictionary, false);
+                    dictionary = Arrays.copyOfRange(block, blockSize - DICTIONARY_SIZE, blockSize);
+                    block = new byte[blockSize];
+                    blockLength = 0;
+                }
+                int length = Math.min(chunk.length - offset, blockSize - blockLength);
+                System.arraycopy(chunk, offset, block, blockLength, length);
+                blockLength += length;
+                offset += length;
+            }
+        }
+        if (record.choice == null) {
+            record.choice = compressionPolicy.choose(block, blockLength, true);
+        }
+        submitBlock(record.choice, block, blockLength, dictionary, true);
+
+        record.crc = crc.getValue();
+        record.uncompressedSize = uncompressedSize;
+        pending.add(new EntryEnd(record));
+    }
+
+    /**
+     * Writes all pending blocks, the central directory and the end records, then closes the file.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            while (!pending.isEmpty()) {
+                drainOne();
+            }
+            writeCentralDirectory();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while finishing ZIP archive");
+        } finally {
+            abortPending();
+            channel.close();
+        }
+    }
+
+    /**
+     * Closes the file without writing the central directory, e.g. after a failure.
+     * Blocks that are still compressing are cancelled.
+     */
+    public void abort() {
+        closed = true;
+        abortPending();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // The incomplete archive is discarded anyway
+        }
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getTotalUncompressedBytes() {
+        return entries.stream().mapToLong(record -> record.uncompressedSize).sum();
+    }
+
+    public long getTotalCompressedBytes() {
+        return entries.stream().mapToLong(record -> record.compressedSize).sum();
+    }
+
+    /**
+     * @return Uncompressed bytes taken from the pipeline so far
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return Bytes written to the archive file so far, headers included
+     */
+    public long getBytesWritten() {
+        return position;
+    }
+
+    /**
+     * @return Method, level and sizes of every entry written so far, in archive order
+     */
+    public List<WrittenEntry> getWrittenEntries() {
+        return entries.stream()
+                .map(record -> new WrittenEntry(new String(record.name, StandardCharsets.UTF_8),
+                        record.choice.stored(), record.choice.level(),
+                        record.uncompressedSize, record.compressedSize))
+                .toList();
+    }
+
+    private void submitBlock(CompressionPolicy.Choice choice, byte[] block, int length, byte[] dictionary,
+                             boolean last) throws IOException, InterruptedException {
+        while (blocksInFlight >= maxBlocksInFlight) {
+            drainOne();
+        }
+        Future<byte[]> compressed;
+        if (choice.stored()) {
+            compressed = CompletableFuture.completedFuture(length == block.length ? block : Arrays.copyOf(block, length));
+        } else if (compressionPool == null) {
+            compressed = CompletableFuture.completedFuture(deflateBlock(block, length, dictionary, last, choice.level()));
+        } else {
+            int level = choice.level();
+            compressed = compressionPool.submit(() -> deflateBlock(block, length, dictionary, last, level));
+        }
+        pending.add(compressed);
+        blocksInFlight++;
+    }
+
+    // Writes the oldest pending item; waits for it if it is a block that is still compressing
+    @SuppressWarnings("unchecked")
+    private void drainOne() throws IOException, InterruptedException {
+        Object item = pending.poll();
+        if (item instanceof EntryRecord record) {
+            writeLocalHeader(record);
+        } else if (item instanceof EntryEnd end) {
+            finishEntry(end.record);
+        } else if (item instanceof Future<?> future) {
+            byte[] compressed = awaitBlock((Future<byte[]>) future);
+            blocksInFlight--;
+            EntryRecord current = entries.get(entries.size() - 1);
+            current.compressedSize += compressed.length;
+            write(ByteBuffer.wrap(compressed));
+        }
+    }
+
+    private static byte[] awaitBlock(Future<byte[]> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Block compression failed", cause);
+        }
+    }
+
+    /**
+     * Compresses one block as raw DEFLATE data. Non-final blocks end with a sync flush so
+     * the next block starts on a byte boundary; the final block closes the stream.
+     */
+    private static byte[] deflateBlock(byte[] block, int length, byte[] dictionary, boolean last, int level) {
+        Deflater[] deflaters = DEFLATERS.get();
+        Deflater deflater = deflaters[level];
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+            deflaters[level] = deflater;
+        }
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(block, 0, length);
+
+        byte[] output = new byte[length + (length >> 3) + 64];
+        int outputLength = 0;
+        if (last) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (outputLength == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+            }
+        } else {
+            while (true) {
+                if (outputLength == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                int available = output.length - outputLength;
+                int written = deflater.deflate(output, outputLength, available, Deflater.SYNC_FLUSH);
+                outputLength += written;
+                // A sync flush is complete once it leaves room in the output buffer
+                if (written < available) {
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(output, outputLength);
+    }
+
+    // Unknown sizes get ZIP64 headers, since they cannot be added once the local header is written
+    private static boolean needsZip64(long size) {
+        if (size < 0) {
+            return true;
+        }
+        return size + size / DEFLATE_OVERHEAD_DIVISOR + DEFLATE_OVERHEAD_FIXED >= ZIP64_LIMIT;
+    }
+
+    private void writeLocalHeader(EntryRecord record) throws IOException {
+        record.localHeaderOffset = position;
+        entries.add(record);
+        int extraLength = record.zip64 ? ZIP64_LOCAL_EXTRA_SIZE : 0;
+        ByteBuffer header = newBuffer(LOCAL_HEADER_SIZE + record.name.length + extraLength);
+        header.putInt(LOCAL_HEADER_SIGNATURE)
+                .putShort((short) (record.zip64 ? VERSION_ZIP64 : record.version()))
+                .putShort((short) FLAG_UTF8_NAMES)
+                .putShort((short) record.method())
+                .putInt(record.dosTime)
+                .putInt(0)                                  // CRC, patched when the entry is finished
+                .putInt(record.zip64 ? -1 : 0)              // Compressed size
+                .putInt(record.zip64 ? -1 : 0)              // Uncompressed size
+                .putShort((short) record.name.length)
+                .putShort((short) extraLength)
+                .put(record.name);
+        if (record.zip64) {
+            header.putShort(ZIP64_EXTRA_ID).putShort((short) 16).putLong(0).putLong(0);
+        }
+        write(header.flip());
+    }
+
+    private void finishEntry(EntryRecord record) throws IOException {
+        if (!record.zip64 && (record.uncompressedSize >= ZIP64_LIMIT || record.compressedSize >= ZIP64_LIMIT)) {
+            throw new IOException("Entry " + new String(record.name, StandardCharsets.UTF_8)
+                    + " grew beyond 4 GB while it was archived");
+        }
+        ByteBuffer patch = newBuffer(12);
+        patch.putInt((int) record.crc);
+        if (record.zip64) {
+            patch.putInt(-1).putInt(-1);
+        } else {
+            patch.putInt((int) record.compressedSize).putInt((int) record.uncompressedSize);
+        }
+        writeAt(patch.flip(), record.localHeaderOffset + LOCAL_CRC_OFFSET);
+
+        if (record.zip64) {
+            ByteBuffer sizes = newBuffer(16).putLong(record.uncompressedSize).putLong(record.compressedSize);
+            writeAt(sizes.flip(), record.localHeaderOffset + LOCAL_HEADER_SIZE + record.name.length + 4);
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryOffset = position;
+        for (EntryRecord record : entries) {
+            boolean sizeOverflow = record.uncompressedSize >= ZIP64_LIMIT || record.compressedSize >= ZIP64_LIMIT;
+            boolean offsetOverflow = record.localHeaderOffset >= ZIP64_LIMIT;
+            int extraLength = (sizeOverflow ? 16 : 0) + (offsetOverflow ? 8 : 0);
+            boolean zip64 = record.zip64 || extraLength > 0;
+
+            ByteBuffer header = newBuffer(46 + record.name.length + (extraLength > 0 ? extraLength + 4 : 0));
+            header.putInt(CENTRAL_HEADER_SIGNATURE)
+                    .putShort((short) (zip64 ? VERSION_ZIP64 : record.version()))  // Version made by
+                    .putShort((short) (zip64 ? VERSION_ZIP64 : record.version()))  // Version needed
+                    .putShort((short) FLAG_UTF8_NAMES)
+                    .putShort((short) record.method())
+                    .putInt(record.dosTime)
+                    .putInt((int) record.crc)
+                    .putInt(sizeOverflow ? -1 : (int) record.compressedSize)
+                    .putInt(sizeOverflow ? -1 : (int) record.uncompressedSize)
+                    .putShort((short) record.name.length)
+                    .putShort((short) (extraLength > 0 ? extraLength + 4 : 0))
+                    .putShort((short) 0)                                           // Comment length
+                    .putShort((short) 0)                                           // Disk number
+                    .putShort((short) 0)                                           // Internal attributes
+                    .putInt(0)                                                     // External attributes
+                    .putInt(offsetOverflow ? -1 : (int) record.localHeaderOffset)
+                    .put(record.name);
+            if (extraLength > 0) {
+                header.putShort(ZIP64_EXTRA_ID).putShort((short) extraLength);
+                if (sizeOverflow) {
+                    header.putLong(record.uncompressedSize).putLong(record.compressedSize);
+                }
+                if (offsetOverflow) {
+                    header.putLong(record.localHeaderOffset);
+                }
+            }
+            write(header.flip());
+        }
+        long centralDirectorySize = position - centralDirectoryOffset;
+
+        boolean zip64End = entries.size() >= ZIP64_ENTRY_COUNT_LIMIT
+                || centralDirectoryOffset >= ZIP64_LIMIT || centralDirectorySize >= ZIP64_LIMIT;
+        if (zip64End) {
+            long zip64EndOffset = position;
+            ByteBuffer end64 = newBuffer(56 + 20);
+            end64.putInt(ZIP64_END_SIGNATURE)
+                    .putLong(44)                                // Size of the remaining record
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) VERSION_ZIP64)
+                    .putInt(0)                                  // Number of this disk
+                    .putInt(0)                                  // Disk with the central directory
+                    .putLong(entries.size())
+                    .putLong(entries.size())
+                    .putLong(centralDirectorySize)
+                    .putLong(centralDirectoryOffset);
+            end64.putInt(ZIP64_LOCATOR_SIGNATURE)
+                    .putInt(0)
+                    .putLong(zip64EndOffset)
+                    .putInt(1);                                 // Total number of disks
+            write(end64.flip());
+        }
+
+        int entryCount = Math.min(entries.size(), ZIP64_ENTRY_COUNT_LIMIT);
+        ByteBuffer end = newBuffer(22);
+        end.putInt(END_SIGNATURE)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) entryCount)
+                .putShort((short) entryCount)
+                .putInt(centralDirectorySize >= ZIP64_LIMIT ? -1 : (int) centralDirectorySize)
+                .putInt(centralDirectoryOffset >= ZIP64_LIMIT ? -1 : (int) centralDirectoryOffset)
+                .putShort((short) 0);                           // Comment length
+        write(end.flip());
+    }
+
+    private void abortPending() {
+        for (Object item : pending) {
+            if (item instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+        pending.clear();
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private void writeAt(ByteBuffer data, long offset) throws IOException {
+        long target = offset;
+        while (data.hasRemaining()) {
+            target += channel.write(data, target);
+        }
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // MS-DOS date and time as stored in ZIP headers
+    private static int toDosTime(LocalDateTime time) {
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    /**
+     * Header data of one written entry, completed as its blocks are written.
+     */
+    private static final class EntryRecord {
+        private final byte[] name;
+        private final boolean zip64;
+        private final int dosTime = toDosTime(LocalDateTime.now());
+        private CompressionPolicy.Choice choice;
+        private long localHeaderOffset;
+        private long crc;
+        private long uncompressedSize;
+        private long compressedSize;
+
+        EntryRecord(String name, boolean zip64) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.zip64 = zip64;
+        }
+
+        int method() {
+            return choice.stored() ? METHOD_STORED : METHOD_DEFLATED;
+        }
+
+        int version() {
+            return choice.stored() ? VERSION_STORED : VERSION_DEFLATED;
+        }
+    }
+
+    /**
+     * Result of one archived entry.
+     *
+     * @param name             Entry name
+     * @param stored           Whether the entry was stored uncompressed
+     * @param level            Deflater level, 0 for stored entries
+     * @param uncompressedSize Size of the original content in bytes
+     * @param compressedSize   Size of the entry data in the archive in bytes
+     */
+    public record WrittenEntry(String name, boolean stored, int level, long uncompressedSize, long compressedSize) {
+    }
+
+    /**
+     * Marks the position after the last block of an entry in the pending queue.
+     */
+    private record EntryEnd(EntryRecord record) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.infina.fileanalyzer.entity;
+
+import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entity class representing an analysis that runs in the background.
+ * It is the progress listener of its own batch, so the results of finished files,
+ * running totals and archive progress can be read while the batch is still running.
+ * Observers receive the same progress as it happens and are told once the job finishes.
+ * The job keeps at most a given number of the most recently finished files, so a job in
+ * summary result mode does not grow with the size of its batch.
+ */
+public class AnalysisJob implements AnalysisProgressListener {
+
+    private final String jobId;
+    private final String description;
+    private final LocalDateTime submittedAt;
+    private final int retainedFileLimit;
+    private final Queue<FileStats> completedFiles = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedFileCount = new AtomicInteger();
+    private final AtomicInteger failedFileCount = new AtomicInteger();
+    private final LongAdder totalLineCount = new LongAdder();
+    private final LongAdder totalCharacterCount = new LongAdder();
+    private final LongAdder totalByteCount = new LongAdder();
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile int totalFileCount = -1;
+    private volatile FileAnalysisResponseDto result;
+    private volatile String errorMessage;
+    private volatile int archivedEntryCount;
+    private volatile long archiveBytesRead;
+    private volatile long archiveBytesWritten;
+
+    public AnalysisJob(String jobId, String description) {
+        this(jobId, description, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param jobId             ID of the job
+     * @param description       Short description of the job
+     * @param retainedFileLimit Finished files kept for the status, older ones are dropped
+     */
+    public AnalysisJob(String jobId, String description, int retainedFileLimit) {
+        this.jobId = jobId;
+        this.description = description;
+        this.retainedFileLimit = retainedFileLimit;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Marks the job as picked up by a worker thread.
+     */
+    public void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = JobStatus.RUNNING;
+    }
+
+    /**
+     * Marks the job as finished successfully.
+     *
+     * @param result Final analysis and archive result
+     */
+    public void complete(FileAnalysisResponseDto result) {
+        this.result = result;
+        finish(JobStatus.COMPLETED);
+    }
+
+    /**
+     * Marks the job as failed.
+     *
+     * @param cause Reason of the failure
+     */
+    public void fail(Throwable cause) {
+        errorMessage = cause.getMessage();
+        finish(JobStatus.FAILED);
+    }
+
+    private void finish(JobStatus finalStatus) {
+        synchronized (observers) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+        observers.forEach(observer -> observer.onJobFinished(this));
+        observers.clear();
+    }
+
+    /**
+     * Registers an observer for the remaining progress of the job.
+     *
+     * @param observer Observer to notify
+     * @return false if the job has already finished, in which case the observer is not registered
+     */
+    public boolean addObserver(Observer observer) {
+        synchronized (observers) {
+            if (isFinished()) {
+                return false;
+            }
+            observers.add(observer);
+            return true;
+        }
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    @Override
+    public void onBatchStarted(int fileCount) {
+        totalFileCount = fileCount;
+        observers.forEach(observer -> observer.onBatchStarted(fileCount));
+    }
+
+    @Override
+    public void onFileCompleted(FileStats stats) {
+        totalLineCount.add(stats.getLineCount());
+        totalCharacterCount.add(stats.getCharacterCount());
+        totalByteCount.add(stats.getByteCount());
+        completedFiles.add(stats);
+        if (completedFileCount.incrementAndGet() > retainedFileLimit) {
+            completedFiles.poll();
+        }
+        observers.forEach(observer -> observer.onFileCompleted(stats));
+    }
+
+    @Override
+    public void onFileFailed(String source, Throwable cause) {
+        failedFileCount.incrementAndGet();
+        observers.forEach(observer -> observer.onFileFailed(source, cause));
+    }
+
+    @Override
+    public void onArchiveProgress(int entryCount, long bytesRead, long bytesWritten) {
+        archivedEntryCount = entryCount;
+        archiveBytesRead = bytesRead;
+        archiveBytesWritten = bytesWritten;
+        observers.forEach(observer -> observer.onArchiveProgress(entryCount, bytesRead, bytesWritten));
+    }
+
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return Number of files in the batch, or -1 while it is not known yet
+     */
+    public int getTotalFileCount() {
+        return totalFileCount;
+    }
+
+    public int getFailedFileCount() {
+        return failedFileCount.get();
+    }
+
+    public int getProcessedFileCount() {
+        return completedFileCount.get() + failedFileCount.get();
+    }
+
+    /**
+     * @return Lines of the files finished so far
+     */
+    public long getTotalLineCount() {
+        return totalLineCount.sum();
+    }
+
+    /**
+     * @return Characters of the files finished so far
+     */
+    public long getTotalCharacterCount() {
+        return totalCharacterCount.sum();
+    }
+
+    /**
+     * @return Bytes of the files finished so far
+     */
+    public long getTotalByteCount() {
+        return totalByteCount.sum();
+    }
+
+    public int getArchivedEntryCount() {
+        return archivedEntryCount;
+    }
+
+    public long getArchiveBytesRead() {
+        return archiveBytesRead;
+    }
+
+    public long getArchiveBytesWritten() {
+        return archiveBytesWritten;
+    }
+
+    /**
+     * @return Snapshot of the files finished so far, or of the most recent ones beyond the limit, in completion order
+     */
+    public List<FileStats> getCompletedFiles() {
+        return new ArrayList<>(completedFiles);
+    }
+
+    public FileAnalysisResponseDto getResult() {
+        return result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Receives the progress of a job and its end.
+     */
+    public interface Observer extends AnalysisProgressListener {
+
+        /**
+         * Called once after the job completed or failed.
+         *
+         * @param job The finished job
+         */
+        void onJobFinished(AnalysisJob job);
+    }
+}
@@ -1,22 +1,31 @@
 package com.infina.fileanalyzer.entity;
 
+import com.infina.fileanalyzer.engine.ResultMode;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Entity class representing the overall result of all file analysis operations.
  * Summarizes the analysis results of multiple files.
+ * In summary mode the file list is left out; the result carries the slowest and largest files
+ * instead, and the rows of all files are written to a separate NDJSON file.
  */
 public class AnalysisResult {
     private List<FileStats> fileStatsList;
-    private int totalLineCount;
-    private int totalCharacterCount;
+    private long totalLineCount;
+    private long totalCharacterCount;
+    private long totalByteCount;
     private int totalProcessedFiles;
     private long totalProcessingTimeNanos;
     private LocalDateTime analysisStartTime;
     private LocalDateTime analysisEndTime;
     private int failedFileCount;
     private int successfulFileCount;
+    private ResultMode resultMode;
+    private List<FileStats> slowestFiles;
+    private List<FileStats> largestFiles;
+    private String fileStatsFileName;
 
     public AnalysisResult() {
         this.failedFileCount = 0;
@@ -25,6 +34,7 @@ public class AnalysisResult {
         this.totalCharacterCount = 0;
         this.totalProcessedFiles = 0;
         this.totalProcessingTimeNanos = 0;
+        this.resultMode = ResultMode.FULL;
     }
 
     public AnalysisResult(List<FileStats> fileStatsList) {
@@ -42,22 +52,30 @@ public class AnalysisResult {
         this.totalProcessedFiles = fileStatsList != null ? fileStatsList.size() : 0;
     }
 
-    public int getTotalLineCount() {
+    public long getTotalLineCount() {
         return totalLineCount;
     }
 
-    public void setTotalLineCount(int totalLineCount) {
+    public void setTotalLineCount(long totalLineCount) {
         this.totalLineCount = totalLineCount;
     }
 
-    public int getTotalCharacterCount() {
+    public long getTotalCharacterCount() {
         return totalCharacterCount;
     }
 
-    public void setTotalCharacterCount(int totalCharacterCount) {
+    public void setTotalCharacterCount(long totalCharacterCount) {
         this.totalCharacterCount = totalCharacterCount;
     }
 
+    public long getTotalByteCount() {
+        return totalByteCount;
+    }
+
+    public void setTotalByteCount(long totalByteCount) {
+        this.totalByteCount = totalByteCount;
+    }
+
     public int getTotalProcessedFiles() {
         return totalProcessedFiles;
     }
@@ -112,6 +130,41 @@ public class AnalysisResult {
         this.successfulFileCount = successfulFileCount;
     }
 
+    public ResultMode getResultMode() {
+        return resultMode;
+    }
+
+    public void setResultMode(ResultMode resultMode) {
+        this.resultMode = resultMode;
+    }
+
+    public List<FileStats> getSlowestFiles() {
+        return slowestFiles;
+    }
+
+    public void setSlowestFiles(List<FileStats> slowestFiles) {
+        this.slowestFiles = slowestFiles;
+    }
+
+    public List<FileStats> getLargestFiles() {
+        return largestFiles;
+    }
+
+    public void setLargestFiles(List<FileStats> largestFiles) {
+        this.largestFiles = largestFiles;
+    }
+
+    /**
+     * @return Name of the NDJSON file in the output directory holding one FileStats per line, null in full mode
+     */
+    public String getFileStatsFileName() {
+        return fileStatsFileName;
+    }
+
+    public void setFileStatsFileName(String fileStatsFileName) {
+        this.fileStatsFileName = fileStatsFileName;
+    }
+
     public double getTotalProcessingTimeMillis() {
         return totalProcessingTimeNanos / 1_000_000.0;
     }
@@ -125,12 +178,14 @@ public class AnalysisResult {
         return "AnalysisResult{" +
                 "totalLineCount=" + totalLineCount +
                 ", totalCharacterCount=" + totalCharacterCount +
+                ", totalByteCount=" + totalByteCount +
                 ", totalProcessedFiles=" + totalProcessedFiles +
                 ", totalProcessingTimeNanos=" + totalProcessingTimeNanos +
                 ", analysisStartTime=" + analysisStartTime +
                 ", analysisEndTime=" + analysisEndTime +
                 ", failedFileCount=" + failedFileCount +
                 ", successfulFileCount=" + successfulFileCount +
+                ", resultMode=" + resultMode +
                 '}';
     }
 }
\ No newline at end of file
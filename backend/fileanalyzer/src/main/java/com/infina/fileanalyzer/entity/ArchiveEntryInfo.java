@@ -0,0 +1,88 @@
+package com.infina.fileanalyzer.entity;
+
+/**
+ * Entity class representing the compression result of a single archive entry.
+ * The compression ratio is the compressed size divided by the original size,
+ * so 1.0 means no saving and smaller values mean better compression.
+ */
+public class ArchiveEntryInfo {
+    private String fileName;
+    private String compressionMethod;
+    private int compressionLevel;
+    private long originalSizeBytes;
+    private long compressedSizeBytes;
+    private double compressionRatio;
+
+    public ArchiveEntryInfo() {
+    }
+
+    public ArchiveEntryInfo(String fileName, String compressionMethod, int compressionLevel,
+                            long originalSizeBytes, long compressedSizeBytes) {
+        this.fileName = fileName;
+        this.compressionMethod = compressionMethod;
+        this.compressionLevel = compressionLevel;
+        this.originalSizeBytes = originalSizeBytes;
+        this.compressedSizeBytes = compressedSizeBytes;
+        this.compressionRatio = originalSizeBytes > 0 ? (double) compressedSizeBytes / originalSizeBytes : 1.0;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getCompressionMethod() {
+        return compressionMethod;
+    }
+
+    public void setCompressionMethod(String compressionMethod) {
+        this.compressionMethod = compressionMethod;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public long getOriginalSizeBytes() {
+        return originalSizeBytes;
+    }
+
+    public void setOriginalSizeBytes(long originalSizeBytes) {
+        this.originalSizeBytes = originalSizeBytes;
+    }
+
+    public long getCompressedSizeBytes() {
+        return compressedSizeBytes;
+    }
+
+    public void setCompressedSizeBytes(long compressedSizeBytes) {
+        this.compressedSizeBytes = compressedSizeBytes;
+    }
+
+    public double getCompressionRatio() {
+        return compressionRatio;
+    }
+
+    public void setCompressionRatio(double compressionRatio) {
+        this.compressionRatio = compressionRatio;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchiveEntryInfo{" +
+                "fileName='" + fileName + '\'' +
+                ", compressionMethod='" + compressionMethod + '\'' +
+                ", compressionLevel=" + compressionLevel +
+                ", originalSizeBytes=" + originalSizeBytes +
+                ", compressedSizeBytes=" + compressedSizeBytes +
+                ", compressionRatio=" + compressionRatio +
+                '}';
+    }
+}
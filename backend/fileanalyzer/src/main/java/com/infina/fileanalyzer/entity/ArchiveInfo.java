@@ -6,6 +6,7 @@ import java.util.List;
 /**
  * Entity class representing archive operation information.
  * Stores details of the ZIP archiving process.
+ * The compression ratio is the archived data size divided by the original size of all entries.
  */
 public class ArchiveInfo {
     private String archiveFileName;
@@ -19,6 +20,7 @@ public class ArchiveInfo {
     private String threadName;
     private String compressionMethod;
     private double compressionRatio;
+    private List<ArchiveEntryInfo> entries;
 
     public ArchiveInfo() {
         this.archivedFileCount = 0;
@@ -136,6 +138,14 @@ public class ArchiveInfo {
     }
 
 
+    public List<ArchiveEntryInfo> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<ArchiveEntryInfo> entries) {
+        this.entries = entries;
+    }
+
     public double getArchiveProcessingTimeMillis() {
         return archiveProcessingTimeNanos / 1_000_000.0;
     }
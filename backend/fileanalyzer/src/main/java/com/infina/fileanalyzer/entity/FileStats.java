@@ -1,5 +1,7 @@
 package com.infina.fileanalyzer.entity;
 
+import com.infina.fileanalyzer.engine.AnalysisMode;
+
 import java.time.LocalDateTime;
 
 /**
@@ -8,20 +10,22 @@ import java.time.LocalDateTime;
  */
 public class FileStats {
     private String fileName;
-    private int lineCount;
-    private int characterCount;
+    private long lineCount;
+    private long characterCount;
+    private long byteCount;
     private long processingTimeNanos;
     private LocalDateTime processingStartTime;
     private LocalDateTime processingEndTime;
     private String threadName;
     private boolean processingCompleted;
+    private AnalysisMode analysisMode;
 
     public FileStats() {
         this.processingCompleted = false;
         //this.processingStartTime = LocalDateTime.now();
     }
 
-    public FileStats(String fileName, int lineCount, int characterCount) {
+    public FileStats(String fileName, long lineCount, long characterCount) {
         this();
         this.fileName = fileName;
         this.lineCount = lineCount;
@@ -30,7 +34,7 @@ public class FileStats {
     }
 
 
-    public FileStats(String fileName, int lineCount, int characterCount,
+    public FileStats(String fileName, long lineCount, long characterCount,
                      long processingTimeNanos, String threadName) {
         this(fileName, lineCount, characterCount);
         this.processingTimeNanos = processingTimeNanos;
@@ -46,22 +50,30 @@ public class FileStats {
         this.fileName = fileName;
     }
 
-    public int getLineCount() {
+    public long getLineCount() {
         return lineCount;
     }
 
-    public void setLineCount(int lineCount) {
+    public void setLineCount(long lineCount) {
         this.lineCount = lineCount;
     }
 
-    public int getCharacterCount() {
+    public long getCharacterCount() {
         return characterCount;
     }
 
-    public void setCharacterCount(int characterCount) {
+    public void setCharacterCount(long characterCount) {
         this.characterCount = characterCount;
     }
 
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public void setByteCount(long byteCount) {
+        this.byteCount = byteCount;
+    }
+
     public long getProcessingTimeNanos() {
         return processingTimeNanos;
     }
@@ -108,6 +120,14 @@ public class FileStats {
         this.processingCompleted = processingCompleted;
     }
 
+    public AnalysisMode getAnalysisMode() {
+        return analysisMode;
+    }
+
+    public void setAnalysisMode(AnalysisMode analysisMode) {
+        this.analysisMode = analysisMode;
+    }
+
 
     public double getProcessingTimeMillis() {
         return processingTimeNanos / 1_000_000.0;
@@ -119,11 +139,13 @@ public class FileStats {
                 "fileName='" + fileName + '\'' +
                 ", lineCount=" + lineCount +
                 ", characterCount=" + characterCount +
+                ", byteCount=" + byteCount +
                 ", processingTimeNanos=" + processingTimeNanos +
                 ", processingStartTime=" + processingStartTime +
                 ", processingEndTime=" + processingEndTime +
                 ", threadName='" + threadName + '\'' +
                 ", processingCompleted=" + processingCompleted +
+                ", analysisMode=" + analysisMode +
                 '}';
     }
 }
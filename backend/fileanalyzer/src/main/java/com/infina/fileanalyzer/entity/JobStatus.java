@@ -0,0 +1,11 @@
+package com.infina.fileanalyzer.entity;
+
+/**
+ * Lifecycle states of an asynchronous analysis job.
+ */
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,65 @@
+package com.infina.fileanalyzer.entity;
+
+/**
+ * Entity class representing one file of a directory manifest.
+ * Records the size and modification time the file had when it was analyzed,
+ * the hash of its content if known, and the analysis result.
+ */
+public class ManifestEntry {
+    private String fileName;
+    private long size;
+    private long lastModifiedMillis;
+    private String contentHash;
+    private FileStats fileStats;
+
+    public ManifestEntry() {
+    }
+
+    public ManifestEntry(String fileName, long size, long lastModifiedMillis, String contentHash, FileStats fileStats) {
+        this.fileName = fileName;
+        this.size = size;
+        this.lastModifiedMillis = lastModifiedMillis;
+        this.contentHash = contentHash;
+        this.fileStats = fileStats;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    public void setLastModifiedMillis(long lastModifiedMillis) {
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public FileStats getFileStats() {
+        return fileStats;
+    }
+
+    public void setFileStats(FileStats fileStats) {
+        this.fileStats = fileStats;
+    }
+}
@@ -10,7 +10,9 @@ import com.infina.fileanalyzer.exception.file.FileAnalyzerException;
 import com.infina.fileanalyzer.exception.file.FileNotFoundException;
 import com.infina.fileanalyzer.exception.file.FileProcessingException;
 import com.infina.fileanalyzer.exception.file.InvalidFileTypeException;
+import com.infina.fileanalyzer.exception.job.JobNotFoundException;
 import com.infina.fileanalyzer.exception.status.NoContentException;
+import com.infina.fileanalyzer.exception.store.ResultStoreException;
 import com.infina.fileanalyzer.exception.thread.ThreadExecutionException;
 import com.infina.fileanalyzer.exception.thread.ThreadInterruptedException;
 import org.slf4j.Logger;
@@ -54,6 +56,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotFoundException(JobNotFoundException ex, WebRequest request) {
+        logger.warn("Job not found: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.NOT_FOUND.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ResultStoreException.class)
+    public ResponseEntity<ErrorResponse> handleResultStoreException(ResultStoreException ex, WebRequest request) {
+        logger.error("Result store error: {}", ex.getMessage(), ex);
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     @ExceptionHandler(FileProcessingException.class)
     public ResponseEntity<ErrorResponse> handleFileProcessingException(FileProcessingException ex, WebRequest request) {
         logger.error("File processing error: {}", ex.getMessage(), ex);
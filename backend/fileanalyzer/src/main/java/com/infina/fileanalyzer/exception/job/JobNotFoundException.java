@@ -0,0 +1,15 @@
+package com.infina.fileanalyzer.exception.job;
+
+import com.infina.fileanalyzer.exception.file.FileAnalyzerException;
+
+// Exception thrown when no job with the requested ID is known.
+public class JobNotFoundException extends FileAnalyzerException {
+
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+
+    public JobNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.infina.fileanalyzer.exception.store;
+
+import com.infina.fileanalyzer.exception.file.FileAnalyzerException;
+
+// Exception thrown when a stored analysis result cannot be read back.
+public class ResultStoreException extends FileAnalyzerException {
+
+    public ResultStoreException(String message) {
+        super(message);
+    }
+
+    public ResultStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,5 +1,13 @@
 package com.infina.fileanalyzer.service;
 
+import com.infina.fileanalyzer.engine.ArchiveCompressionMode;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
+import com.infina.fileanalyzer.engine.CompressionPolicy;
+import com.infina.fileanalyzer.engine.CompressionTarget;
+import com.infina.fileanalyzer.engine.ParallelZipExtractor;
+import com.infina.fileanalyzer.engine.ZipArchiveWriter;
+import com.infina.fileanalyzer.entity.ArchiveEntryInfo;
 import com.infina.fileanalyzer.entity.ArchiveInfo;
 import com.infina.fileanalyzer.exception.archive.ArchiveCreationException;
 import com.infina.fileanalyzer.exception.archive.ArchiveExtractionException;
@@ -7,9 +15,13 @@ import com.infina.fileanalyzer.exception.archive.InvalidArchiveException;
 import com.infina.fileanalyzer.exception.directory.DirectoryAccessException;
 import com.infina.fileanalyzer.exception.directory.DirectoryNotFoundException;
 import com.infina.fileanalyzer.exception.file.FileNotFoundException;
+import com.infina.fileanalyzer.exception.thread.ThreadInterruptedException;
 import com.infina.fileanalyzer.service.abstracts.IArchvieService;
+import com.infina.fileanalyzer.service.abstracts.IFileDiscoveryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -20,6 +32,7 @@ import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -29,6 +42,7 @@ import java.util.zip.ZipOutputStream;
  * This class is designed to be thread-safe and can work safely in multi-threaded environments.
  * Main functionalities:
  * - Compress .txt files from specified directory into ZIP archive
+ * - Compress file content streamed by the analysis threads into ZIP archive
  * - Extract ZIP archives to specified directory
  * - Validate archive file integrity
  * - Delete source files
@@ -39,6 +53,49 @@ public class ArchiveService implements IArchvieService {
 
     private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
 
+    private final int pipelineChunkSize;
+    private final int pipelineQueuedChunks;
+    private final ArchiveCompressionMode compressionMode;
+    private final int compressionBlockSize;
+    private final ExecutorService compressionExecutor;
+    private final int maxBlocksInFlight;
+    private final CompressionPolicy compressionPolicy;
+    private final ParallelZipExtractor zipExtractor;
+    private final IFileDiscoveryService fileDiscoveryService;
+
+    public ArchiveService(@Value("${file.analyzer.read.buffer-size}") int pipelineChunkSize,
+                          @Value("${file.analyzer.archive.pipeline-queued-chunks}") int pipelineQueuedChunks,
+                          @Value("${file.analyzer.archive.compression-mode}") ArchiveCompressionMode compressionMode,
+                          @Value("${file.analyzer.archive.block-bytes}") int compressionBlockSize,
+                          @Qualifier("archiveCompressionExecutor") ExecutorService compressionExecutor,
+                          @Value("${file.analyzer.archive.compression-target}") CompressionTarget compressionTarget,
+                          @Value("${file.analyzer.archive.store-below-bytes}") long storeBelowBytes,
+                          @Value("${file.analyzer.archive.store-ratio-threshold}") double storeRatioThreshold,
+                          @Qualifier("zipExtractionExecutor") ExecutorService extractionExecutor,
+                          IFileDiscoveryService fileDiscoveryService) {
+        this.pipelineChunkSize = pipelineChunkSize;
+        this.pipelineQueuedChunks = pipelineQueuedChunks;
+        this.compressionMode = compressionMode;
+        this.compressionBlockSize = compressionBlockSize;
+        this.compressionExecutor = compressionExecutor;
+        // Enough blocks to keep every compression thread busy while finished blocks are written
+        this.maxBlocksInFlight = 2 * Runtime.getRuntime().availableProcessors();
+        this.compressionPolicy = new CompressionPolicy(compressionTarget, storeBelowBytes, storeRatioThreshold);
+        this.zipExtractor = new ParallelZipExtractor(extractionExecutor, pipelineChunkSize);
+        this.fileDiscoveryService = fileDiscoveryService;
+        logger.info("Archive compression mode: {}, target: {}, block size: {} bytes",
+                compressionMode, compressionTarget, compressionBlockSize);
+    }
+
+    /**
+     * Creates a pipeline that analysis threads write file content into while they count it.
+     *
+     * @return New ArchivePipeline for one archive
+     */
+    public ArchivePipeline createPipeline() {
+        return new ArchivePipeline(pipelineChunkSize, pipelineQueuedChunks);
+    }
+
     /**
      * Compresses all .txt files from the specified directory into a ZIP archive.
      * This method performs the following operations:
@@ -88,11 +145,12 @@ public class ArchiveService implements IArchvieService {
 
             try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(outputZipPath))){
                 for (Path file : txtFiles){
-                    ZipEntry entry = new ZipEntry(file.getFileName().toString());
+                    String entryName = fileDiscoveryService.entryNameOf(inputDirPath, file);
+                    ZipEntry entry = new ZipEntry(entryName);
                     zipOutputStream.putNextEntry(entry);
                     Files.copy(file, zipOutputStream);
                     zipOutputStream.closeEntry();
-                    archivedFileNames.add(file.getFileName().toString());
+                    archivedFileNames.add(entryName);
                 }
             } catch (IOException e) {
                 throw new ArchiveCreationException("Failed to create ZIP archive: " + e.getMessage(), e);
@@ -120,18 +178,151 @@ public class ArchiveService implements IArchvieService {
     }
 
     /**
-     * Finds all .txt files in the specified directory and returns them as a list.
-     * This method scans directory contents and returns only files with .txt extension.
-     * Uses DirectoryStream for directory access and automatically closes resources.
+     * Writes the entries of an archive pipeline into a ZIP archive as the analysis threads read them.
+     * Runs until the pipeline is finished, so each file is read only once by its analysis task.
+     * The archive is then only completed, and the source files deleted, once the analysis
+     * committed the pipeline; a failed analysis discards it.
+     * Entries are DEFLATE-compressed in independent blocks, on the archive compression pool in
+     * PARALLEL mode or on the archive thread in SERIAL mode. Each entry is stored or deflated
+     * at a level chosen from a sample of its first block, and its compression ratio is recorded.
+     * The ZIP file is only created once the first entry arrives.
+     *
+     * @param pipeline          Pipeline the analysis threads write file content into
+     * @param outputZipPath     Full path of the ZIP file to be created
+     * @param deleteSourceFiles Whether to delete the archived files after the archive is closed
+     * @return ArchiveInfo Object containing detailed information about the archiving process
+     * @throws DirectoryAccessException   If output directory cannot be created
+     * @throws ArchiveCreationException   If ZIP creation error occurs or a file could not be read completely
+     * @throws ThreadInterruptedException If interrupted while waiting for content
+     */
+    public ArchiveInfo createArchive(ArchivePipeline pipeline, String outputZipPath, boolean deleteSourceFiles) {
+        return createArchive(pipeline, outputZipPath, deleteSourceFiles, AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * Creates a ZIP archive from a pipeline like {@link #createArchive(ArchivePipeline, String, boolean)}
+     * and reports the archive progress to the listener after every entry.
+     *
+     * @param pipeline          Pipeline the analysis threads write file content into
+     * @param outputZipPath     Full path of the ZIP file to be created
+     * @param deleteSourceFiles Whether to delete the archived files after the archive is complete
+     * @param listener          Receives the archive progress
+     * @return ArchiveInfo Object containing detailed information about the archiving process
+     */
+    public ArchiveInfo createArchive(ArchivePipeline pipeline, String outputZipPath, boolean deleteSourceFiles,
+                                     AnalysisProgressListener listener) {
+        ArchiveInfo archiveInfo = new ArchiveInfo();
+        List<String> archivedFileNames = new ArrayList<>();
+        List<Path> archivedFiles = new ArrayList<>();
+        Path zipPath = Paths.get(outputZipPath);
+        archiveInfo.setArchiveFileName(zipPath.getFileName().toString());
+        archiveInfo.setArchiveFilePath(outputZipPath);
+        archiveInfo.setArchiveStartTime(LocalDateTime.now());
+        archiveInfo.setArchivedFileNames(archivedFileNames);
+
+        ZipArchiveWriter zipWriter = null;
+        try {
+            for (ArchivePipeline.Entry entry = pipeline.nextEntry(); entry != null; entry = pipeline.nextEntry()) {
+                if (zipWriter == null) {
+                    zipWriter = openZipWriter(zipPath);
+                }
+                zipWriter.writeEntry(entry);
+                archivedFileNames.add(entry.getName());
+                if (entry.getSource() != null) {
+                    archivedFiles.add(entry.getSource());
+                }
+                listener.onArchiveProgress(zipWriter.getEntryCount(), zipWriter.getBytesRead(),
+                        zipWriter.getBytesWritten());
+            }
+            // A drained pipeline is not enough, the archive is only kept if the whole analysis succeeded
+            pipeline.awaitCommit();
+            if (zipWriter != null) {
+                zipWriter.close();
+            }
+        } catch (IOException e) {
+            discardArchive(pipeline, e, zipWriter, zipPath);
+            throw new ArchiveCreationException("Failed to create ZIP archive: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            discardArchive(pipeline, e, zipWriter, zipPath);
+            Thread.currentThread().interrupt();
+            throw new ThreadInterruptedException("Archive creation was interrupted", e);
+        } catch (RuntimeException e) {
+            discardArchive(pipeline, e, zipWriter, zipPath);
+            throw e;
+        }
+
+        if (archivedFileNames.isEmpty()) {
+            logger.warn("No files were streamed to archive: {}", outputZipPath);
+        } else {
+            File zipFile = zipPath.toFile();
+            archiveInfo.setArchiveFileSizeBytes(zipFile.length());
+            archiveInfo.setArchivedFileCount(archivedFileNames.size());
+            archiveInfo.setCompressionMethod("ZIP/" + compressionMode);
+            archiveInfo.setEntries(toEntryInfos(zipWriter.getWrittenEntries()));
+            long originalBytes = zipWriter.getTotalUncompressedBytes();
+            long compressedBytes = zipWriter.getTotalCompressedBytes();
+            archiveInfo.setCompressionRatio(originalBytes > 0 ? (double) compressedBytes / originalBytes : 1.0);
+            logger.info("Files zipped successfully to: {} ({} DEFLATE, {} -> {} bytes, ratio {})", outputZipPath,
+                    compressionMode, originalBytes, compressedBytes, archiveInfo.getCompressionRatio());
+
+            if (deleteSourceFiles && !archivedFiles.isEmpty()) {
+                deleteSourceFiles(archivedFiles);
+                logger.info("Source files deleted after successful archiving: {} files", archivedFiles.size());
+            }
+        }
+
+        archiveInfo.setThreadName(Thread.currentThread().getName());
+        archiveInfo.setArchiveEndTime(LocalDateTime.now());
+        return archiveInfo;
+    }
+
+    private ZipArchiveWriter openZipWriter(Path zipPath) throws IOException {
+        Path outputDirectory = zipPath.getParent();
+        if (outputDirectory != null && !Files.exists(outputDirectory)) {
+            try {
+                Files.createDirectories(outputDirectory);
+            } catch (IOException e) {
+                throw new DirectoryAccessException("Failed to create output directory: " + outputDirectory, e);
+            }
+        }
+        ExecutorService pool = compressionMode == ArchiveCompressionMode.PARALLEL ? compressionExecutor : null;
+        return new ZipArchiveWriter(zipPath, pool, compressionBlockSize, compressionPolicy, maxBlocksInFlight);
+    }
+
+    private List<ArchiveEntryInfo> toEntryInfos(List<ZipArchiveWriter.WrittenEntry> writtenEntries) {
+        List<ArchiveEntryInfo> entryInfos = new ArrayList<>(writtenEntries.size());
+        for (ZipArchiveWriter.WrittenEntry written : writtenEntries) {
+            entryInfos.add(new ArchiveEntryInfo(written.name(), written.stored() ? "STORED" : "DEFLATED",
+                    written.level(), written.uncompressedSize(), written.compressedSize()));
+        }
+        return entryInfos;
+    }
+
+    // Stops the readers from feeding the pipeline and removes the incomplete ZIP file
+    private void discardArchive(ArchivePipeline pipeline, Throwable cause, ZipArchiveWriter zipWriter, Path zipPath) {
+        pipeline.fail(cause);
+        if (zipWriter == null) {
+            return;
+        }
+        zipWriter.abort();
+        try {
+            Files.deleteIfExists(zipPath);
+        } catch (IOException e) {
+            logger.warn("Failed to delete incomplete ZIP archive: {}", zipPath, e);
+        }
+    }
+
+    /**
+     * Finds all .txt files in the specified directory and its subdirectories and returns them as a list.
+     * The tree is walked in parallel by the file discovery service, following its include and exclude globs.
      *
      * @param inputDirectory Path of the directory to scan
-     * @return List<Path> List of Path objects for found .txt files
+     * @return List<Path> List of Path objects for found .txt files, sorted by path
      * @throws DirectoryNotFoundException If directory is not found
      * @throws DirectoryAccessException If directory access error occurs
      * @throws IOException If general I/O error occurs
      */
     public List<Path> findTxtFiles(String inputDirectory) throws IOException {
-        List<Path> txtFiles = new ArrayList<>();
         Path dirPath = Paths.get(inputDirectory);
 
         if (!Files.exists(dirPath)) {
@@ -142,15 +333,7 @@ public class ArchiveService implements IArchvieService {
             throw new DirectoryAccessException("Path is not a directory: " + inputDirectory);
         }
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath, "*.txt")) {
-            for (Path entry : stream) {
-                txtFiles.add(entry);
-            }
-        } catch (IOException e) {
-            throw new DirectoryAccessException("Failed to access directory: " + inputDirectory, e);
-        }
-
-        return txtFiles;
+        return fileDiscoveryService.findFiles(dirPath);
     }
 
     /**
@@ -159,7 +342,7 @@ public class ArchiveService implements IArchvieService {
      * 1. Validates the existence of the ZIP file
      * 2. Validates the integrity of the ZIP file
      * 3. Creates destination directory if necessary
-     * 4. Extracts ZIP contents to file system
+     * 4. Extracts ZIP contents to file system, entries in parallel through the central directory
      *
      * @param zipFilePath Path of the ZIP file to extract
      * @param destDirectory Destination directory where files will be extracted
@@ -186,24 +369,49 @@ public class ArchiveService implements IArchvieService {
             }
         }
 
-        try (ZipInputStream zipInput = new ZipInputStream(new FileInputStream(zipFilePath))) {
-            ZipEntry entry = zipInput.getNextEntry();
-            while (entry != null) {
-                String filePath = destDirectory + File.separator + entry.getName();
-                if (!entry.isDirectory()) {
-                    extractFile(zipInput, filePath);
-                } else {
-                    File directory = new File(filePath);
-                    if (!directory.mkdirs() && !directory.exists()) {
-                        throw new DirectoryAccessException("Failed to create directory during extraction: " + filePath);
-                    }
-                }
-                zipInput.closeEntry();
-                entry = zipInput.getNextEntry();
-            }
-            logger.info("Unzip process completed: {}", destDirectory);
+        try {
+            ParallelZipExtractor.Result result = zipExtractor.extract(zipFile.toPath(), theDestDirectory.toPath(),
+                    name -> true, false);
+            logUnsafeEntries(result);
+            logger.info("Unzip process completed: {} ({} files)", destDirectory, result.extractedFiles().size());
         } catch (IOException e) {
             throw new ArchiveExtractionException("Failed to extract ZIP file: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThreadInterruptedException("ZIP extraction was interrupted", e);
+        }
+    }
+
+    /**
+     * Extracts only the .txt entries of a ZIP archive into a single directory, without their
+     * directory names. Other entries are skipped without being inflated and the .txt entries
+     * are extracted in parallel.
+     *
+     * @param zipFilePath   Path of the ZIP file to extract
+     * @param destDirectory Directory the .txt files are written into
+     * @return Paths of the extracted .txt files
+     * @throws ArchiveExtractionException If extraction process error occurs
+     * @throws ThreadInterruptedException If interrupted while waiting for the extraction tasks
+     */
+    public List<Path> extractTxtFiles(Path zipFilePath, Path destDirectory) {
+        try {
+            ParallelZipExtractor.Result result = zipExtractor.extract(zipFilePath, destDirectory,
+                    name -> name.toLowerCase().endsWith(".txt"), true);
+            logUnsafeEntries(result);
+            logger.info("Extracted {} TXT files from ZIP, skipped {} other entries",
+                    result.extractedFiles().size(), result.filteredEntries());
+            return result.extractedFiles();
+        } catch (IOException e) {
+            throw new ArchiveExtractionException("Failed to extract ZIP file: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThreadInterruptedException("ZIP extraction was interrupted", e);
+        }
+    }
+
+    private void logUnsafeEntries(ParallelZipExtractor.Result result) {
+        for (String entryName : result.unsafeEntries()) {
+            logger.warn("Skipping potentially dangerous file path: {}", entryName);
         }
     }
 
@@ -241,29 +449,6 @@ public class ArchiveService implements IArchvieService {
         }
     }
 
-    /**
-     * Extracts a single file from ZIP archive.
-     * This method reads data from ZipInputStream and writes it to the specified location.
-     * Uses BufferedOutputStream for performance improvement with 4KB buffer size.
-     *
-     * @param zipInput ZipInputStream used to read the file
-     * @param filePath Full path where the file will be extracted
-     * @throws IOException If file writing error occurs
-     * @throws ArchiveExtractionException If extraction process error occurs
-     */
-    private void extractFile(ZipInputStream zipInput, String filePath) throws IOException {
-        int BUFFER_SIZE = 4096;
-        try (BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(filePath))) {
-            byte[] bytesIn = new byte[BUFFER_SIZE];
-            int read;
-            while ((read = zipInput.read(bytesIn)) != -1) {
-                bufferedOutputStream.write(bytesIn, 0, read);
-            }
-        } catch (IOException e) {
-            throw new ArchiveExtractionException("Failed to extract file: " + filePath, e);
-        }
-    }
-
     /**
      * Safely deletes specified files from the file system.
      * This method performs safe file deletion:
@@ -1,29 +1,49 @@
 package com.infina.fileanalyzer.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.engine.AnalysisAccumulator;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
+import com.infina.fileanalyzer.engine.ParallelZipExtractor;
+import com.infina.fileanalyzer.engine.ResultMode;
+import com.infina.fileanalyzer.engine.ResultSummary;
+import com.infina.fileanalyzer.engine.TaskWindow;
 import com.infina.fileanalyzer.entity.AnalysisResult;
 import com.infina.fileanalyzer.entity.ArchiveInfo;
 import com.infina.fileanalyzer.entity.FileStats;
 import com.infina.fileanalyzer.exception.file.FileAnalyzerException;
 import com.infina.fileanalyzer.exception.directory.DirectoryNotFoundException;
 import com.infina.fileanalyzer.exception.file.FileProcessingException;
+import com.infina.fileanalyzer.exception.status.NoContentException;
 import com.infina.fileanalyzer.service.abstracts.IFileAnalysisService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Service responsible for orchestrating the file analysis process.
- * Coordinates with ThreadManagementService to analyze files, calculate results,
+ * Coordinates with ThreadManagementService to analyze files, accumulate results,
  * and create archives in a multi-threaded environment.
+ * In summary result mode a batch keeps only its totals and top files in memory, and the
+ * rows of all files are written to an NDJSON file next to the output archive.
  */
 @Service
 public class CoreFileAnalysisService implements IFileAnalysisService {
@@ -31,15 +51,27 @@ public class CoreFileAnalysisService implements IFileAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(CoreFileAnalysisService.class);
 
     private final ThreadManagementService threadManagementService;
+    private final ArchiveService archiveService;
+    private final ObjectMapper objectMapper;
+    private final ResultMode resultMode;
+    private final int resultTopN;
 
     @Autowired
-    public CoreFileAnalysisService(ThreadManagementService threadManagementService) {
+    public CoreFileAnalysisService(ThreadManagementService threadManagementService, ArchiveService archiveService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${file.analyzer.result.mode}") ResultMode resultMode,
+                                   @Value("${file.analyzer.result.top-n}") int resultTopN) {
         this.threadManagementService = threadManagementService;
+        this.archiveService = archiveService;
+        this.objectMapper = objectMapper;
+        this.resultMode = resultMode;
+        this.resultTopN = resultTopN;
     }
 
     /**
      * Processes a list of files by analyzing their content, calculating total results,
-     * and creating an archive of the processed files.
+     * and creating an archive of the processed files. Each file is read once; the same
+     * content is counted by the analysis thread and compressed by the archive thread.
      *
      * @param filePaths      List of paths to the files to be processed
      * @param inputDirectory Directory containing the input files
@@ -50,8 +82,42 @@ public class CoreFileAnalysisService implements IFileAnalysisService {
      */
     @Override
     public FileAnalysisResponseDto processFile(List<Path> filePaths, String inputDirectory, String outputZipPath) {
+        return processFile(filePaths, inputDirectory, outputZipPath, AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * Processes a list of files like {@link #processFile(List, String, String)} and reports
+     * every finished file to the listener while the batch runs.
+     *
+     * @param filePaths      List of paths to the files to be processed
+     * @param inputDirectory Directory containing the input files
+     * @param outputZipPath  Path where the output ZIP file will be created
+     * @param listener       Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     */
+    @Override
+    public FileAnalysisResponseDto processFile(List<Path> filePaths, String inputDirectory, String outputZipPath,
+                                               AnalysisProgressListener listener) {
+        return processFile(filePaths, inputDirectory, outputZipPath, listener, true);
+    }
+
+    /**
+     * Processes a list of files like {@link #processFile(List, String, String, AnalysisProgressListener)},
+     * optionally leaving the files in place after they are archived, e.g. for incremental re-analysis.
+     * Files left in place are tracked by the caller, so their results are always returned in full
+     * for the caller to record; the caller applies the result mode to the result it returns.
+     *
+     * @param filePaths         List of paths to the files to be processed
+     * @param inputDirectory    Directory containing the input files
+     * @param outputZipPath     Path where the output ZIP file will be created
+     * @param listener          Receives the progress of the batch
+     * @param deleteSourceFiles Whether to delete the files after they are archived
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     */
+    @Override
+    public FileAnalysisResponseDto processFile(List<Path> filePaths, String inputDirectory, String outputZipPath,
+                                               AnalysisProgressListener listener, boolean deleteSourceFiles) {
         logger.info("Starting file processing for {} files from directory: {}", filePaths.size(), inputDirectory);
-        LocalDateTime analysisStartTime = LocalDateTime.now();
 
         // Validate input directory exists
         Path inputDirPath = Paths.get(inputDirectory);
@@ -64,27 +130,215 @@ public class CoreFileAnalysisService implements IFileAnalysisService {
             throw new FileProcessingException("No files provided for processing");
         }
 
+        FileAnalysisResponseDto responseDto = runAnalysis(outputZipPath, deleteSourceFiles, filePaths.size(),
+                deleteSourceFiles ? resultMode : ResultMode.FULL, listener,
+                (accumulator, archivePipeline) ->
+                        threadManagementService.submitFileAnalysisTasks(filePaths, inputDirPath, accumulator, archivePipeline));
+        logger.info("File processing completed successfully. Processed {} files, created archive: {}",
+                responseDto.getTotalResult().getTotalProcessedFiles(),
+                responseDto.getArchiveInfo().getArchiveFileName());
+        return responseDto;
+    }
+
+    /**
+     * Processes every .txt file of a directory tree without listing the tree first.
+     * Files are submitted for analysis while the discovery pool is still walking the tree, so
+     * on large trees counting and archiving start right away. Files are named by their path
+     * relative to the directory, and are deleted once they are archived.
+     *
+     * @param inputDirectory Root of the directory tree
+     * @param outputZipPath  Path where the output ZIP file will be created
+     * @param listener       Receives the progress of the batch; the file count is reported once the walk is done
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws DirectoryNotFoundException if the directory doesn't exist
+     * @throws NoContentException         if the tree contains no .txt files
+     * @throws FileProcessingException    if an error occurs during file processing
+     */
+    @Override
+    public FileAnalysisResponseDto processDirectory(Path inputDirectory, String outputZipPath,
+                                                    AnalysisProgressListener listener) {
+        logger.info("Starting file processing of directory tree: {}", inputDirectory);
+
+        FileAnalysisResponseDto responseDto = runAnalysis(outputZipPath, true, -1, resultMode, listener,
+                (accumulator, archivePipeline) -> {
+                    TaskWindow<FileStats> window =
+                            threadManagementService.submitDirectoryAnalysisTasks(inputDirectory, accumulator, archivePipeline);
+                    if (window.getSubmittedCount() == 0) {
+                        throw new NoContentException("No .txt files found in directory: " + inputDirectory);
+                    }
+                    listener.onBatchStarted(window.getSubmittedCount());
+                    return window;
+                });
+        logger.info("Directory processing completed successfully. Processed {} files, created archive: {}",
+                responseDto.getTotalResult().getTotalProcessedFiles(),
+                responseDto.getArchiveInfo().getArchiveFileName());
+        return responseDto;
+    }
+
+    /**
+     * Processes the .txt entries of a ZIP file without extracting them to disk.
+     * Each entry is inflated once; the analysis thread counts the inflated content while the
+     * archive thread compresses the same bytes into the output archive. Entries are named by
+     * their path inside the archive, like the files of a directory walk; entries whose name
+     * would leave the archive root are skipped, and of several entries with the same path the
+     * last one is used. Both are logged.
+     *
+     * @param zipPath       ZIP file containing the text files
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws NoContentException      if the ZIP file contains no .txt entries
+     * @throws FileProcessingException if the ZIP file cannot be read or an entry cannot be processed
+     */
+    @Override
+    public FileAnalysisResponseDto processZipEntries(Path zipPath, String outputZipPath) {
+        return processZipEntries(zipPath, outputZipPath, AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * Processes the .txt entries of a ZIP file like {@link #processZipEntries(Path, String)} and
+     * reports every finished entry to the listener while the batch runs.
+     *
+     * @param zipPath       ZIP file containing the text files
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @param listener      Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     */
+    @Override
+    public FileAnalysisResponseDto processZipEntries(Path zipPath, String outputZipPath,
+                                                     AnalysisProgressListener listener) {
+        logger.info("Starting in-place processing of ZIP file: {}", zipPath);
+
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            List<ZipEntry> txtEntries = selectTxtEntries(zipFile);
+            if (txtEntries.isEmpty()) {
+                throw new NoContentException("No TXT files found in ZIP file: " + zipPath.getFileName());
+            }
+
+            FileAnalysisResponseDto responseDto = runAnalysis(outputZipPath, false, txtEntries.size(), resultMode, listener,
+                    (accumulator, archivePipeline) ->
+                            threadManagementService.submitZipEntryAnalysisTasks(zipFile, txtEntries, accumulator, archivePipeline));
+            logger.info("ZIP processing completed successfully. Processed {} entries, created archive: {}",
+                    responseDto.getTotalResult().getTotalProcessedFiles(),
+                    responseDto.getArchiveInfo().getArchiveFileName());
+            return responseDto;
+        } catch (IOException e) {
+            logger.error("Error reading ZIP file: {}", zipPath, e);
+            throw new FileProcessingException("Failed to read ZIP file: " + zipPath.getFileName(), e);
+        }
+    }
+
+    /**
+     * Processes a single .txt file while its content is being received.
+     * The calling thread counts the content as it arrives and the archive thread compresses
+     * the same bytes, so nothing is stored besides the output archive and the result is
+     * ready shortly after the last byte was read.
+     *
+     * @param fileName      Name of the streamed file
+     * @param content       Stream delivering the file content, read to its end but not closed
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws FileProcessingException if the content cannot be read or processed
+     */
+    @Override
+    public FileAnalysisResponseDto processStream(String fileName, InputStream content, String outputZipPath) {
+        logger.info("Starting stream processing of file: {}", fileName);
+
+        FileAnalysisResponseDto responseDto = runAnalysis(outputZipPath, false, 1, resultMode, AnalysisProgressListener.NONE,
+                (accumulator, archivePipeline) -> threadManagementService.runStreamAnalysisTask(fileName, content, accumulator, archivePipeline));
+        logger.info("Stream processing completed successfully. Processed {} bytes, created archive: {}",
+                responseDto.getTotalResult().getTotalByteCount(),
+                responseDto.getArchiveInfo().getArchiveFileName());
+        return responseDto;
+    }
+
+    // Keeps one .txt entry per relative path, later entries replace earlier ones
+    private List<ZipEntry> selectTxtEntries(ZipFile zipFile) {
+        Map<String, ZipEntry> entriesByName = new LinkedHashMap<>();
+        List<String> unsafeEntries = new ArrayList<>();
+        List<String> replacedEntries = new ArrayList<>();
+        Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+        while (zipEntries.hasMoreElements()) {
+            ZipEntry entry = zipEntries.nextElement();
+            if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(".txt")) {
+                continue;
+            }
+            String name = ParallelZipExtractor.relativeNameOf(entry.getName());
+            if (name == null) {
+                unsafeEntries.add(entry.getName());
+                continue;
+            }
+            ZipEntry replaced = entriesByName.remove(name);
+            if (replaced != null) {
+                replacedEntries.add(replaced.getName());
+            }
+            entriesByName.put(name, entry);
+        }
+        if (!unsafeEntries.isEmpty()) {
+            logger.warn("Skipped {} ZIP entries outside the archive root: {}", unsafeEntries.size(), unsafeEntries);
+        }
+        if (!replacedEntries.isEmpty()) {
+            logger.warn("Skipped {} ZIP entries replaced by a later entry of the same path: {}",
+                    replacedEntries.size(), replacedEntries);
+        }
+        return new ArrayList<>(entriesByName.values());
+    }
+
+    // Runs the analysis tasks created by the submitter while the archive task writes their content
+    private FileAnalysisResponseDto runAnalysis(String outputZipPath, boolean deleteSourceFiles, int fileCount,
+                                                ResultMode mode, AnalysisProgressListener listener,
+                                                AnalysisSubmitter submitter) {
+        LocalDateTime analysisStartTime = LocalDateTime.now();
+        listener.onBatchStarted(fileCount);
+        FileStatsSpill spill = null;
+        ArchivePipeline archivePipeline = null;
+        boolean succeeded = false;
         try {
-            // Submit file analysis tasks to thread pool
-            logger.debug("Submitting file analysis tasks to thread pool");
-            List<Future<FileStats>> analysisFutures = threadManagementService.submitFileAnalysisTasks(filePaths);
+            // In summary mode every row goes to the spill file as its file finishes, only the top files stay in memory
+            ResultSummary summary = null;
+            if (mode == ResultMode.SUMMARY) {
+                spill = openSpill(outputZipPath);
+                summary = new ResultSummary(resultTopN, spill);
+            }
 
-            // Wait for all file analysis tasks to complete and collect results
-            logger.debug("Waiting for file analysis tasks to complete");
-            List<FileStats> fileStatsList = threadManagementService.waitForAnalysisCompletion(analysisFutures);
+            // Start the archive writer first, it consumes file content while the analysis tasks read it
+            archivePipeline = archiveService.createPipeline();
+            logger.debug("Submitting archive creation task for: {}", outputZipPath);
+            Future<ArchiveInfo> archiveFuture =
+                    threadManagementService.submitArchiveTask(archivePipeline, outputZipPath, deleteSourceFiles, listener);
 
-            // Submit total result calculation task
-            logger.debug("Submitting total result calculation task");
-            Future<AnalysisResult> totalResultFuture = threadManagementService.submitTotalResultCalculationTask(fileStatsList, analysisStartTime);
+            AnalysisAccumulator accumulator = new AnalysisAccumulator(analysisStartTime, listener, summary);
+            TaskWindow<FileStats> analysisTasks = null;
+            try {
+                // Submit file analysis tasks to thread pool, each one folds its result into the running totals
+                // and passes the content it reads to the archive writer
+                logger.debug("Submitting file analysis tasks to thread pool");
+                analysisTasks = submitter.submit(accumulator, archivePipeline);
 
-            // Submit archive creation task
-            logger.debug("Submitting archive creation task for directory: {}", inputDirectory);
-            Future<ArchiveInfo> archiveFuture = threadManagementService.submitArchiveTask(inputDirectory, outputZipPath, true);
+                // Wait for all file analysis tasks to complete, their results are already in the accumulator
+                logger.debug("Waiting for file analysis tasks to complete");
+                threadManagementService.waitForAnalysisCompletion(analysisTasks);
+            } catch (RuntimeException e) {
+                // Do not keep an archive of a failed analysis, the source files stay in place
+                archivePipeline.fail(e);
+                // Tasks still reading must return before the caller closes their source, e.g. a ZipFile
+                if (analysisTasks != null) {
+                    analysisTasks.cancelAndAwait();
+                }
+                throw e;
+            } finally {
+                // No more entries, the archive writer still waits for the commit below
+                archivePipeline.finish();
+            }
 
-            // Wait for total result calculation and archive creation to complete
-            logger.debug("Waiting for total result calculation to complete");
-            AnalysisResult totalResult = threadManagementService.waitForTotalResultCalculation(totalResultFuture);
+            // Totals are already complete once the last file finishes
+            AnalysisResult totalResult = buildTotalResult(accumulator);
+            if (spill != null) {
+                spill.close();
+                totalResult.setFileStatsFileName(spill.getFileName());
+            }
 
+            // Only now may the archive writer keep the archive and delete the source files
+            archivePipeline.commit();
             logger.debug("Waiting for archive creation to complete");
             ArchiveInfo archiveInfo = threadManagementService.waitForArchiveCompletion(archiveFuture);
 
@@ -93,18 +347,53 @@ public class CoreFileAnalysisService implements IFileAnalysisService {
 
             // Create and return the combined DTO
             FileAnalysisResponseDto responseDto = new FileAnalysisResponseDto(totalResult, archiveInfo);
-
-            logger.info("File processing completed successfully. Processed {} files, created archive: {}",
-                    totalResult.getTotalProcessedFiles(), archiveInfo.getArchiveFileName());
-
+            succeeded = true;
             return responseDto;
 
-        } catch (FileAnalyzerException e) {
+        } catch (FileAnalyzerException | NoContentException e) {
             logger.error("File analyzer exception during processing", e);
             throw e;
         } catch (Exception e) {
             logger.error("Error during file processing", e);
             throw new FileProcessingException("File processing failed: " + e.getMessage(), e);
+        } finally {
+            if (archivePipeline != null && !succeeded) {
+                // Keeps the first cause if the analysis already failed the pipeline
+                archivePipeline.fail(new IllegalStateException("Analysis of the batch did not complete"));
+            }
+            // The rows of a failed batch are not kept, like its archive
+            if (spill != null && !succeeded) {
+                spill.discard();
+            }
         }
     }
+
+    private FileStatsSpill openSpill(String outputZipPath) {
+        try {
+            return FileStatsSpill.create(outputZipPath, objectMapper);
+        } catch (IOException e) {
+            throw new FileProcessingException("Failed to create result file for archive: " + outputZipPath, e);
+        }
+    }
+
+    private AnalysisResult buildTotalResult(AnalysisAccumulator accumulator) {
+        AnalysisResult totalResult;
+        try {
+            totalResult = accumulator.toResult();
+        } catch (ArithmeticException e) {
+            throw new FileProcessingException("Total result exceeds the 64-bit counter range", e);
+        }
+        logger.info("Total result summary: {} lines, {} characters, {} bytes, {} successful files, {} failed files",
+                totalResult.getTotalLineCount(), totalResult.getTotalCharacterCount(), totalResult.getTotalByteCount(),
+                totalResult.getSuccessfulFileCount(), totalResult.getFailedFileCount());
+        return totalResult;
+    }
+
+    /**
+     * Submits the analysis tasks of one batch.
+     */
+    @FunctionalInterface
+    private interface AnalysisSubmitter {
+        TaskWindow<FileStats> submit(AnalysisAccumulator accumulator, ArchivePipeline archivePipeline);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.infina.fileanalyzer.service;
+
+import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.exception.directory.DirectoryAccessException;
+import com.infina.fileanalyzer.service.abstracts.IDirectoryWatchService;
+import com.infina.fileanalyzer.service.abstracts.IJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for watch mode.
+ * When enabled, the input directory is watched from application start, and new text files are
+ * analyzed as soon as they are completely written instead of on the next call of /analyze.
+ * Stable files are grouped into micro-batches bounded by file count, bytes and waiting time;
+ * each batch runs as a job that archives its files into its own archive and removes them,
+ * so its status and result can be fetched like any other job. The waiting time is therefore
+ * also the shortest interval between archives of a directory that fills slowly, and only a
+ * limited number of batches run at a time. The files of a failed job stay in place and are
+ * retried in a later batch.
+ */
+@Service
+public class DirectoryWatchService implements IDirectoryWatchService, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatchService.class);
+
+    private final IJobService jobService;
+    private final FileAnalysisService fileAnalysisService;
+    private final AtomicLong batchCount = new AtomicLong();
+
+    @Value("${file.analyzer.input.directory}")
+    private String inputDirectory;
+
+    @Value("${file.analyzer.watch.enabled}")
+    private boolean watchEnabled;
+
+    @Value("${file.analyzer.watch.stable-ms}")
+    private long stableMillis;
+
+    @Value("${file.analyzer.watch.batch-max-files}")
+    private int batchMaxFiles;
+
+    @Value("${file.analyzer.watch.batch-max-bytes}")
+    private long batchMaxBytes;
+
+    @Value("${file.analyzer.watch.batch-max-delay-ms}")
+    private long batchMaxDelayMillis;
+
+    @Value("${file.analyzer.watch.max-running-batches}")
+    private int maxRunningBatches;
+
+    private volatile DirectoryWatcher watcher;
+    private volatile String lastJobId;
+
+    public DirectoryWatchService(IJobService jobService, FileAnalysisService fileAnalysisService) {
+        this.jobService = jobService;
+        this.fileAnalysisService = fileAnalysisService;
+    }
+
+    /**
+     * Starts watching the input directory on its own thread once the application is ready.
+     *
+     * @throws DirectoryAccessException if the input directory cannot be created or watched
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!watchEnabled || watcher != null) {
+            return;
+        }
+        Path inDir = Paths.get(inputDirectory);
+        try {
+            Files.createDirectories(inDir);
+            watcher = new DirectoryWatcher(inDir, file -> file.toString().toLowerCase().endsWith(".txt"),
+                    stableMillis, batchMaxFiles, batchMaxBytes, batchMaxDelayMillis, maxRunningBatches,
+                    files -> submitBatch(inDir, files));
+        } catch (IOException e) {
+            throw new DirectoryAccessException("Unable to watch input directory: " + inDir, e);
+        }
+        Thread.ofPlatform().name("DirectoryWatcher").daemon().start(watcher);
+        logger.info("Watch mode started for '{}': stable after {} ms, batches of up to {} files or {} bytes, "
+                + "waiting at most {} ms, {} running at a time", inputDirectory, stableMillis, batchMaxFiles,
+                batchMaxBytes, batchMaxDelayMillis, maxRunningBatches);
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        DirectoryWatcher currentWatcher = watcher;
+        Map<String, Object> status = new HashMap<>();
+        status.put("watching", currentWatcher != null);
+        status.put("directory", inputDirectory);
+        status.put("pendingFiles", currentWatcher != null ? currentWatcher.getPendingFileCount() : 0);
+        status.put("runningFiles", currentWatcher != null ? currentWatcher.getRunningFileCount() : 0);
+        status.put("runningBatches", currentWatcher != null ? currentWatcher.getRunningBatchCount() : 0);
+        status.put("batches", batchCount.get());
+        status.put("lastJobId", lastJobId);
+        return status;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    // Runs a batch as a job; the returned stage completes when the job has finished, exceptionally if it failed
+    private CompletionStage<?> submitBatch(Path inDir, List<Path> files) {
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        AtomicBoolean succeeded = new AtomicBoolean();
+        JobStatusDto job = jobService.submit("Watch batch of " + files.size() + " files from " + inDir,
+                listener -> {
+                    FileAnalysisResponseDto result = fileAnalysisService.analyzeFiles(inDir, files, listener);
+                    succeeded.set(true);
+                    return result;
+                },
+                () -> {
+                    if (succeeded.get()) {
+                        finished.complete(null);
+                    } else {
+                        finished.completeExceptionally(new IllegalStateException("Watch batch failed"));
+                    }
+                });
+        batchCount.incrementAndGet();
+        lastJobId = job.getJobId();
+        logger.info("Watch batch of {} files submitted as job {}", files.size(), job.getJobId());
+        return finished;
+    }
+}
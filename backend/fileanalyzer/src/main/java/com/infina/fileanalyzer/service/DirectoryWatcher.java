@@ -0,0 +1,362 @@
+package com.infina.fileanalyzer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory with a {@link WatchService} and hands the files that appear in it to a
+ * handler in micro-batches.
+ * <p>
+ * A file is only handed over once it is stable, i.e. its size and modification time did not
+ * change for the stability period, so files that are still being written are not analyzed.
+ * Stable files are collected into a batch until it reaches the file or byte limit, or until
+ * the oldest stable file has waited for the batch delay. Only a limited number of batches run
+ * at a time; stable files keep collecting while they do, so a busy directory produces fewer,
+ * larger batches. A file stays out of new batches while the batch it belongs to is running.
+ * The files of a failed batch that still exist are watched again and join a later batch, up to
+ * a fixed number of attempts. Files present when watching starts, and all files after an event
+ * overflow, are picked up by a scan of the directory.
+ */
+class DirectoryWatcher implements Runnable, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    // Batches a file may fail in before it is no longer handed over
+    static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final Path directory;
+    private final Predicate<Path> fileFilter;
+    private final long stableNanos;
+    private final int maxBatchFiles;
+    private final long maxBatchBytes;
+    private final long maxBatchDelayNanos;
+    private final int maxRunningBatches;
+    private final long pollMillis;
+    private final BatchHandler handler;
+    private final WatchService watchService;
+
+    // Only used by the watching thread
+    private final Map<Path, PendingFile> pendingFiles = new LinkedHashMap<>();
+    private final Set<Path> runningFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger runningBatches = new AtomicInteger();
+    // Files of failed batches, queued by the batch threads and picked up by the watching thread
+    private final Queue<Path> retryFiles = new ConcurrentLinkedQueue<>();
+    private final Map<Path, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+    private volatile int pendingFileCount;
+
+    /**
+     * @param directory          Directory to watch
+     * @param fileFilter         Selects the files to hand over
+     * @param stableMillis       Time a file must stay unchanged before it is handed over
+     * @param maxBatchFiles      Largest number of files in one batch
+     * @param maxBatchBytes      Batch size in bytes at which a batch is handed over without waiting
+     * @param maxBatchDelayMillis Longest time a stable file waits for more files to join its batch
+     * @param maxRunningBatches  Number of batches that may run at the same time
+     * @param handler            Receives the batches
+     * @throws IOException if the directory cannot be watched
+     */
+    DirectoryWatcher(Path directory, Predicate<Path> fileFilter, long stableMillis, int maxBatchFiles,
+                            long maxBatchBytes, long maxBatchDelayMillis, int maxRunningBatches,
+                            BatchHandler handler) throws IOException {
+        if (maxBatchFiles <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + maxBatchFiles);
+        }
+        if (maxRunningBatches <= 0) {
+            throw new IllegalArgumentException("Invalid number of running batches: " + maxRunningBatches);
+        }
+        this.directory = directory;
+        this.fileFilter = fileFilter;
+        this.stableNanos = TimeUnit.MILLISECONDS.toNanos(stableMillis);
+        this.maxBatchFiles = maxBatchFiles;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+        this.maxRunningBatches = maxRunningBatches;
+        // Unchanged files are checked again at a fraction of the shorter period
+        this.pollMillis = Math.max(10, Math.min(stableMillis, maxBatchDelayMillis) / 4);
+        this.handler = handler;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Receives the batches of stable files.
+     */
+    @FunctionalInterface
+    interface BatchHandler {
+
+        /**
+         * @param files Stable files, in the order they appeared
+         * @return Completes once the batch is done, exceptionally if it failed and its files should be retried
+         */
+        CompletionStage<?> onBatch(List<Path> files);
+    }
+
+    /**
+     * Watches the directory until the watcher is closed or the thread is interrupted.
+     */
+    @Override
+    public void run() {
+        logger.info("Watching {} for new files", directory);
+        scanDirectory();
+        try {
+            while (!closed) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                    if (!key.reset()) {
+                        logger.error("Watched directory {} is no longer accessible", directory);
+                        return;
+                    }
+                }
+                requeueFailedFiles();
+                refreshPendingFiles();
+                dispatchBatches();
+                pendingFileCount = pendingFiles.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed while waiting for events
+        } finally {
+            logger.info("Stopped watching {}", directory);
+        }
+    }
+
+    /**
+     * @return Number of files waiting to become stable or to join a batch
+     */
+    int getPendingFileCount() {
+        return pendingFileCount;
+    }
+
+    /**
+     * @return Number of files in running batches
+     */
+    int getRunningFileCount() {
+        return runningFiles.size();
+    }
+
+    /**
+     * @return Number of batches handed over that have not finished yet
+     */
+    int getRunningBatchCount() {
+        return runningBatches.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    private void handleEvents(WatchKey key) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                logger.warn("Events of {} were lost, scanning the directory", directory);
+                scanDirectory();
+            } else if (event.context() instanceof Path name) {
+                Path file = directory.resolve(name);
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    pendingFiles.remove(file);
+                } else {
+                    fileChanged(file);
+                }
+            }
+        }
+    }
+
+    private void scanDirectory() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(this::fileChanged);
+        } catch (IOException e) {
+            logger.error("Failed to scan watched directory {}", directory, e);
+        }
+    }
+
+    // Starts or restarts the stability period of a file
+    private void fileChanged(Path file) {
+        if (!fileFilter.test(file)) {
+            return;
+        }
+        BasicFileAttributes attributes = readAttributes(file);
+        if (attributes == null || !attributes.isRegularFile()) {
+            pendingFiles.remove(file);
+            return;
+        }
+        long now = System.nanoTime();
+        PendingFile pending = pendingFiles.get(file);
+        if (pending == null) {
+            pendingFiles.put(file, new PendingFile(attributes.size(), attributes.lastModifiedTime().toMillis(), now));
+        } else {
+            pending.update(attributes.size(), attributes.lastModifiedTime().toMillis(), now);
+        }
+    }
+
+    // Some writers do not cause an event for every write, so unstable files are checked directly
+    private void refreshPendingFiles() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            PendingFile pending = entry.getValue();
+            if (pending.isStable(now)) {
+                continue;
+            }
+            BasicFileAttributes attributes = readAttributes(entry.getKey());
+            if (attributes == null) {
+                iterator.remove();
+            } else {
+                pending.update(attributes.size(), attributes.lastModifiedTime().toMillis(), now);
+            }
+        }
+    }
+
+    // Failed files start a new stability period, so a file that is rewritten after the failure is not read early
+    private void requeueFailedFiles() {
+        for (Path file = retryFiles.poll(); file != null; file = retryFiles.poll()) {
+            fileChanged(file);
+        }
+    }
+
+    private void dispatchBatches() {
+        long now = System.nanoTime();
+        List<Map.Entry<Path, PendingFile>> ready = new ArrayList<>();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            PendingFile pending = entry.getValue();
+            if (!pending.isStable(now) || runningFiles.contains(entry.getKey())) {
+                continue;
+            }
+            // Stable files are not checked by the refresh, they may have been deleted or changed since
+            BasicFileAttributes attributes = readAttributes(entry.getKey());
+            if (attributes == null) {
+                iterator.remove();
+                continue;
+            }
+            pending.update(attributes.size(), attributes.lastModifiedTime().toMillis(), now);
+            if (pending.isStable(now)) {
+                ready.add(entry);
+            }
+        }
+        ready.sort(Comparator.comparingLong(entry -> entry.getValue().stableSince));
+
+        int start = 0;
+        // Files beyond the running batches stay pending and join a later, larger batch
+        while (start < ready.size() && runningBatches.get() < maxRunningBatches) {
+            List<Path> batch = new ArrayList<>();
+            long batchBytes = 0;
+            int index = start;
+            while (index < ready.size() && batch.size() < maxBatchFiles && batchBytes < maxBatchBytes) {
+                batch.add(ready.get(index).getKey());
+                batchBytes += ready.get(index).getValue().size;
+                index++;
+            }
+            boolean full = batch.size() >= maxBatchFiles || batchBytes >= maxBatchBytes;
+            boolean due = now - ready.get(start).getValue().stableSince >= maxBatchDelayNanos;
+            if (!full && !due) {
+                return;
+            }
+            dispatch(batch);
+            start = index;
+        }
+    }
+
+    private void dispatch(List<Path> batch) {
+        batch.forEach(pendingFiles::remove);
+        runningFiles.addAll(batch);
+        runningBatches.incrementAndGet();
+        logger.debug("Handing over batch of {} files from {}", batch.size(), directory);
+        try {
+            handler.onBatch(batch).whenComplete((result, failure) -> batchFinished(batch, failure));
+        } catch (RuntimeException e) {
+            logger.error("Batch of {} files from {} could not be handed over", batch.size(), directory, e);
+            batchFinished(batch, e);
+        }
+    }
+
+    private void batchFinished(List<Path> batch, Throwable failure) {
+        if (failure == null) {
+            batch.forEach(failedAttempts::remove);
+        } else {
+            for (Path file : batch) {
+                int attempts = failedAttempts.merge(file, 1, Integer::sum);
+                if (attempts < MAX_BATCH_ATTEMPTS) {
+                    retryFiles.add(file);
+                } else {
+                    failedAttempts.remove(file);
+                    logger.error("{} failed in {} batches and is no longer handed over until it changes", file, attempts);
+                }
+            }
+        }
+        batch.forEach(runningFiles::remove);
+        runningBatches.decrementAndGet();
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Deleted or not accessible
+            return null;
+        }
+    }
+
+    // Last seen size and modification time of a file, and since when they have not changed
+    private final class PendingFile {
+        private long size;
+        private long lastModifiedMillis;
+        private long lastChangeNanos;
+        private long stableSince;
+
+        PendingFile(long size, long lastModifiedMillis, long now) {
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.lastChangeNanos = now;
+            this.stableSince = now + stableNanos;
+        }
+
+        void update(long newSize, long newLastModifiedMillis, long now) {
+            if (newSize != size || newLastModifiedMillis != lastModifiedMillis) {
+                size = newSize;
+                lastModifiedMillis = newLastModifiedMillis;
+                lastChangeNanos = now;
+                stableSince = now + stableNanos;
+            }
+        }
+
+        boolean isStable(long now) {
+            return now - lastChangeNanos >= stableNanos;
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package com.infina.fileanalyzer.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.engine.AnalysisAccumulator;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.DirectoryManifest;
+import com.infina.fileanalyzer.engine.ResultMode;
+import com.infina.fileanalyzer.engine.ResultSummary;
+import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.entity.FileStats;
 import com.infina.fileanalyzer.exception.directory.DirectoryNotFoundException;
 import com.infina.fileanalyzer.exception.directory.DirectoryAccessException;
 import com.infina.fileanalyzer.exception.file.FileProcessingException;
@@ -8,6 +16,9 @@ import com.infina.fileanalyzer.exception.file.FileNotFoundException;
 import com.infina.fileanalyzer.exception.archive.ArchiveExtractionException;
 import com.infina.fileanalyzer.exception.status.NoContentException;
 import com.infina.fileanalyzer.service.abstracts.IFileAnalysisService;
+import com.infina.fileanalyzer.service.abstracts.IFileDiscoveryService;
+import com.infina.fileanalyzer.service.abstracts.IFileProcessingService;
+import com.infina.fileanalyzer.service.abstracts.IManifestService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,11 +26,13 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Service that handles file discovery, directory management,
@@ -34,6 +47,10 @@ public class FileAnalysisService {
 
     private final IFileAnalysisService coreAnalysisService;
     private final ArchiveService archiveService;
+    private final IManifestService manifestService;
+    private final IFileProcessingService fileProcessingService;
+    private final IFileDiscoveryService fileDiscoveryService;
+    private final ObjectMapper objectMapper;
 
     @Value("${file.analyzer.input.directory}")
     private String inputDirectory;
@@ -44,10 +61,27 @@ public class FileAnalysisService {
     @Value("${file.analyzer.extract.directory}")
     private String extractDirectory;
 
+    @Value("${file.analyzer.incremental.enabled}")
+    private boolean incrementalEnabled;
+
+    @Value("${file.analyzer.result.mode}")
+    private ResultMode resultMode;
+
+    @Value("${file.analyzer.result.top-n}")
+    private int resultTopN;
+
     public FileAnalysisService(IFileAnalysisService coreAnalysisService,
-                               ArchiveService archiveService) {
+                               ArchiveService archiveService,
+                               IManifestService manifestService,
+                               IFileProcessingService fileProcessingService,
+                               IFileDiscoveryService fileDiscoveryService,
+                               ObjectMapper objectMapper) {
         this.coreAnalysisService = coreAnalysisService;
         this.archiveService = archiveService;
+        this.manifestService = manifestService;
+        this.fileProcessingService = fileProcessingService;
+        this.fileDiscoveryService = fileDiscoveryService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -60,54 +94,326 @@ public class FileAnalysisService {
      * @throws FileProcessingException    if file analysis or archive creation fails
      */
     public FileAnalysisResponseDto analyzeAllFiles() {
+        return analyzeAllFiles(AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * Analyzes all text files in the input directory like {@link #analyzeAllFiles()} and
+     * reports every finished file to the listener.
+     * With incremental analysis enabled, only new and changed files are analyzed and archived.
+     *
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     */
+    public FileAnalysisResponseDto analyzeAllFiles(AnalysisProgressListener listener) {
         Path inDir = Paths.get(inputDirectory);
+        return incrementalEnabled ? analyzeDirectoryIncrementally(inDir, listener) : analyzeDirectory(inDir, listener);
+    }
+
+    /**
+     * Analyzes all text files in the given directory and its subdirectories and creates a ZIP archive
+     * in the output directory. Files are analyzed as they are discovered, without listing the whole
+     * tree first, and are named by their path relative to the directory.
+     * Used with per-request workspaces, so concurrent requests never see each other's files.
+     * The analyzed files are removed from the directory once they are archived.
+     * Runs one at a time with the other analyses of the same directory.
+     *
+     * @param inDir Directory containing the text files
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws DirectoryNotFoundException if the directory doesn't exist or the output directory can't be created
+     * @throws NoContentException         if no text files are found for processing
+     * @throws FileProcessingException    if file analysis or archive creation fails
+     */
+    public FileAnalysisResponseDto analyzeDirectory(Path inDir) {
+        return analyzeDirectory(inDir, AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * Analyzes all text files in the given directory like {@link #analyzeDirectory(Path)} and
+     * reports every finished file to the listener.
+     *
+     * @param inDir    Directory containing the text files
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     */
+    public FileAnalysisResponseDto analyzeDirectory(Path inDir, AnalysisProgressListener listener) {
         if (!Files.exists(inDir)) {
             throw new DirectoryNotFoundException(
-                    "Input directory not found: " + inputDirectory);
+                    "Input directory not found: " + inDir);
         }
 
-        Path outDir = Paths.get(outputDirectory);
+        prepareOutputDirectory();
+
+        String outputZipPath = newArchivePath();
+
+        Lock lock = manifestService.lockFor(inDir);
+        lock.lock();
         try {
-            if (!Files.exists(outDir)) {
-                Files.createDirectories(outDir);
-                logger.info("Created output directory '{}'", outputDirectory);
+            return coreAnalysisService.processDirectory(inDir, outputZipPath, listener);
+        } catch (FileProcessingException | DirectoryNotFoundException | DirectoryAccessException | NoContentException ex) {
+            // Let your global exception handler map these
+            throw ex;
+        } catch (Exception ex) {
+            throw new FileProcessingException(
+                    "File analysis failed: " + ex.getMessage(), ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Analyzes the given text files of a directory and creates a ZIP archive in the output directory.
+     * Used by watch mode for each batch of new files. The files are removed once they are archived.
+     * Runs one at a time with the other analyses of the same directory; files that such an analysis
+     * archived and removed in the meantime are left out.
+     *
+     * @param inDir    Directory containing the files
+     * @param files    Text files to analyze
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws DirectoryNotFoundException if the directory doesn't exist
+     * @throws NoContentException         if none of the files is left
+     * @throws FileProcessingException    if file analysis or archive creation fails
+     */
+    public FileAnalysisResponseDto analyzeFiles(Path inDir, List<Path> files, AnalysisProgressListener listener) {
+        prepareOutputDirectory();
+        String outputZipPath = newArchivePath();
+
+        Lock lock = manifestService.lockFor(inDir);
+        lock.lock();
+        try {
+            List<Path> remainingFiles = files.stream().filter(Files::exists).toList();
+            if (remainingFiles.size() < files.size()) {
+                logger.info("{} of {} files in {} were already analyzed by another request",
+                        files.size() - remainingFiles.size(), files.size(), inDir);
             }
-        } catch (IOException e) {
-            throw new DirectoryAccessException(
-                    "Unable to create output directory: " + outputDirectory, e);
+            if (remainingFiles.isEmpty()) {
+                throw new NoContentException("No files left to analyze in directory: " + inDir);
+            }
+            return coreAnalysisService.processFile(remainingFiles, inDir.toString(), outputZipPath, listener);
+        } catch (FileProcessingException | DirectoryNotFoundException | NoContentException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new FileProcessingException(
+                    "File analysis failed: " + ex.getMessage(), ex);
+        } finally {
+            lock.unlock();
         }
+    }
 
-        List<Path> txtFiles;
+    /**
+     * Analyzes the text files of a directory incrementally, using the manifest of the directory.
+     * Files whose size and modification time match the manifest are not read; only new and
+     * changed files are analyzed and archived, and they stay in the directory afterwards.
+     * The totals cover every file in the directory and are rebuilt from the manifest, so the
+     * cost of a re-scan grows with the number of changed files rather than the directory size.
+     * In summary result mode the rows of all files are written to an NDJSON file named after the
+     * archive of the run, and only the top files are returned; the manifest itself keeps every row.
+     * Analyses of the same directory run one at a time.
+     *
+     * @param inDir    Directory containing the text files
+     * @param listener Receives the progress of the new and changed files
+     * @return Totals of all files, with archive information only if files were analyzed
+     * @throws DirectoryNotFoundException if the directory doesn't exist
+     * @throws DirectoryAccessException   if the directory or its manifest cannot be accessed
+     * @throws NoContentException         if no text files are found for processing
+     * @throws FileProcessingException    if file analysis or archive creation fails
+     */
+    public FileAnalysisResponseDto analyzeDirectoryIncrementally(Path inDir, AnalysisProgressListener listener) {
+        if (!Files.exists(inDir)) {
+            throw new DirectoryNotFoundException(
+                    "Input directory not found: " + inDir);
+        }
+
+        Lock lock = manifestService.lockFor(inDir);
+        lock.lock();
         try {
-            txtFiles = Files.list(inDir)
-                    .filter(p -> p.toString().toLowerCase().endsWith(".txt"))
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new DirectoryAccessException(
-                    "Failed to list files in input directory: " + inputDirectory, e);
+            List<Path> txtFiles = fileDiscoveryService.findFiles(inDir);
+            LocalDateTime analysisStartTime = LocalDateTime.now();
+
+            DirectoryManifest manifest = manifestService.load(inDir);
+            DirectoryManifest.Changes changes;
+            try {
+                changes = manifest.diff(inDir, txtFiles);
+            } catch (IOException e) {
+                throw new DirectoryAccessException(
+                        "Failed to read file attributes in directory: " + inDir, e);
+            }
+            logger.info("Incremental analysis of {}: {} unchanged, {} new or changed, {} removed files", inDir,
+                    changes.unchanged().size(), changes.changed().size(), changes.removed().size());
+
+            if (txtFiles.isEmpty()) {
+                // The files of the last run are gone, which the manifest must record before reporting it
+                if (!changes.isEmpty()) {
+                    manifest.apply(changes, List.of(), state -> null);
+                    manifestService.save(inDir, manifest);
+                }
+                throw new NoContentException(
+                        "No .txt files found in directory: " + inDir);
+            }
+
+            String outputZipPath = newArchivePath();
+            FileAnalysisResponseDto changedResult = null;
+            List<FileStats> changedStats = List.of();
+            if (!changes.changed().isEmpty()) {
+                prepareOutputDirectory();
+                try {
+                    changedResult = coreAnalysisService.processFile(
+                            changes.changedFiles(), inDir.toString(), outputZipPath, listener, false);
+                } catch (FileProcessingException | DirectoryNotFoundException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new FileProcessingException(
+                            "File analysis failed: " + ex.getMessage(), ex);
+                }
+                changedStats = changedResult.getTotalResult().getFileStatsList();
+            } else {
+                listener.onBatchStarted(0);
+            }
+
+            if (!changes.isEmpty()) {
+                manifest.apply(changes, changedStats, state ->
+                        fileProcessingService.findContentHash(state.path(), state.size(), state.lastModifiedMillis()));
+                manifestService.save(inDir, manifest);
+            }
+
+            AnalysisResult totalResult = buildManifestResult(manifest, changedStats, analysisStartTime, outputZipPath);
+            return new FileAnalysisResponseDto(totalResult,
+                    changedResult != null ? changedResult.getArchiveInfo() : null);
+        } finally {
+            lock.unlock();
         }
+    }
 
-        if (txtFiles.isEmpty()) {
-            throw new NoContentException(
-                    "No .txt files found in directory: " + inputDirectory);
+    // Totals over the whole manifest, plus the files of this run that failed and are not in it
+    private AnalysisResult buildManifestResult(DirectoryManifest manifest, List<FileStats> changedStats,
+                                               LocalDateTime analysisStartTime, String outputZipPath) {
+        List<FileStats> fileStatsList = new ArrayList<>(manifest.getFileStats());
+        for (FileStats stats : changedStats) {
+            if (!stats.isProcessingCompleted()) {
+                fileStatsList.add(stats);
+            }
         }
 
-        String timestamp = LocalDateTime.now().format(TS_FMT);
-        String archiveName = "archive_" + timestamp + ".zip";
-        String outputZipPath = outputDirectory + File.separator + archiveName;
+        // In summary mode the rows go to the spill file, like those of a regular batch
+        FileStatsSpill spill = null;
+        ResultSummary summary = null;
+        if (resultMode == ResultMode.SUMMARY) {
+            prepareOutputDirectory();
+            try {
+                spill = FileStatsSpill.create(outputZipPath, objectMapper);
+            } catch (IOException e) {
+                throw new FileProcessingException("Failed to create result file for archive: " + outputZipPath, e);
+            }
+            summary = new ResultSummary(resultTopN, spill);
+        }
+        boolean succeeded = false;
+        try {
+            AnalysisAccumulator accumulator =
+                    new AnalysisAccumulator(analysisStartTime, AnalysisProgressListener.NONE, summary);
+            fileStatsList.forEach(accumulator::add);
+            AnalysisResult result = accumulator.toResult();
+            if (spill != null) {
+                spill.close();
+                result.setFileStatsFileName(spill.getFileName());
+            }
+            succeeded = true;
+            return result;
+        } catch (ArithmeticException e) {
+            throw new FileProcessingException("Total result exceeds the 64-bit counter range", e);
+        } catch (IOException | UncheckedIOException e) {
+            throw new FileProcessingException("Failed to write result file for archive: " + outputZipPath, e);
+        } finally {
+            if (spill != null && !succeeded) {
+                spill.discard();
+            }
+        }
+    }
+
+    /**
+     * Analyzes the text files inside a ZIP file without extracting them and creates a ZIP archive
+     * of their content in the output directory. The input directory is not used.
+     *
+     * @param zipPath ZIP file containing the text files
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws DirectoryAccessException if the output directory can't be created
+     * @throws NoContentException       if the ZIP file contains no text files
+     * @throws FileProcessingException  if file analysis or archive creation fails
+     */
+    public FileAnalysisResponseDto analyzeZipInPlace(Path zipPath) {
+        return analyzeZipInPlace(zipPath, AnalysisProgressListener.NONE);
+    }
+
+    /**
+     * Analyzes the text files inside a ZIP file like {@link #analyzeZipInPlace(Path)} and
+     * reports every finished entry to the listener.
+     *
+     * @param zipPath  ZIP file containing the text files
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     */
+    public FileAnalysisResponseDto analyzeZipInPlace(Path zipPath, AnalysisProgressListener listener) {
+        prepareOutputDirectory();
+        String outputZipPath = newArchivePath();
 
         try {
-            return coreAnalysisService.processFile(
-                    txtFiles, inputDirectory, outputZipPath);
-        } catch (FileProcessingException | DirectoryNotFoundException ex) {
-            // Let your global exception handler map these
+            return coreAnalysisService.processZipEntries(zipPath, outputZipPath, listener);
+        } catch (FileProcessingException | NoContentException ex) {
             throw ex;
         } catch (Exception ex) {
             throw new FileProcessingException(
-                    "File analysis failed: " + ex.getMessage(), ex);
+                    "ZIP analysis failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Analyzes a text file while it is being received and creates a ZIP archive of it
+     * in the output directory. The file is not stored in the input directory.
+     *
+     * @param fileName Name of the streamed file
+     * @param content  Stream delivering the file content
+     * @return FileAnalysisResponseDto containing analysis results and archive information
+     * @throws DirectoryAccessException if the output directory can't be created
+     * @throws FileProcessingException  if file analysis or archive creation fails
+     */
+    public FileAnalysisResponseDto analyzeStream(String fileName, InputStream content) {
+        prepareOutputDirectory();
+        String outputZipPath = newArchivePath();
+
+        try {
+            return coreAnalysisService.processStream(fileName, content, outputZipPath);
+        } catch (FileProcessingException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new FileProcessingException(
+                    "Stream analysis failed: " + ex.getMessage(), ex);
         }
     }
 
+    private void prepareOutputDirectory() {
+        Path outDir = Paths.get(outputDirectory);
+        try {
+            if (!Files.exists(outDir)) {
+                Files.createDirectories(outDir);
+                logger.info("Created output directory '{}'", outputDirectory);
+            }
+        } catch (IOException e) {
+            throw new DirectoryAccessException(
+                    "Unable to create output directory: " + outputDirectory, e);
+        }
+    }
+
+    private String newArchivePath() {
+        String timestamp = LocalDateTime.now().format(TS_FMT);
+        String archiveName = "archive_" + timestamp + "_" + uniqueSuffix() + ".zip";
+        return outputDirectory + File.separator + archiveName;
+    }
+
+    // Keeps names of requests started within the same second apart
+    private static String uniqueSuffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
     /**
      * Extracts a ZIP file to a timestamped subdirectory.
      * Handles both absolute and relative ZIP paths, validates file existence,
@@ -140,7 +446,7 @@ public class FileAnalysisService {
                     "Unable to create extract directory: " + extractDirectory, e);
         }
 
-        String subdir = "extract_" + LocalDateTime.now().format(TS_FMT);
+        String subdir = "extract_" + LocalDateTime.now().format(TS_FMT) + "_" + uniqueSuffix();
         String targetDir = extractDirectory + File.separator + subdir;
 
         try {
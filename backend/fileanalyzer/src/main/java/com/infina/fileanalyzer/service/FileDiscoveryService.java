@@ -0,0 +1,101 @@
+package com.infina.fileanalyzer.service;
+
+import com.infina.fileanalyzer.engine.ParallelDirectoryWalker;
+import com.infina.fileanalyzer.exception.directory.DirectoryAccessException;
+import com.infina.fileanalyzer.exception.directory.DirectoryNotFoundException;
+import com.infina.fileanalyzer.service.abstracts.IFileDiscoveryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Service that finds the .txt files of an input directory, including its subdirectories.
+ * Directories are listed in parallel on the discovery pool and files are handed on as they are
+ * found, so analysis of a large tree starts while it is still being listed.
+ * Which files are taken is set by the include and exclude globs of the configuration.
+ */
+@Service
+public class FileDiscoveryService implements IFileDiscoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileDiscoveryService.class);
+
+    private final ParallelDirectoryWalker walker;
+
+    public FileDiscoveryService(@Qualifier("discoveryPool") ForkJoinPool discoveryPool,
+                                @Value("${file.analyzer.discovery.recursive}") boolean recursive,
+                                @Value("${file.analyzer.discovery.include-globs}") String includeGlobs,
+                                @Value("${file.analyzer.discovery.exclude-globs}") String excludeGlobs) {
+        this.walker = new ParallelDirectoryWalker(discoveryPool, splitGlobs(includeGlobs), splitGlobs(excludeGlobs),
+                recursive);
+        logger.info("File discovery: recursive={}, include={}, exclude={}", recursive, includeGlobs, excludeGlobs);
+    }
+
+    private static List<String> splitGlobs(String globs) {
+        return Arrays.stream(globs.split(","))
+                .map(String::trim)
+                .filter(glob -> !glob.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Subdirectories and files that cannot be read are logged and skipped.
+     *
+     * @throws DirectoryNotFoundException if the directory does not exist
+     * @throws DirectoryAccessException   if the directory cannot be listed
+     */
+    @Override
+    public long discover(Path directory, Consumer<Path> consumer) {
+        if (!Files.isDirectory(directory)) {
+            throw new DirectoryNotFoundException("Directory not found: " + directory);
+        }
+
+        long startTime = System.nanoTime();
+        LongAdder fileCount = new LongAdder();
+        ParallelDirectoryWalker.WalkResult walk;
+        try {
+            walk = walker.walk(directory, file -> {
+                if (file.getFileName().toString().toLowerCase().endsWith(".txt")) {
+                    consumer.accept(file);
+                    fileCount.increment();
+                }
+            });
+        } catch (IOException e) {
+            throw new DirectoryAccessException("Failed to list files in directory: " + directory, e);
+        }
+        if (!walk.unreadablePaths().isEmpty()) {
+            List<Path> unreadablePaths = walk.unreadablePaths();
+            logger.warn("Skipped {} unreadable paths in {}, e.g. {}", unreadablePaths.size(), directory,
+                    unreadablePaths.subList(0, Math.min(unreadablePaths.size(), 10)));
+        }
+        logger.debug("Discovered {} files in {} in {} ms", fileCount.sum(), directory,
+                (System.nanoTime() - startTime) / 1_000_000.0);
+        return fileCount.sum();
+    }
+
+    @Override
+    public List<Path> findFiles(Path directory) {
+        List<Path> files = Collections.synchronizedList(new ArrayList<>());
+        discover(directory, files::add);
+        List<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Override
+    public String entryNameOf(Path directory, Path file) {
+        return ParallelDirectoryWalker.relativeName(directory, file);
+    }
+}
@@ -85,6 +85,8 @@ public class FileDownloadService implements IFileDownloadService {
             return "text/plain";
         } else if (lowerCaseFilename.endsWith(".rar")) {
             return "application/x-rar-compressed";
+        } else if (lowerCaseFilename.endsWith(".ndjson")) {
+            return "application/x-ndjson";
         }
 
         return "application/octet-stream";
@@ -1,27 +1,125 @@
 package com.infina.fileanalyzer.service;
 
-import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.engine.AnalysisMode;
+import com.infina.fileanalyzer.engine.AnalysisResultCache;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
+import com.infina.fileanalyzer.engine.ContentSink;
+import com.infina.fileanalyzer.engine.CountingKernel;
+import com.infina.fileanalyzer.engine.CountingKernels;
+import com.infina.fileanalyzer.engine.DirectBufferPool;
+import com.infina.fileanalyzer.engine.MappedFileAnalyzer;
+import com.infina.fileanalyzer.engine.ParallelFileAnalyzer;
+import com.infina.fileanalyzer.engine.ParallelZipExtractor;
+import com.infina.fileanalyzer.engine.StreamingFileAnalyzer;
+import com.infina.fileanalyzer.engine.TextCounts;
 import com.infina.fileanalyzer.entity.FileStats;
 import com.infina.fileanalyzer.exception.file.FileNotFoundException;
 import com.infina.fileanalyzer.exception.file.FileProcessingException;
 import com.infina.fileanalyzer.exception.file.InvalidFileTypeException;
+import com.infina.fileanalyzer.exception.thread.ThreadInterruptedException;
 import com.infina.fileanalyzer.service.abstracts.IFileProcessingService;
+import com.infina.fileanalyzer.service.abstracts.IResultStoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.MalformedInputException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 @Service
 public class FileProcessingService implements IFileProcessingService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileProcessingService.class);
 
+    private final StreamingFileAnalyzer streamingAnalyzer;
+    private final MappedFileAnalyzer mappedAnalyzer;
+    private final ParallelFileAnalyzer parallelAnalyzer;
+    private final long mappedThresholdBytes;
+    private final long parallelThresholdBytes;
+    private final Semaphore openFileLimiter;
+    private final AnalysisResultCache resultCache;
+
+    public FileProcessingService(@Value("${file.analyzer.read.buffer-size}") int readBufferSize,
+                                 @Value("${file.analyzer.read.max-pooled-buffers}") int maxPooledBuffers,
+                                 @Value("${file.analyzer.mmap.threshold-bytes}") long mappedThresholdBytes,
+                                 @Value("${file.analyzer.mmap.window-bytes}") long mappedWindowBytes,
+                                 @Value("${file.analyzer.parallel.threshold-bytes}") long parallelThresholdBytes,
+                                 @Value("${file.analyzer.parallel.chunk-bytes}") long parallelChunkBytes,
+                                 @Value("${file.analyzer.simd.enabled}") boolean simdEnabled,
+                                 @Value("${file.analyzer.cache.enabled}") boolean cacheEnabled,
+                                 @Value("${file.analyzer.cache.max-entries}") int cacheMaxEntries,
+                                 @Qualifier("chunkAnalysisPool") ForkJoinPool chunkAnalysisPool,
+                                 @Qualifier("openFileLimiter") Semaphore openFileLimiter,
+                                 IResultStoreService resultStore) {
+        CountingKernel countingKernel = selectCountingKernel(simdEnabled);
+        DirectBufferPool bufferPool = new DirectBufferPool(readBufferSize, maxPooledBuffers);
+        this.streamingAnalyzer = new StreamingFileAnalyzer(bufferPool, countingKernel);
+        this.mappedAnalyzer = new MappedFileAnalyzer(mappedWindowBytes, countingKernel);
+        this.parallelAnalyzer = new ParallelFileAnalyzer(chunkAnalysisPool, parallelChunkBytes, countingKernel);
+        this.mappedThresholdBytes = mappedThresholdBytes;
+        this.parallelThresholdBytes = parallelThresholdBytes;
+        this.openFileLimiter = openFileLimiter;
+        this.resultCache = cacheEnabled ? new AnalysisResultCache(cacheMaxEntries, bufferPool, resultStore) : null;
+        logger.info("Analysis result cache {}", cacheEnabled
+                ? "enabled for " + cacheMaxEntries + " entries" : "disabled");
+        if (resultCache != null) {
+            // Results of previous runs are added as the store is read
+            resultStore.warmUp(resultCache::restore);
+        }
+    }
+
+    /**
+     * Picks the SIMD counting kernel when it is enabled, available and passes its self-test
+     * against the scalar decoder. Otherwise the scalar decoder loop is used.
+     *
+     * @param simdEnabled Whether the Vector API kernel should be tried
+     * @return Vector kernel, or null for the scalar decoder loop
+     */
+    private static CountingKernel selectCountingKernel(boolean simdEnabled) {
+        if (!simdEnabled) {
+            logger.info("SIMD counting disabled, using scalar counting");
+            return null;
+        }
+        if (!CountingKernels.isVectorKernelIncluded()) {
+            logger.info("SIMD counting kernel is not part of this build (vector-api Maven profile), using scalar counting");
+            return null;
+        }
+        if (!CountingKernels.isVectorApiAvailable()) {
+            logger.warn("SIMD counting enabled but jdk.incubator.vector is not available "
+                    + "(start the JVM with --add-modules jdk.incubator.vector), using scalar counting");
+            return null;
+        }
+
+        try {
+            CountingKernel vectorKernel = CountingKernels.createVectorKernel();
+            long startTime = System.nanoTime();
+            boolean passed = CountingKernels.selfTest(vectorKernel);
+            long durationNanos = System.nanoTime() - startTime;
+            if (!passed) {
+                logger.error("SIMD counting kernel {} failed its self-test, using scalar counting", vectorKernel.name());
+                return null;
+            }
+            logger.info("SIMD counting kernel {} passed self-test in {} ms", vectorKernel.name(),
+                    durationNanos / 1_000_000.0);
+            return vectorKernel;
+        } catch (IllegalStateException e) {
+            logger.warn("SIMD counting kernel could not be created, using scalar counting", e);
+            return null;
+        }
+    }
 
     /**
      * Calculates the line and character count for the given file,
@@ -33,8 +131,44 @@ public class FileProcessingService implements IFileProcessingService {
      * @throws InvalidFileTypeException if file is not a .txt file
      * @throws FileNotFoundException    if file does not exist
      * @throws FileProcessingException  if an error occurs during file processing
+     * @throws ThreadInterruptedException if interrupted while waiting for an open-file permit
      */
     public FileStats analyzeFile(Path filePath) {
+        return analyzeFile(filePath, null);
+    }
+
+    /**
+     * Analyzes the given file like {@link #analyzeFile(Path)} and, when a pipeline is given,
+     * writes its content to an archive entry from the same read.
+     * The archive entry is opened only after the file passed validation and holds an
+     * open-file permit, and it receives the whole file even if the content is not valid UTF-8.
+     *
+     * @param filePath        Path to the file to analyze
+     * @param archivePipeline Pipeline receiving the file content, or null to only analyze
+     * @return FileStats containing analysis results
+     * @throws InvalidFileTypeException   if file is not a .txt file
+     * @throws FileNotFoundException      if file does not exist
+     * @throws FileProcessingException    if an error occurs during file processing
+     * @throws ThreadInterruptedException if interrupted while waiting for an open-file permit
+     */
+    public FileStats analyzeFile(Path filePath, ArchivePipeline archivePipeline) {
+        return analyzeFile(filePath, filePath.getFileName().toString(), archivePipeline);
+    }
+
+    /**
+     * Analyzes the given file like {@link #analyzeFile(Path, ArchivePipeline)}, reporting it and
+     * archiving it under the given name, e.g. its path relative to the analyzed directory.
+     *
+     * @param filePath        Path to the file to analyze
+     * @param name            Name of the file in the FileStats and the archive
+     * @param archivePipeline Pipeline receiving the file content, or null to only analyze
+     * @return FileStats containing analysis results
+     * @throws InvalidFileTypeException   if file is not a .txt file
+     * @throws FileNotFoundException      if file does not exist
+     * @throws FileProcessingException    if an error occurs during file processing
+     * @throws ThreadInterruptedException if interrupted while waiting for an open-file permit
+     */
+    public FileStats analyzeFile(Path filePath, String name, ArchivePipeline archivePipeline) {
         // Check if file exists
         if (!Files.exists(filePath)) {
             throw new FileNotFoundException("File does not exist: " + filePath);
@@ -46,17 +180,105 @@ public class FileProcessingService implements IFileProcessingService {
             throw new InvalidFileTypeException("Only .txt files can be analyzed. Found: " + fileName);
         }
 
+        FileStats stats = new FileStats();
+        stats.setFileName(name);
+        stats.setThreadName(Thread.currentThread().getName());
+        stats.setProcessingStartTime(LocalDateTime.now());
+
+        // Huge files are split across cores, large files are counted from mapped memory,
+        // the rest through a pooled buffer
+        long fileSize = readFileSize(filePath);
+        AnalysisMode mode = selectAnalysisMode(fileSize);
+        stats.setAnalysisMode(mode);
+
+        // Calculate line, character and byte count in a single pass,
+        // unless the same content was counted before
+        ContentCounter counter = sink -> switch (mode) {
+            case PARALLEL_MAPPED -> parallelAnalyzer.analyze(filePath, sink);
+            case MAPPED -> mappedAnalyzer.analyze(filePath, sink);
+            case STREAMING -> streamingAnalyzer.analyze(filePath, sink);
+        };
+        TextCounts counts = countContent(filePath.toString(), name, filePath, fileSize, archivePipeline,
+                openFileLimiter,
+                resultCache == null ? counter : sink -> resultCache.analyze(filePath, fileSize, sink, counter::count));
+
+        return completeStats(stats, counts);
+    }
+
+    /**
+     * Calculates the line and character count of a .txt entry directly from its inflating
+     * stream, without extracting it to disk. When a pipeline is given, the inflated content
+     * is also written to an archive entry.
+     *
+     * @param zipFile         Archive containing the entry
+     * @param zipEntry        Entry to analyze
+     * @param archivePipeline Pipeline receiving the entry content, or null to only analyze
+     * @return FileStats containing analysis results, named after the path of the entry inside the archive
+     * @throws InvalidFileTypeException   if the entry is not a .txt file or its name leaves the archive root
+     * @throws FileProcessingException    if an error occurs while inflating or counting the entry
+     * @throws ThreadInterruptedException if interrupted while waiting for an open-file permit
+     */
+    public FileStats analyzeZipEntry(ZipFile zipFile, ZipEntry zipEntry, ArchivePipeline archivePipeline) {
+        String fileName = ParallelZipExtractor.relativeNameOf(zipEntry.getName());
+        if (zipEntry.isDirectory() || fileName == null || !fileName.toLowerCase().endsWith(".txt")) {
+            throw new InvalidFileTypeException("Only .txt files can be analyzed. Found: " + zipEntry.getName());
+        }
+
         FileStats stats = new FileStats();
         stats.setFileName(fileName);
         stats.setThreadName(Thread.currentThread().getName());
         stats.setProcessingStartTime(LocalDateTime.now());
+        stats.setAnalysisMode(AnalysisMode.STREAMING);
 
-        // Calculate line and character count
-        int lineCount = countLines(filePath);
-        int characterCount = countCharacters(filePath);
+        String description = zipFile.getName() + "!" + zipEntry.getName();
+        TextCounts counts = countContent(description, fileName, null, zipEntry.getSize(), archivePipeline,
+                openFileLimiter, sink -> {
+            try (ReadableByteChannel channel = Channels.newChannel(zipFile.getInputStream(zipEntry))) {
+                return streamingAnalyzer.analyze(channel, sink);
+            }
+        });
 
-        stats.setLineCount(lineCount);
-        stats.setCharacterCount(characterCount);
+        return completeStats(stats, counts);
+    }
+
+    /**
+     * Calculates the line and character count of .txt content that arrives as a stream,
+     * e.g. a request body, while it is being received. When a pipeline is given, the
+     * content is also written to an archive entry of the same name.
+     * The stream is read to its end but not closed. No open-file permit is taken: the read
+     * runs at the pace of the client, and slow uploads must not hold back file analysis.
+     *
+     * @param fileName        Name of the streamed file
+     * @param content         Stream delivering the file content
+     * @param archivePipeline Pipeline receiving the content, or null to only analyze
+     * @return FileStats containing analysis results
+     * @throws InvalidFileTypeException   if the name is not of a .txt file
+     * @throws FileProcessingException    if an error occurs while reading or counting the content
+     */
+    public FileStats analyzeStream(String fileName, InputStream content, ArchivePipeline archivePipeline) {
+        if (!fileName.toLowerCase().endsWith(".txt")) {
+            throw new InvalidFileTypeException("Only .txt files can be analyzed. Found: " + fileName);
+        }
+
+        FileStats stats = new FileStats();
+        stats.setFileName(fileName);
+        stats.setThreadName(Thread.currentThread().getName());
+        stats.setProcessingStartTime(LocalDateTime.now());
+        stats.setAnalysisMode(AnalysisMode.STREAMING);
+
+        // The caller owns the stream, so the channel wrapping it is not closed
+        ReadableByteChannel channel = Channels.newChannel(content);
+        // Network streams take no open-file permit, a stalled client would hold it for as long as it stalls
+        TextCounts counts = countContent(fileName, fileName, null, -1, archivePipeline, null,
+                sink -> streamingAnalyzer.analyze(channel, sink));
+
+        return completeStats(stats, counts);
+    }
+
+    private static FileStats completeStats(FileStats stats, TextCounts counts) {
+        stats.setLineCount(counts.getLineCount());
+        stats.setCharacterCount(counts.getCharacterCount());
+        stats.setByteCount(counts.getByteCount());
 
         stats.setProcessingEndTime(LocalDateTime.now());
         stats.setProcessingCompleted(true);
@@ -64,80 +286,103 @@ public class FileProcessingService implements IFileProcessingService {
         return stats;
     }
 
-    // Calculates the line count of the file
-    private int countLines(Path filePath) {
-        try (var lines = Files.lines(filePath)) {
-            return (int) lines.count();
+    private long readFileSize(Path filePath) {
+        try {
+            return Files.size(filePath);
         } catch (IOException e) {
-            logger.error("Error counting lines in file: {}", filePath, e);
-            throw new FileProcessingException("Failed to count lines in file: " + filePath, e);
+            logger.error("Error reading size of file: {}", filePath, e);
+            throw new FileProcessingException("Failed to read size of file: " + filePath, e);
         }
     }
 
-    // Calculates the total character count of the file
-    private int countCharacters(Path filePath) {
+    // Chooses between streaming, memory-mapped and parallel reading based on the file size
+    private AnalysisMode selectAnalysisMode(long size) {
+        if (size >= parallelThresholdBytes) {
+            return AnalysisMode.PARALLEL_MAPPED;
+        }
+        return size >= mappedThresholdBytes ? AnalysisMode.MAPPED : AnalysisMode.STREAMING;
+    }
+
+    // Reads the content once and calculates its line, character and byte count
+    // while holding one of the limited permits, if a limiter is given
+    private TextCounts countContent(String description, String entryName, Path source, long expectedSize,
+                                    ArchivePipeline archivePipeline, Semaphore limiter, ContentCounter counter) {
+        if (limiter != null) {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ThreadInterruptedException("Interrupted while waiting to open file: " + description, e);
+            }
+        }
+
+        ArchivePipeline.Entry archiveEntry = null;
+        boolean archiveEntryComplete = false;
         try {
-            return Files.readString(filePath).length();
+            archiveEntry = archivePipeline != null ? archivePipeline.openEntry(entryName, source, expectedSize) : null;
+            TextCounts counts;
+            try {
+                counts = counter.count(archiveEntry);
+            } catch (MalformedInputException e) {
+                // The whole content still reached the archive entry
+                completeArchiveEntry(archiveEntry);
+                archiveEntryComplete = true;
+                throw e;
+            }
+            completeArchiveEntry(archiveEntry);
+            archiveEntryComplete = true;
+            return counts;
         } catch (IOException e) {
-            logger.error("Error counting characters in file: {}", filePath, e);
-            throw new FileProcessingException("Failed to count characters in file: " + filePath, e);
+            logger.error("Error analyzing content of file: {}", description, e);
+            throw new FileProcessingException("Failed to analyze file: " + description, e);
+        } finally {
+            if (archiveEntry != null && !archiveEntryComplete) {
+                archiveEntry.abort(new IOException("Analysis of " + description + " did not finish"));
+            }
+            if (limiter != null) {
+                limiter.release();
+            }
         }
     }
 
-    // Can be used to run with thread pools
-    public Callable<FileStats> analyzeFileCallable(Path filePath) {
-        return () -> analyzeFile(filePath);
+    private void completeArchiveEntry(ArchivePipeline.Entry archiveEntry) throws IOException {
+        if (archiveEntry != null) {
+            archiveEntry.complete();
+        }
     }
 
+    /**
+     * Counts content once it is opened, passing what it reads to the sink.
+     */
+    @FunctionalInterface
+    private interface ContentCounter {
+        TextCounts count(ContentSink sink) throws IOException;
+    }
 
     /**
-     * Calculates the total analysis result from individual file statistics.
-     * This method aggregates all individual results into a comprehensive summary.
+     * Returns the statistics of the analysis result cache.
      *
-     * @param fileStatsList     List of individual file analysis results
-     * @param analysisStartTime Start time of the overall analysis process
-     * @return AnalysisResult containing aggregated statistics
+     * @return Hit, miss and eviction counts, or null if the cache is disabled
      */
-    public AnalysisResult calculateTotalResult(List<FileStats> fileStatsList, LocalDateTime analysisStartTime) {
-        logger.info("Calculating total result for {} files", fileStatsList.size());
-        long startTime = System.nanoTime();
-
-        AnalysisResult result = new AnalysisResult(fileStatsList);
-        result.setAnalysisStartTime(analysisStartTime);
-        result.setAnalysisEndTime(LocalDateTime.now());
-
-        // Calculate totals
-        int totalLines = 0;
-        int totalCharacters = 0;
-        long totalProcessingTime = 0;
-        int successfulFiles = 0;
-        int failedFiles = 0;
-
-        for (FileStats stats : fileStatsList) {
-            if (stats.isProcessingCompleted()) {
-                totalLines += stats.getLineCount();
-                totalCharacters += stats.getCharacterCount();
-                totalProcessingTime += stats.getProcessingTimeNanos();
-                successfulFiles++;
-            } else {
-                failedFiles++;
-            }
-        }
-
-        result.setTotalLineCount(totalLines);
-        result.setTotalCharacterCount(totalCharacters);
-        result.setTotalProcessingTimeNanos(totalProcessingTime);
-        result.setSuccessfulFileCount(successfulFiles);
-        result.setFailedFileCount(failedFiles);
-
-        long endTime = System.nanoTime();
-        long calculationDuration = endTime - startTime;
+    public AnalysisResultCache.Stats getResultCacheStats() {
+        return resultCache != null ? resultCache.getStats() : null;
+    }
 
-        logger.info("Total result calculation completed in {} ms ({} ns)",
-                calculationDuration / 1_000_000.0, calculationDuration);
-        logger.info("Total result summary: {} lines, {} characters, {} successful files, {} failed files",
-                totalLines, totalCharacters, successfulFiles, failedFiles);
+    /**
+     * Returns the content hash the result cache recorded for a version of a file.
+     *
+     * @param filePath           File that was analyzed
+     * @param size               Size of the file when it was analyzed
+     * @param lastModifiedMillis Modification time of the file when it was analyzed
+     * @return SHA-256 of the content, or null if unknown or the cache is disabled
+     */
+    public String findContentHash(Path filePath, long size, long lastModifiedMillis) {
+        return resultCache != null ? resultCache.findContentHash(filePath, size, lastModifiedMillis) : null;
+    }
 
-        return result;
+    // Can be used to run with thread pools
+    public Callable<FileStats> analyzeFileCallable(Path filePath) {
+        return () -> analyzeFile(filePath);
     }
-}
\ No newline at end of file
+
+}
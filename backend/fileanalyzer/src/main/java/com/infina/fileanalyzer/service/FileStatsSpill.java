@@ -0,0 +1,98 @@
+package com.infina.fileanalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infina.fileanalyzer.entity.FileStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * Writes the FileStats of one batch in summary mode to an NDJSON file next to the output archive.
+ * Every file is written as one JSON line by the analysis thread that finished it, so the rows
+ * of a batch are kept on disk instead of the heap and can be downloaded like the archive.
+ */
+class FileStatsSpill implements Consumer<FileStats>, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStatsSpill.class);
+    private static final String ARCHIVE_SUFFIX = ".zip";
+    private static final String SPILL_SUFFIX = ".ndjson";
+    private static final int BUFFER_SIZE = 65536;
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final OutputStream out;
+    private boolean closed;
+
+    private FileStatsSpill(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+    }
+
+    /**
+     * Creates the NDJSON file of the batch writing the given archive.
+     *
+     * @param outputZipPath Path of the output archive, the file gets the same name with an .ndjson suffix
+     * @param objectMapper  Mapper serializing the rows
+     * @return Open spill file
+     * @throws IOException if the file cannot be created
+     */
+    static FileStatsSpill create(String outputZipPath, ObjectMapper objectMapper) throws IOException {
+        Path zipPath = Paths.get(outputZipPath);
+        String zipName = zipPath.getFileName().toString();
+        String baseName = zipName.toLowerCase().endsWith(ARCHIVE_SUFFIX)
+                ? zipName.substring(0, zipName.length() - ARCHIVE_SUFFIX.length()) : zipName;
+        return new FileStatsSpill(zipPath.resolveSibling(baseName + SPILL_SUFFIX), objectMapper);
+    }
+
+    /**
+     * Appends one row. Called by the analysis threads, so writes are serialized.
+     *
+     * @throws UncheckedIOException if the row cannot be written
+     */
+    @Override
+    public void accept(FileStats stats) {
+        try {
+            byte[] row = objectMapper.writeValueAsBytes(stats);
+            synchronized (this) {
+                out.write(row);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result row of " + stats.getFileName() + " to " + path, e);
+        }
+    }
+
+    String getFileName() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.close();
+        }
+    }
+
+    /**
+     * Closes and deletes the file of a batch that failed.
+     */
+    void discard() {
+        try {
+            close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete result file: {}", path, e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.infina.fileanalyzer.service;
 
 import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
 
 import com.infina.fileanalyzer.exception.directory.DirectoryAccessException;
 import com.infina.fileanalyzer.exception.file.FileProcessingException;
@@ -14,21 +16,32 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
 import java.nio.file.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class FileUploadService implements IFileUploadService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileUploadService.class);
 
+    private static final String UPLOADED_ZIP_NAME = "upload.zip";
+
     private final FileAnalysisService fileAnalysisService;
+    private final ArchiveService archiveService;
+    private final JobService jobService;
+
+    @Value("${file.analyzer.workspace.directory}")
+    private String workspaceDirectory;
 
-    @Value("${file.analyzer.input.directory}")
-    private String inputDirectory;
+    @Value("${file.analyzer.upload.analyze-zip-in-place}")
+    private boolean analyzeZipInPlace;
 
-    public FileUploadService(FileAnalysisService fileAnalysisService) {
+    public FileUploadService(FileAnalysisService fileAnalysisService, ArchiveService archiveService,
+                             JobService jobService) {
         this.fileAnalysisService = fileAnalysisService;
+        this.archiveService = archiveService;
+        this.jobService = jobService;
     }
 
     /**
@@ -37,14 +50,84 @@ public class FileUploadService implements IFileUploadService {
      * @return Analysis results
      */
     public FileAnalysisResponseDto processUploadedFile(MultipartFile uploadedFile) {
+        StagedUpload upload = stageUploadedFile(uploadedFile);
+        try {
+            return analyzeStagedUpload(upload, AnalysisProgressListener.NONE);
+        } catch (Exception e) {
+            logger.error("Error processing uploaded file: {}", uploadedFile.getOriginalFilename(), e);
+            throw new FileProcessingException("Failed to process uploaded file: " + e.getMessage(), e);
+        } finally {
+            deleteWorkspace(upload.workspace());
+        }
+    }
+
+    /**
+     * Stores the uploaded file in a request workspace and analyzes it in a background job
+     * The upload is stored before returning, since it is only available during the request
+     * @param uploadedFile The uploaded file
+     * @return Status of the started job
+     */
+    public JobStatusDto submitUploadedFile(MultipartFile uploadedFile) {
+        StagedUpload upload = stageUploadedFile(uploadedFile);
+        return jobService.submit("Analyze uploaded file " + uploadedFile.getOriginalFilename(),
+                listener -> analyzeStagedUpload(upload, listener), () -> deleteWorkspace(upload.workspace()));
+    }
+
+    /**
+     * Analyzes a TXT file sent as the raw request body while it is being received
+     * The content goes straight to the counting engine and the archive writer,
+     * so only a few buffers are held per request and no copy is stored
+     * @param fileName Name of the uploaded file
+     * @param content The request body
+     * @return Analysis results
+     */
+    public FileAnalysisResponseDto processStreamedFile(String fileName, InputStream content) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new FileProcessingException("File name is null");
+        }
+        if (!fileName.toLowerCase().endsWith(".txt")) {
+            throw new FileProcessingException("Unsupported file type for streaming upload: " + fileName);
+        }
+
+        String safeFileName = sanitizeFilename(fileName);
+        logger.info("Processing streamed file: {}", safeFileName);
+        return fileAnalysisService.analyzeStream(safeFileName, content);
+    }
+
+    public FileAnalysisResponseDto processMultipleUploadedFiles(MultipartFile[] uploadedFiles) {
+        Path workspace = stageUploadedFiles(uploadedFiles);
+        try {
+            return fileAnalysisService.analyzeDirectory(workspace);
+        } catch (Exception e) {
+            logger.error("Error processing multiple uploaded files", e);
+            throw new FileProcessingException("Failed to process multiple files: " + e.getMessage(), e);
+        } finally {
+            deleteWorkspace(workspace);
+        }
+    }
+
+    /**
+     * Stores the uploaded files in a request workspace and analyzes them in a background job
+     * @param uploadedFiles Array of uploaded files
+     * @return Status of the started job
+     */
+    public JobStatusDto submitMultipleUploadedFiles(MultipartFile[] uploadedFiles) {
+        Path workspace = stageUploadedFiles(uploadedFiles);
+        return jobService.submit("Analyze " + uploadedFiles.length + " uploaded files",
+                listener -> fileAnalysisService.analyzeDirectory(workspace, listener), () -> deleteWorkspace(workspace));
+    }
+
+    /**
+     * Validates the uploaded file and stores it in a new request workspace
+     * ZIP files are extracted into the workspace, or kept as they are when they are analyzed in place
+     * @param uploadedFile The uploaded file
+     * @return The stored upload
+     */
+    private StagedUpload stageUploadedFile(MultipartFile uploadedFile) {
         if (uploadedFile == null || uploadedFile.isEmpty()) {
             throw new FileProcessingException("Uploaded file is empty or null");
         }
 
-        // Prepare input directory
-        Path inputDir = Paths.get(inputDirectory);
-        prepareInputDirectory(inputDir);
-
         String originalFilename = uploadedFile.getOriginalFilename();
         if (originalFilename == null) {
             throw new FileProcessingException("File name is null");
@@ -52,29 +135,47 @@ public class FileUploadService implements IFileUploadService {
 
         logger.info("Processing uploaded file: {}", originalFilename);
 
+        // Each request works in its own directory, so concurrent uploads never see each other's files
+        Path workspace = createWorkspace();
         try {
             // Process based on file type
             if (originalFilename.toLowerCase().endsWith(".txt")) {
                 // Direct TXT file
-                processTxtFile(uploadedFile, inputDir);
+                processTxtFile(uploadedFile, workspace);
+                return new StagedUpload(workspace, null);
             } else if (originalFilename.toLowerCase().endsWith(".zip")) {
+                if (analyzeZipInPlace) {
+                    // ZIP file - entries are analyzed straight from the archive, nothing is extracted
+                    Path uploadedZip = workspace.resolve(UPLOADED_ZIP_NAME);
+                    uploadedFile.transferTo(uploadedZip);
+                    return new StagedUpload(workspace, uploadedZip);
+                }
                 // ZIP file - extract TXT files inside
-                processZipFile(uploadedFile, inputDir);
+                processZipFile(uploadedFile, workspace);
+                return new StagedUpload(workspace, null);
             }else {
                 throw new FileProcessingException("Unsupported file type: " + originalFilename);
             }
-
-            // Now call the existing analysis method
-            return fileAnalysisService.analyzeAllFiles();
-
         } catch (Exception e) {
+            deleteWorkspace(workspace);
             logger.error("Error processing uploaded file: {}", originalFilename, e);
             throw new FileProcessingException("Failed to process uploaded file: " + e.getMessage(), e);
         }
     }
 
+    private FileAnalysisResponseDto analyzeStagedUpload(StagedUpload upload, AnalysisProgressListener listener) {
+        if (upload.uploadedZip() != null) {
+            return fileAnalysisService.analyzeZipInPlace(upload.uploadedZip(), listener);
+        }
+        return fileAnalysisService.analyzeDirectory(upload.workspace(), listener);
+    }
 
-    public FileAnalysisResponseDto processMultipleUploadedFiles(MultipartFile[] uploadedFiles) {
+    /**
+     * Validates the uploaded files and stores them in a new request workspace
+     * @param uploadedFiles Array of uploaded files
+     * @return The request workspace containing the TXT files
+     */
+    private Path stageUploadedFiles(MultipartFile[] uploadedFiles) {
         if (uploadedFiles == null || uploadedFiles.length == 0) {
             throw new FileProcessingException("No files uploaded");
         }
@@ -89,12 +190,10 @@ public class FileUploadService implements IFileUploadService {
 
 
 
-        Path inputDir = Paths.get(inputDirectory);
-        prepareInputDirectory(inputDir);
-
         logger.info("Processing {} uploaded files", uploadedFiles.length);
 
         int processedFileCount = 0;
+        Path workspace = createWorkspace();
         try {
             for (MultipartFile file : uploadedFiles) {
                 if (file == null || file.isEmpty()) {
@@ -112,10 +211,10 @@ public class FileUploadService implements IFileUploadService {
                 logger.info("Processing file: {}", originalFilename);
 
                 if (originalFilename.toLowerCase().endsWith(".txt")) {
-                    processTxtFile(file, inputDir);
+                    processTxtFile(file, workspace);
                     processedFileCount++;
                 } else if (originalFilename.toLowerCase().endsWith(".zip")) {
-                    processZipFile(file, inputDir);
+                    processZipFile(file, workspace);
                     processedFileCount++;
                 } else {
                     logger.warn("Skipping unsupported file type: {}", originalFilename);
@@ -127,68 +226,62 @@ public class FileUploadService implements IFileUploadService {
             }
 
             logger.info("Successfully processed {} files", processedFileCount);
-            return fileAnalysisService.analyzeAllFiles();
+            return workspace;
 
         } catch (Exception e) {
+            deleteWorkspace(workspace);
             logger.error("Error processing multiple uploaded files", e);
             throw new FileProcessingException("Failed to process multiple files: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Copies the TXT file to the input directory
+     * Copies the TXT file to the request workspace
      * @param file The uploaded TXT file
-     * @param inputDir The input directory
+     * @param inputDir The request workspace
      */
     private void processTxtFile(MultipartFile file, Path inputDir) throws IOException {
-        String filename = file.getOriginalFilename();
+        // Only the file name is used, so the upload cannot be placed outside the workspace
+        String filename = Paths.get(file.getOriginalFilename()).getFileName().toString();
         Path targetPath = inputDir.resolve(filename);
 
         try (InputStream is = file.getInputStream()) {
             Files.copy(is, targetPath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("TXT file saved to input directory: {}", filename);
+            logger.info("TXT file saved to workspace: {}", filename);
         }
     }
 
     /**
-     * Extracts TXT files from the ZIP archive to the input directory
+     * Extracts TXT files from the ZIP archive to the request workspace
+     * The upload is stored in a temporary file first, so its entries can be read
+     * through the central directory and extracted in parallel
      * @param file The uploaded ZIP file
-     * @param inputDir The input directory
+     * @param inputDir The request workspace
      */
     private void processZipFile(MultipartFile file, Path inputDir) throws IOException {
-        try (ZipInputStream zipIn = new ZipInputStream(file.getInputStream())) {
-            ZipEntry entry;
-            int extractedCount = 0;
-
-            while ((entry = zipIn.getNextEntry()) != null) {
-                if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(".txt")) {
-                    String filename = Paths.get(entry.getName()).getFileName().toString();
-                    Path targetPath = inputDir.resolve(filename);
-
-                    // Security check: Prevent path traversal attacks
-                    if (!targetPath.startsWith(inputDir)) {
-                        logger.warn("Skipping potentially dangerous file path: {}", entry.getName());
-                        continue;
-                    }
-
-                    try (OutputStream out = Files.newOutputStream(targetPath)) {
-                        byte[] buffer = new byte[8192];
-                        int bytesRead;
-                        while ((bytesRead = zipIn.read(buffer)) != -1) {
-                            out.write(buffer, 0, bytesRead);
-                        }
-                        extractedCount++;
-                        logger.debug("Extracted TXT file: {}", filename);
-                    }
-                }
-                zipIn.closeEntry();
-            }
+        Path uploadedZip = Files.createTempFile("upload-", ".zip");
+        try {
+            file.transferTo(uploadedZip);
+            List<Path> extractedFiles = archiveService.extractTxtFiles(uploadedZip, inputDir);
 
-            logger.info("Extracted {} TXT files from ZIP to input directory", extractedCount);
+            logger.info("Extracted {} TXT files from ZIP to workspace", extractedFiles.size());
 
-            if (extractedCount == 0) {
+            if (extractedFiles.isEmpty()) {
                 throw new NoContentException("No TXT files found in the uploaded ZIP file");
             }
+        } finally {
+            Files.deleteIfExists(uploadedZip);
+        }
+    }
+
+    private void deleteTemporaryFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary file: {}", path, e);
         }
     }
 
@@ -203,33 +296,32 @@ public class FileUploadService implements IFileUploadService {
     }
 
     /**
-     * Prepares the input directory - creates if it doesn't exist, cleans up old TXT files if it does
-     * @param inputDir The input directory
+     * Creates an empty workspace directory for one request under the configured workspace root
+     * @return The request workspace
      */
-    private void prepareInputDirectory(Path inputDir) {
+    private Path createWorkspace() {
+        Path root = Paths.get(workspaceDirectory);
         try {
-            if (!Files.exists(inputDir)) {
-                Files.createDirectories(inputDir);
-                logger.info("Created input directory: {}", inputDir);
-            } else {
-                // Clean up old TXT files
-                cleanupOldTxtFiles(inputDir);
-            }
+            Files.createDirectories(root);
+            Path workspace = Files.createTempDirectory(root, "upload-");
+            logger.debug("Created request workspace: {}", workspace);
+            return workspace;
         } catch (IOException e) {
-            throw new DirectoryAccessException("Failed to prepare input directory: " + inputDir, e);
+            throw new DirectoryAccessException("Failed to create request workspace in: " + root, e);
         }
     }
 
     /**
-     * Cleans up old TXT files in the input directory
-     * @param inputDir The input directory
+     * Deletes a request workspace with everything left in it
+     * Failures are only logged, the analysis result is already complete
+     * @param workspace The request workspace
      */
-    private void cleanupOldTxtFiles(Path inputDir) throws IOException {
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inputDir, "*.txt")) {
-            for (Path file : stream) {
-                Files.delete(file);
-                logger.debug("Deleted old TXT file: {}", file.getFileName());
-            }
+    private void deleteWorkspace(Path workspace) {
+        try (Stream<Path> paths = Files.walk(workspace)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(this::deleteTemporaryFile);
+            logger.debug("Deleted request workspace: {}", workspace);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not delete request workspace: {}", workspace, e);
         }
     }
 
@@ -273,4 +365,12 @@ public class FileUploadService implements IFileUploadService {
 
         return sanitized;
     }
-}
\ No newline at end of file
+
+    /**
+     * Upload stored in a request workspace
+     * @param workspace The request workspace
+     * @param uploadedZip ZIP file to analyze in place, or null if the workspace holds the TXT files
+     */
+    private record StagedUpload(Path workspace, Path uploadedZip) {
+    }
+}
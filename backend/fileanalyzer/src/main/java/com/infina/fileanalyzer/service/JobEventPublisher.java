@@ -0,0 +1,197 @@
+package com.infina.fileanalyzer.service;
+
+import com.infina.fileanalyzer.dto.JobEventDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.entity.AnalysisJob;
+import com.infina.fileanalyzer.entity.FileStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the progress of one job to one Server-Sent Events client.
+ * Events are queued by the analysis and archive threads and sent by a single drain task
+ * on the given executor at a time, so a slow client never blocks the analysis and every
+ * client receives its events in order.
+ * Memory per client is bounded: at most a fixed number of file events are queued, and further
+ * file events of a client that falls behind are replaced by one status snapshot with the
+ * running totals. Archive progress is coalesced into the latest snapshot as well, and the
+ * final event is always delivered.
+ */
+class JobEventPublisher implements AnalysisJob.Observer {
+
+    static final String EVENT_STATUS = "status";
+    static final String EVENT_FILE_COMPLETED = "file-completed";
+    static final String EVENT_FILE_FAILED = "file-failed";
+    static final String EVENT_ARCHIVE_PROGRESS = "archive-progress";
+    static final String EVENT_FINISHED = "finished";
+
+    // File events a client may fall behind by before they are coalesced into a status snapshot
+    static final int MAX_QUEUED_FILE_EVENTS = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(JobEventPublisher.class);
+
+    private final AnalysisJob job;
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final AtomicReference<SseEmitter.SseEventBuilder> initialStatus = new AtomicReference<>();
+    private final Queue<SseEmitter.SseEventBuilder> fileEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedFileEvents = new AtomicInteger();
+    private final AtomicBoolean statusPending = new AtomicBoolean();
+    private final AtomicBoolean archiveProgressPending = new AtomicBoolean();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile SseEmitter.SseEventBuilder finishedEvent;
+    private volatile boolean closed;
+
+    JobEventPublisher(AnalysisJob job, SseEmitter emitter, Executor executor) {
+        this.job = job;
+        this.emitter = emitter;
+        this.executor = executor;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+    }
+
+    /**
+     * Sends the current state of the job and follows it until it finishes.
+     * A job that has already finished is answered with its final state right away.
+     */
+    void start() {
+        initialStatus.set(event(EVENT_STATUS, new JobEventDto(job)));
+        scheduleDrain();
+        if (!job.addObserver(this)) {
+            onJobFinished(job);
+        }
+    }
+
+    @Override
+    public void onFileCompleted(FileStats stats) {
+        if (reserveFileEvent()) {
+            JobEventDto event = new JobEventDto(job);
+            event.setFileStats(stats);
+            publishFileEvent(EVENT_FILE_COMPLETED, event);
+        }
+    }
+
+    @Override
+    public void onFileFailed(String source, Throwable cause) {
+        if (reserveFileEvent()) {
+            JobEventDto event = new JobEventDto(job);
+            event.setFailedFileName(source);
+            if (cause != null) {
+                event.setErrorMessage(cause.getMessage());
+            }
+            publishFileEvent(EVENT_FILE_FAILED, event);
+        }
+    }
+
+    @Override
+    public void onArchiveProgress(int entryCount, long bytesRead, long bytesWritten) {
+        // Only the latest archive progress matters, it is read from the job when it is sent
+        if (!closed) {
+            archiveProgressPending.set(true);
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public void onJobFinished(AnalysisJob finishedJob) {
+        // The response is completed once everything queued before it has been sent
+        finishedEvent = event(EVENT_FINISHED, new JobStatusDto(finishedJob));
+        scheduleDrain();
+    }
+
+    // Takes a slot for a file event, or marks a status snapshot as pending if the client fell behind
+    private boolean reserveFileEvent() {
+        if (closed) {
+            return false;
+        }
+        if (queuedFileEvents.incrementAndGet() > MAX_QUEUED_FILE_EVENTS) {
+            queuedFileEvents.decrementAndGet();
+            statusPending.set(true);
+            scheduleDrain();
+            return false;
+        }
+        return true;
+    }
+
+    private void publishFileEvent(String name, JobEventDto data) {
+        fileEvents.add(event(name, data));
+        scheduleDrain();
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, Object data) {
+        return SseEmitter.event().name(name).data(data);
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            SseEmitter.SseEventBuilder event = initialStatus.getAndSet(null);
+            if (event != null) {
+                send(event);
+            }
+            while ((event = fileEvents.poll()) != null) {
+                queuedFileEvents.decrementAndGet();
+                send(event);
+            }
+            // Snapshots are built now, so they carry the latest totals
+            if (statusPending.getAndSet(false)) {
+                send(event(EVENT_STATUS, new JobEventDto(job)));
+            }
+            if (archiveProgressPending.getAndSet(false)) {
+                send(event(EVENT_ARCHIVE_PROGRESS, new JobEventDto(job)));
+            }
+            SseEmitter.SseEventBuilder finished = finishedEvent;
+            if (finished != null && fileEvents.isEmpty()) {
+                send(finished);
+                completeStream();
+            }
+            draining.set(false);
+            // Events queued after the last poll but before the flag was cleared
+        } while (hasPendingEvents() && draining.compareAndSet(false, true));
+    }
+
+    private boolean hasPendingEvents() {
+        return !closed && (initialStatus.get() != null || !fileEvents.isEmpty() || statusPending.get()
+                || archiveProgressPending.get() || finishedEvent != null);
+    }
+
+    private void completeStream() {
+        if (!closed) {
+            close();
+            emitter.complete();
+        }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return;
+        }
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Event stream of job {} closed by the client", job.getJobId(), e);
+            close();
+        }
+    }
+
+    private void close() {
+        closed = true;
+        fileEvents.clear();
+        job.removeObserver(this);
+    }
+}
@@ -0,0 +1,193 @@
+package com.infina.fileanalyzer.service;
+
+import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.ResultMode;
+import com.infina.fileanalyzer.entity.AnalysisJob;
+import com.infina.fileanalyzer.exception.job.JobNotFoundException;
+import com.infina.fileanalyzer.exception.thread.ThreadExecutionException;
+import com.infina.fileanalyzer.service.abstracts.IJobService;
+import com.infina.fileanalyzer.service.abstracts.IResultStoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Service that runs analyses as background jobs.
+ * A job is started on the general executor and returns its ID right away, the analysis itself
+ * still runs on the file analysis and archive executors. Clients poll the job for the files
+ * finished so far and the final result, so no request thread waits for a long batch.
+ * Clients can also follow a job as a Server-Sent Events stream instead of polling it.
+ * Finished jobs are kept for the configured retention time and then dropped from memory by a
+ * periodic eviction, their final status stays available from the result store, also after a restart.
+ * In summary result mode a job lists only its most recently finished files.
+ */
+@Service
+public class JobService implements IJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    private final ExecutorService generalExecutor;
+    private final FileAnalysisService fileAnalysisService;
+    private final IResultStoreService resultStore;
+    private final Duration retention;
+    private final long eventStreamTimeoutMillis;
+    private final int retainedFileLimit;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    public JobService(@Qualifier("generalExecutor") ExecutorService generalExecutor,
+                      FileAnalysisService fileAnalysisService,
+                      IResultStoreService resultStore,
+                      @Value("${file.analyzer.jobs.retention-minutes}") long retentionMinutes,
+                      @Value("${file.analyzer.jobs.event-stream-timeout-ms}") long eventStreamTimeoutMillis,
+                      @Value("${file.analyzer.result.mode}") ResultMode resultMode,
+                      @Value("${file.analyzer.result.top-n}") int resultTopN) {
+        this.generalExecutor = generalExecutor;
+        this.fileAnalysisService = fileAnalysisService;
+        this.resultStore = resultStore;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.eventStreamTimeoutMillis = eventStreamTimeoutMillis;
+        this.retainedFileLimit = resultMode == ResultMode.SUMMARY ? resultTopN : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Starts an analysis job on the general executor and returns immediately.
+     * The job is its own progress listener, so finished files show up in its status while it runs.
+     *
+     * @param description Short description of the job
+     * @param work        Analysis to run, reporting its progress to the given listener
+     * @param cleanup     Runs after the job finished, successfully or not, or null
+     * @return Status of the queued job
+     * @throws ThreadExecutionException if the job cannot be started
+     */
+    @Override
+    public JobStatusDto submit(String description, Function<AnalysisProgressListener, FileAnalysisResponseDto> work,
+                               Runnable cleanup) {
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), description, retainedFileLimit);
+        jobs.put(job.getJobId(), job);
+        try {
+            generalExecutor.execute(() -> runJob(job, work, cleanup));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            runCleanup(job, cleanup);
+            logger.error("Job submission failed: {}", description, e);
+            throw new ThreadExecutionException("Job submission failed", e);
+        }
+
+        logger.info("Job {} submitted: {}", job.getJobId(), description);
+        return new JobStatusDto(job);
+    }
+
+    /**
+     * Starts a job that analyzes all text files in the input directory.
+     *
+     * @return Status of the queued job
+     */
+    @Override
+    public JobStatusDto submitInputDirectoryAnalysis() {
+        return submit("Analyze input directory", fileAnalysisService::analyzeAllFiles, null);
+    }
+
+    /**
+     * Returns the current status of a job.
+     * Jobs that are no longer in memory are looked up in the result store.
+     *
+     * @param jobId ID of the job
+     * @return Status including the files finished so far and, once completed, the final result
+     * @throws JobNotFoundException if the job is unknown
+     */
+    @Override
+    public JobStatusDto getJobStatus(String jobId) {
+        AnalysisJob job = jobs.get(jobId);
+        if (job != null) {
+            return new JobStatusDto(job);
+        }
+        return resultStore.findJob(jobId)
+                .orElseThrow(() -> new JobNotFoundException("Job not found: " + jobId));
+    }
+
+    /**
+     * Opens a Server-Sent Events stream that follows a job.
+     * The stream starts with the current state of the job, then carries every finished or
+     * failed file with the running totals, the archive progress after every entry, and
+     * finally the complete job status, after which it is closed.
+     *
+     * @param jobId ID of the job
+     * @return Emitter streaming the job events
+     * @throws JobNotFoundException if the job is unknown or no longer in memory
+     */
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        AnalysisJob job = findJob(jobId);
+        SseEmitter emitter = new SseEmitter(eventStreamTimeoutMillis);
+        new JobEventPublisher(job, emitter, generalExecutor).start();
+        logger.debug("Event stream opened for job {}", jobId);
+        return emitter;
+    }
+
+    private AnalysisJob findJob(String jobId) {
+        AnalysisJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException("Job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void runJob(AnalysisJob job, Function<AnalysisProgressListener, FileAnalysisResponseDto> work,
+                        Runnable cleanup) {
+        job.markRunning();
+        logger.info("Job {} started in thread: {}", job.getJobId(), Thread.currentThread().getName());
+        try {
+            job.complete(work.apply(job));
+            logger.info("Job {} completed", job.getJobId());
+        } catch (RuntimeException e) {
+            logger.error("Job {} failed", job.getJobId(), e);
+            job.fail(e);
+        } catch (Error e) {
+            // Finish the job before the error propagates, otherwise it would stay RUNNING forever
+            logger.error("Job {} failed with an error", job.getJobId(), e);
+            job.fail(e);
+            throw e;
+        } finally {
+            if (job.isFinished()) {
+                resultStore.storeJob(new JobStatusDto(job));
+            }
+            runCleanup(job, cleanup);
+        }
+    }
+
+    private void runCleanup(AnalysisJob job, Runnable cleanup) {
+        if (cleanup == null) {
+            return;
+        }
+        try {
+            cleanup.run();
+        } catch (RuntimeException e) {
+            logger.warn("Cleanup of job {} failed", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * Drops finished jobs whose retention time has passed from memory.
+     * Runs periodically, so retained jobs are released also while no new jobs are submitted.
+     */
+    @Scheduled(fixedDelayString = "${file.analyzer.jobs.eviction-interval-ms}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
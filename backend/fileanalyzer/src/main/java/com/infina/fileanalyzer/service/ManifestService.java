@@ -0,0 +1,102 @@
+package com.infina.fileanalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infina.fileanalyzer.engine.ContentDigest;
+import com.infina.fileanalyzer.engine.DirectoryManifest;
+import com.infina.fileanalyzer.entity.ManifestEntry;
+import com.infina.fileanalyzer.exception.directory.DirectoryAccessException;
+import com.infina.fileanalyzer.service.abstracts.IManifestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service that keeps one manifest per analyzed directory in the store directory.
+ * A manifest is saved as JSON under a name derived from the absolute path of its directory,
+ * and is replaced atomically, so a crash leaves either the old or the new manifest.
+ * A manifest that cannot be read is treated as empty, which only costs one full analysis.
+ * Directories share a fixed number of locks, so the short-lived workspaces of uploads leave
+ * nothing behind; two directories that share a lock only wait for each other.
+ */
+@Service
+public class ManifestService implements IManifestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManifestService.class);
+
+    private final ObjectMapper objectMapper;
+    private final Path manifestDirectory;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    public ManifestService(ObjectMapper objectMapper,
+                           @Value("${file.analyzer.store.directory}") String storeDirectory) {
+        this.objectMapper = objectMapper;
+        this.manifestDirectory = Paths.get(storeDirectory).resolve("manifests");
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Lock lockFor(Path directory) {
+        return locks[Math.floorMod(normalize(directory).hashCode(), LOCK_STRIPES)];
+    }
+
+    @Override
+    public DirectoryManifest load(Path directory) {
+        Path manifestFile = manifestFileOf(directory);
+        if (!Files.exists(manifestFile)) {
+            return new DirectoryManifest();
+        }
+        try {
+            ManifestEntry[] entries = objectMapper.readValue(Files.readAllBytes(manifestFile), ManifestEntry[].class);
+            logger.debug("Loaded manifest of {} with {} files", directory, entries.length);
+            return new DirectoryManifest(Arrays.asList(entries));
+        } catch (IOException e) {
+            logger.warn("Manifest of {} could not be read, all files will be analyzed", directory, e);
+            return new DirectoryManifest();
+        }
+    }
+
+    /**
+     * @throws DirectoryAccessException if the manifest cannot be written
+     */
+    @Override
+    public void save(Path directory, DirectoryManifest manifest) {
+        Path manifestFile = manifestFileOf(directory);
+        Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(manifestDirectory);
+            Files.write(tempFile, objectMapper.writeValueAsBytes(manifest.getEntries()));
+            try {
+                Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new DirectoryAccessException("Unable to save manifest of directory: " + directory, e);
+        }
+    }
+
+    private Path manifestFileOf(Path directory) {
+        byte[] name = normalize(directory).toString().getBytes(StandardCharsets.UTF_8);
+        return manifestDirectory.resolve(ContentDigest.hash(name, 0, name.length) + ".json");
+    }
+
+    private static Path normalize(Path directory) {
+        return directory.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,409 @@
+package com.infina.fileanalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.engine.AnalysisResultCache;
+import com.infina.fileanalyzer.engine.ResultLog;
+import com.infina.fileanalyzer.engine.TextCounts;
+import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.exception.store.ResultStoreException;
+import com.infina.fileanalyzer.service.abstracts.IResultStoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Service that keeps analysis results in an append-only log on local disk.
+ * Every file counted by the result cache and the final status of every job are appended as a
+ * binary record, and in-memory indexes map content hashes and job IDs to their record offsets.
+ * The log is read once, in the background right after startup, to rebuild the indexes and
+ * refill the result cache; callers that need it earlier wait for that read to finish.
+ * Failing to write a record never fails an analysis, it only means the result is not kept.
+ * <p>
+ * A job is stored with its totals and top files only, without the rows of its files, so its
+ * record does not grow with the size of its batch. Both indexes keep the offsets of the most
+ * recently stored contents and jobs only, up to configured limits; older contents are counted
+ * again when they are seen next, and older jobs are no longer found. Once the log outgrows its
+ * configured size, it is compacted to the records that are still indexed.
+ */
+@Service
+public class ResultStoreService implements IResultStoreService, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultStoreService.class);
+
+    private static final String LOG_FILE_NAME = "results.log";
+    private static final byte CACHE_ENTRY_RECORD = 1;
+    private static final byte JOB_RECORD = 2;
+
+    private final ExecutorService generalExecutor;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Long> offsetsByContentHash;
+    private final Map<String, Long> offsetsByJobId;
+    private final long maxLogBytes;
+    private final Object loadLock = new Object();
+    // Appends and reads share the log, a compaction moves every record and needs it alone
+    private final ReadWriteLock compactionLock = new ReentrantReadWriteLock();
+    private volatile long compactionThresholdBytes;
+
+    private volatile ResultLog log;
+    private volatile boolean loaded;
+    private volatile Consumer<AnalysisResultCache.Entry> cacheConsumer;
+
+    public ResultStoreService(@Qualifier("generalExecutor") ExecutorService generalExecutor,
+                              ObjectMapper objectMapper,
+                              @Value("${file.analyzer.store.enabled}") boolean storeEnabled,
+                              @Value("${file.analyzer.store.directory}") String storeDirectory,
+                              @Value("${file.analyzer.store.max-indexed-contents}") int maxIndexedContents,
+                              @Value("${file.analyzer.store.max-indexed-jobs}") int maxIndexedJobs,
+                              @Value("${file.analyzer.store.max-log-bytes}") long maxLogBytes) {
+        this.generalExecutor = generalExecutor;
+        this.objectMapper = objectMapper;
+        this.offsetsByContentHash = boundedIndex(maxIndexedContents);
+        this.offsetsByJobId = boundedIndex(maxIndexedJobs);
+        this.maxLogBytes = maxLogBytes;
+        this.compactionThresholdBytes = maxLogBytes;
+        if (storeEnabled) {
+            Path logFile = Paths.get(storeDirectory).resolve(LOG_FILE_NAME);
+            try {
+                this.log = new ResultLog(logFile);
+            } catch (IOException e) {
+                logger.error("Result store could not be opened at {}, results will not be kept", logFile, e);
+            }
+        } else {
+            logger.info("Result store disabled");
+        }
+        // Without a log there is nothing to load
+        this.loaded = log == null;
+    }
+
+    /**
+     * Starts reading the log on the general executor. Every stored file is passed to the
+     * consumer, so the result cache is warm again soon after a restart.
+     *
+     * @param consumer Receives the stored files, oldest first
+     */
+    @Override
+    public void warmUp(Consumer<AnalysisResultCache.Entry> consumer) {
+        if (log == null) {
+            return;
+        }
+        this.cacheConsumer = consumer;
+        try {
+            generalExecutor.execute(this::ensureLoaded);
+        } catch (RejectedExecutionException e) {
+            // Loaded by the first lookup instead
+            logger.warn("Result store could not be loaded in the background", e);
+        }
+    }
+
+    /**
+     * Appends a newly counted file to the log.
+     *
+     * @param entry File counted by the result cache
+     */
+    @Override
+    public void stored(AnalysisResultCache.Entry entry) {
+        ResultLog currentLog = ensureLoaded();
+        if (currentLog == null) {
+            return;
+        }
+        compactionLock.readLock().lock();
+        try {
+            long offset = currentLog.append(CACHE_ENTRY_RECORD, encodeEntry(entry));
+            offsetsByContentHash.put(entry.contentHash(), offset);
+        } catch (IOException e) {
+            logger.warn("Result of {} could not be stored", entry.path(), e);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        compactIfNeeded(currentLog);
+    }
+
+    /**
+     * Returns the stored counts of a content.
+     *
+     * @param contentHash SHA-256 of the content
+     * @return Stored counts, or null if the content is unknown or its record cannot be read
+     */
+    @Override
+    public TextCounts find(String contentHash) {
+        ResultLog currentLog = ensureLoaded();
+        if (currentLog == null) {
+            return null;
+        }
+        compactionLock.readLock().lock();
+        try {
+            Long offset = offsetsByContentHash.get(contentHash);
+            return offset != null
+                    ? decodeEntry(ByteBuffer.wrap(currentLog.read(offset, CACHE_ENTRY_RECORD))).counts() : null;
+        } catch (IOException e) {
+            logger.warn("Stored result of content {} could not be read", contentHash, e);
+            return null;
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the final status of a job to the log and forces it to disk,
+     * so the result of a finished job survives a crash right after it.
+     * Only the totals and top files are stored, the rows of the single files are left out.
+     *
+     * @param status Status of the finished job
+     */
+    @Override
+    public void storeJob(JobStatusDto status) {
+        ResultLog currentLog = ensureLoaded();
+        if (currentLog == null) {
+            return;
+        }
+        compactionLock.readLock().lock();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(status.getJobId());
+            out.write(objectMapper.writeValueAsBytes(withoutFileRows(status)));
+            long offset = currentLog.append(JOB_RECORD, bytes.toByteArray());
+            currentLog.sync();
+            offsetsByJobId.put(status.getJobId(), offset);
+        } catch (IOException e) {
+            logger.warn("Result of job {} could not be stored", status.getJobId(), e);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+        compactIfNeeded(currentLog);
+    }
+
+    /**
+     * Returns the stored final status of a job.
+     *
+     * @param jobId ID of the job
+     * @return Stored status, or empty if the job was never stored
+     * @throws ResultStoreException if the stored status cannot be read
+     */
+    @Override
+    public Optional<JobStatusDto> findJob(String jobId) {
+        ResultLog currentLog = ensureLoaded();
+        if (currentLog == null) {
+            return Optional.empty();
+        }
+        compactionLock.readLock().lock();
+        try {
+            Long offset = offsetsByJobId.get(jobId);
+            if (offset == null) {
+                return Optional.empty();
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(currentLog.read(offset, JOB_RECORD)));
+            in.readUTF();
+            return Optional.of(objectMapper.readValue(in.readAllBytes(), JobStatusDto.class));
+        } catch (IOException e) {
+            logger.error("Stored result of job {} could not be read", jobId, e);
+            throw new ResultStoreException("Failed to read stored result of job: " + jobId, e);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ResultLog currentLog = log;
+        if (currentLog != null) {
+            currentLog.close();
+        }
+    }
+
+    // Reads the whole log once, rebuilding the indexes; returns null if the store is unavailable
+    private ResultLog ensureLoaded() {
+        if (loaded) {
+            return log;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return log;
+            }
+            long startTime = System.nanoTime();
+            Consumer<AnalysisResultCache.Entry> consumer = cacheConsumer;
+            try {
+                ResultLog.ScanResult scan = log.scan((offset, type, payload) -> {
+                    if (type == CACHE_ENTRY_RECORD) {
+                        AnalysisResultCache.Entry entry = decodeEntry(payload);
+                        offsetsByContentHash.put(entry.contentHash(), offset);
+                        if (consumer != null) {
+                            consumer.accept(entry);
+                        }
+                    } else if (type == JOB_RECORD) {
+                        offsetsByJobId.put(readJobId(payload), offset);
+                    }
+                });
+                if (scan.discardedBytes() > 0) {
+                    logger.warn("Result store discarded {} bytes at offset {} that did not form a complete record; "
+                            + "results stored after that offset are lost", scan.discardedBytes(), scan.discardedAt());
+                }
+                logger.info("Result store loaded {} records ({} contents, {} jobs) in {} ms", scan.records(),
+                        offsetsByContentHash.size(), offsetsByJobId.size(), (System.nanoTime() - startTime) / 1_000_000);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Result store could not be loaded, results will not be kept", e);
+                closeQuietly();
+                log = null;
+            }
+            loaded = true;
+            return log;
+        }
+    }
+
+    // Rewrites the log with the indexed records once it outgrew the threshold
+    private void compactIfNeeded(ResultLog currentLog) {
+        if (currentLog.size() <= compactionThresholdBytes) {
+            return;
+        }
+        compactionLock.writeLock().lock();
+        try {
+            long sizeBefore = currentLog.size();
+            if (sizeBefore <= compactionThresholdBytes) {
+                return;
+            }
+            long startTime = System.nanoTime();
+            Map<Long, Long> offsets = currentLog.compact((offset, type, payload) -> {
+                Long indexed = type == CACHE_ENTRY_RECORD
+                        ? offsetsByContentHash.get(decodeEntry(payload).contentHash())
+                        : offsetsByJobId.get(readJobId(payload));
+                return indexed != null && indexed == offset;
+            });
+            moveOffsets(offsetsByContentHash, offsets);
+            moveOffsets(offsetsByJobId, offsets);
+            // A log that is still large after compaction only holds indexed records, it is not compacted again right away
+            compactionThresholdBytes = Math.max(maxLogBytes, 2 * currentLog.size());
+            logger.info("Result store compacted from {} to {} bytes in {} ms", sizeBefore, currentLog.size(),
+                    (System.nanoTime() - startTime) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Result store could not be compacted, results will not be kept", e);
+            closeQuietly();
+            log = null;
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    private static void moveOffsets(Map<String, Long> index, Map<Long, Long> offsets) {
+        synchronized (index) {
+            index.values().removeIf(offset -> !offsets.containsKey(offset));
+            index.replaceAll((key, offset) -> offsets.get(offset));
+        }
+    }
+
+    // Insertion-ordered index that drops its oldest entry beyond the limit
+    private static Map<String, Long> boundedIndex(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // Copy of a job status with its totals and top files, but without the rows of its files
+    private static JobStatusDto withoutFileRows(JobStatusDto status) {
+        JobStatusDto stored = new JobStatusDto();
+        stored.setJobId(status.getJobId());
+        stored.setDescription(status.getDescription());
+        stored.setStatus(status.getStatus());
+        stored.setSubmittedAt(status.getSubmittedAt());
+        stored.setStartedAt(status.getStartedAt());
+        stored.setFinishedAt(status.getFinishedAt());
+        stored.setTotalFileCount(status.getTotalFileCount());
+        stored.setProcessedFileCount(status.getProcessedFileCount());
+        stored.setFailedFileCount(status.getFailedFileCount());
+        stored.setTotalLineCount(status.getTotalLineCount());
+        stored.setTotalCharacterCount(status.getTotalCharacterCount());
+        stored.setTotalByteCount(status.getTotalByteCount());
+        stored.setArchivedEntryCount(status.getArchivedEntryCount());
+        stored.setArchiveBytesWritten(status.getArchiveBytesWritten());
+        stored.setErrorMessage(status.getErrorMessage());
+        FileAnalysisResponseDto result = status.getResult();
+        if (result != null) {
+            stored.setResult(new FileAnalysisResponseDto(totalsOf(result.getTotalResult()), result.getArchiveInfo()));
+        }
+        return stored;
+    }
+
+    private static AnalysisResult totalsOf(AnalysisResult result) {
+        if (result == null) {
+            return null;
+        }
+        AnalysisResult totals = new AnalysisResult();
+        totals.setTotalLineCount(result.getTotalLineCount());
+        totals.setTotalCharacterCount(result.getTotalCharacterCount());
+        totals.setTotalByteCount(result.getTotalByteCount());
+        totals.setTotalProcessedFiles(result.getTotalProcessedFiles());
+        totals.setTotalProcessingTimeNanos(result.getTotalProcessingTimeNanos());
+        totals.setAnalysisStartTime(result.getAnalysisStartTime());
+        totals.setAnalysisEndTime(result.getAnalysisEndTime());
+        totals.setFailedFileCount(result.getFailedFileCount());
+        totals.setSuccessfulFileCount(result.getSuccessfulFileCount());
+        totals.setResultMode(result.getResultMode());
+        totals.setSlowestFiles(result.getSlowestFiles());
+        totals.setLargestFiles(result.getLargestFiles());
+        totals.setFileStatsFileName(result.getFileStatsFileName());
+        return totals;
+    }
+
+    private void closeQuietly() {
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.debug("Result store could not be closed", e);
+        }
+    }
+
+    private static byte[] encodeEntry(AnalysisResultCache.Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(entry.contentHash());
+        out.writeUTF(entry.sample());
+        out.writeUTF(entry.path().toString());
+        out.writeLong(entry.size());
+        out.writeLong(entry.lastModifiedMillis());
+        out.writeLong(entry.counts().getLineCount());
+        out.writeLong(entry.counts().getCharacterCount());
+        out.writeLong(entry.counts().getByteCount());
+        return bytes.toByteArray();
+    }
+
+    private static AnalysisResultCache.Entry decodeEntry(ByteBuffer payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                payload.array(), payload.arrayOffset() + payload.position(), payload.remaining()));
+        String contentHash = in.readUTF();
+        String sample = in.readUTF();
+        Path path = Paths.get(in.readUTF());
+        long size = in.readLong();
+        long lastModifiedMillis = in.readLong();
+        TextCounts counts = new TextCounts(in.readLong(), in.readLong(), in.readLong());
+        return new AnalysisResultCache.Entry(contentHash, sample, path, size, lastModifiedMillis, counts);
+    }
+
+    private static String readJobId(ByteBuffer payload) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(
+                payload.array(), payload.arrayOffset() + payload.position(), payload.remaining())).readUTF();
+    }
+}
@@ -1,21 +1,32 @@
 package com.infina.fileanalyzer.service;
 
-import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.config.AdaptiveThreadPoolExecutor;
+import com.infina.fileanalyzer.engine.AnalysisAccumulator;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
+import com.infina.fileanalyzer.engine.BackpressureMode;
+import com.infina.fileanalyzer.engine.TaskWindow;
 import com.infina.fileanalyzer.entity.ArchiveInfo;
 import com.infina.fileanalyzer.entity.FileStats;
 import com.infina.fileanalyzer.exception.thread.ThreadExecutionException;
 import com.infina.fileanalyzer.exception.thread.ThreadInterruptedException;
+import com.infina.fileanalyzer.service.abstracts.IFileDiscoveryService;
 import com.infina.fileanalyzer.service.abstracts.IThreadManagementService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Implementation of ThreadManagementService that determines which thread pool will execute which operations.
@@ -31,6 +42,9 @@ public class ThreadManagementService implements IThreadManagementService {
     private final ExecutorService generalExecutor;
     private final FileProcessingService fileProcessingService;
     private final ArchiveService archiveService;
+    private final IFileDiscoveryService fileDiscoveryService;
+    private final int maxTasksInFlight;
+    private final BackpressureMode backpressure;
 
     @Autowired
     public ThreadManagementService(
@@ -38,76 +52,233 @@ public class ThreadManagementService implements IThreadManagementService {
             @Qualifier("archiveExecutor") ExecutorService archiveExecutor,
             @Qualifier("generalExecutor") ExecutorService generalExecutor,
             FileProcessingService fileProcessingService,
-            ArchiveService archiveService) {
+            ArchiveService archiveService,
+            IFileDiscoveryService fileDiscoveryService,
+            @Value("${file.analyzer.executor.max-in-flight}") int maxTasksInFlight,
+            @Value("${file.analyzer.executor.backpressure}") BackpressureMode backpressure) {
         this.fileAnalysisExecutor = fileAnalysisExecutor;
         this.archiveExecutor = archiveExecutor;
         this.generalExecutor = generalExecutor;
         this.fileProcessingService = fileProcessingService;
         this.archiveService = archiveService;
+        this.fileDiscoveryService = fileDiscoveryService;
+        this.maxTasksInFlight = maxTasksInFlight;
+        this.backpressure = backpressure;
     }
 
     /**
      * Submits multiple file analysis tasks to the file analysis thread pool.
      * Each file is processed by a separate thread from the pool.
+     * At most max-in-flight tasks are pending at a time; when the window is full this method
+     * waits for a task to complete or runs the next file on the calling thread, depending on
+     * the backpressure mode. It returns once the last file was submitted.
+     * Each result is folded into the accumulator on the analysis thread; the window keeps none of them.
      *
-     * @param filePaths List of file paths to analyze
-     * @return List of Future objects for tracking completion
-     * @throws ThreadExecutionException if task submission fails
-     * @throws ThreadInterruptedException if thread is interrupted during execution
+     * The content each task reads is also written to the archive pipeline.
+     *
+     * @param filePaths       List of file paths to analyze
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the file content
+     * @return Task window tracking the submitted tasks
+     * @throws ThreadExecutionException   if task submission fails
+     * @throws ThreadInterruptedException if the thread is interrupted while waiting for the window
      */
-    public List<Future<FileStats>> submitFileAnalysisTasks(List<Path> filePaths) {
+    public TaskWindow<FileStats> submitFileAnalysisTasks(List<Path> filePaths, AnalysisAccumulator accumulator,
+                                                         ArchivePipeline archivePipeline) {
         logger.info("Starting file analysis task submission for {} files", filePaths.size());
-        long startTime = System.nanoTime();
-        LocalDateTime startDateTime = LocalDateTime.now();
+        return submitAnalysisTasks(filePaths, accumulator,
+                filePath -> fileProcessingService.analyzeFile(filePath, archivePipeline));
+    }
 
-        // Create callable tasks for each file
-        List<Callable<FileStats>> analysisTasks = filePaths.stream()
-                .map(filePath -> {
-                    logger.debug("Creating analysis task for file: {}", filePath.getFileName());
-                    return fileProcessingService.analyzeFileCallable(filePath);
-                })
-                .toList();
+    /**
+     * Submits file analysis tasks like {@link #submitFileAnalysisTasks(List, AnalysisAccumulator, ArchivePipeline)},
+     * naming each file by its path relative to the directory, so files of different subdirectories
+     * with the same name stay apart in the results and the archive.
+     *
+     * @param filePaths       List of file paths to analyze, all below the directory
+     * @param directory       Directory the names are relative to
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the file content
+     * @return Task window tracking the submitted tasks
+     * @throws ThreadExecutionException   if task submission fails
+     * @throws ThreadInterruptedException if the thread is interrupted while waiting for the window
+     */
+    public TaskWindow<FileStats> submitFileAnalysisTasks(List<Path> filePaths, Path directory,
+                                                         AnalysisAccumulator accumulator,
+                                                         ArchivePipeline archivePipeline) {
+        logger.info("Starting file analysis task submission for {} files of {}", filePaths.size(), directory);
+        return submitAnalysisTasks(filePaths, accumulator, filePath -> fileProcessingService.analyzeFile(
+                filePath, fileDiscoveryService.entryNameOf(directory, filePath), archivePipeline));
+    }
+
+    /**
+     * Submits an analysis task for every .txt file of a directory tree while the tree is being walked.
+     * Each file is submitted to the file analysis thread pool as soon as the discovery pool finds it,
+     * so analysis and archiving start before the walk finishes. Files are named by their path relative
+     * to the directory. A full task window also holds back the walk, so the tree is not
+     * discovered much further ahead than it is analyzed, and a failed task ends the walk.
+     * The window always blocks when full, whatever the configured backpressure mode, so
+     * analysis never runs on the discovery threads.
+     * Otherwise behaves like {@link #submitFileAnalysisTasks}.
+     *
+     * @param directory       Root of the directory tree
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the file content
+     * @return Task window tracking the submitted tasks, one per file found
+     * @throws ThreadExecutionException   if task submission fails
+     * @throws ThreadInterruptedException if the thread is interrupted while waiting for the window
+     */
+    public TaskWindow<FileStats> submitDirectoryAnalysisTasks(Path directory, AnalysisAccumulator accumulator,
+                                                              ArchivePipeline archivePipeline) {
+        logger.info("Starting file analysis task submission while discovering files in {}", directory);
+        long startTime = System.nanoTime();
 
-        List<Future<FileStats>> futures;
+        TaskWindow<FileStats> window = newTaskWindow(accumulator, BackpressureMode.BLOCK);
         try {
-            // Submit all tasks to the file analysis thread pool
-            futures = fileAnalysisExecutor.invokeAll(analysisTasks);
+            // Discovery threads block on a full window, which pauses the walk
+            fileDiscoveryService.discover(directory, filePath -> {
+                String name = fileDiscoveryService.entryNameOf(directory, filePath);
+                if (!submitTask(window, filePath,
+                        path -> fileProcessingService.analyzeFile(path, name, archivePipeline), accumulator)) {
+                    throw new CancellationException("Task window stopped after a failure");
+                }
+            });
+        } catch (CancellationException e) {
+            // The window keeps the failure, which waiting for the tasks reports
+            logger.info("Stopped discovering files in {} after a failed analysis task", directory);
+        } catch (RuntimeException e) {
+            window.cancel();
+            throw e;
+        }
 
-            long endTime = System.nanoTime();
-            long durationNanos = endTime - startTime;
+        logger.info("Discovered and submitted {} analysis tasks in {} ms ({} run by the submitting threads)",
+                window.getSubmittedCount(), (System.nanoTime() - startTime) / 1_000_000.0, window.getCallerRunCount());
+        return window;
+    }
 
-            logger.info("File analysis task submission completed in {} ms ({} ns)",
-                    durationNanos / 1_000_000.0, durationNanos);
-            logger.info("Submitted {} analysis tasks to thread pool at {}",
-                    futures.size(), startDateTime);
+    /**
+     * Submits analysis tasks for the .txt entries of an open ZIP file to the file analysis thread pool.
+     * Each entry is inflated and counted by a separate thread straight from the archive,
+     * without being extracted to disk. Otherwise behaves like {@link #submitFileAnalysisTasks}.
+     *
+     * @param zipFile         Archive containing the entries, kept open until all tasks complete
+     * @param zipEntries      Entries to analyze
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the entry content
+     * @return Task window tracking the submitted tasks
+     * @throws ThreadExecutionException   if task submission fails
+     * @throws ThreadInterruptedException if the thread is interrupted while waiting for the window
+     */
+    public TaskWindow<FileStats> submitZipEntryAnalysisTasks(ZipFile zipFile, List<ZipEntry> zipEntries,
+                                                             AnalysisAccumulator accumulator,
+                                                             ArchivePipeline archivePipeline) {
+        logger.info("Starting ZIP entry analysis task submission for {} entries of {}", zipEntries.size(), zipFile.getName());
+        return submitAnalysisTasks(zipEntries, accumulator,
+                zipEntry -> fileProcessingService.analyzeZipEntry(zipFile, zipEntry, archivePipeline));
+    }
 
-            // Log individual thread assignments
-            for (int i = 0; i < filePaths.size(); i++) {
-                logger.debug("File {} assigned to analysis thread pool",
-                        filePaths.get(i).getFileName());
+    /**
+     * Runs the analysis of streamed content on the calling thread.
+     * The stream is typically a request body that is read by the request thread while
+     * it arrives, so it is not handed to a pool; the archive task still compresses the
+     * content concurrently. Failures are reported through the returned window, like
+     * failures of pooled tasks.
+     *
+     * @param fileName        Name of the streamed file
+     * @param content         Stream delivering the file content
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the content
+     * @return Task window whose only task is already complete when this method returns
+     */
+    public TaskWindow<FileStats> runStreamAnalysisTask(String fileName, InputStream content,
+                                                       AnalysisAccumulator accumulator,
+                                                       ArchivePipeline archivePipeline) {
+        logger.info("Starting stream analysis of {} in thread: {}", fileName, Thread.currentThread().getName());
+        TaskWindow<FileStats> window = new TaskWindow<>(Runnable::run, 1, BackpressureMode.CALLER_RUNS, accumulator::add);
+        submitTask(window, fileName, name -> fileProcessingService.analyzeStream(name, content, archivePipeline), accumulator);
+        return window;
+    }
+
+    private <T> TaskWindow<FileStats> submitAnalysisTasks(List<T> sources, AnalysisAccumulator accumulator,
+                                                          Function<T, FileStats> analysis) {
+        long startTime = System.nanoTime();
+        LocalDateTime startDateTime = LocalDateTime.now();
+
+        TaskWindow<FileStats> window = newTaskWindow(accumulator, backpressure);
+        try {
+            // Each task is handed to the pool as soon as the window has room, without waiting for earlier ones
+            for (T source : sources) {
+                logger.debug("Creating analysis task for: {}", source);
+                if (!submitTask(window, source, analysis, accumulator)) {
+                    break;
+                }
             }
+        } catch (RuntimeException e) {
+            // The window is not handed out, so its running tasks must finish before their source is closed;
+            // the archive writer keeps draining the entries they opened
+            window.cancelAndAwait();
+            throw e;
+        }
+
+        long endTime = System.nanoTime();
+        long durationNanos = endTime - startTime;
+
+        logger.info("File analysis task submission completed in {} ms ({} ns)",
+                durationNanos / 1_000_000.0, durationNanos);
+        logger.info("Submitted {} analysis tasks to thread pool at {} ({} in flight at most, {} run by the submitting thread)",
+                window.getSubmittedCount(), startDateTime, window.getMaxInFlight(), window.getCallerRunCount());
 
+        return window;
+    }
+
+    // Results are folded into the accumulator on the analysis thread, without an extra hop to another pool
+    private TaskWindow<FileStats> newTaskWindow(AnalysisAccumulator accumulator, BackpressureMode mode) {
+        return new TaskWindow<>(fileAnalysisExecutor, maxTasksInFlight, mode, accumulator::add);
+    }
+
+    // Returns false once the window stopped accepting tasks after a failure
+    private <T> boolean submitTask(TaskWindow<FileStats> window, T source, Function<T, FileStats> analysis,
+                                   AnalysisAccumulator accumulator) {
+        try {
+            return window.submit(() -> analyzeOrRecordFailure(source, analysis, accumulator));
+        } catch (RejectedExecutionException e) {
+            logger.error("File analysis task submission failed", e);
+            throw new ThreadExecutionException("File analysis task submission failed", e);
         } catch (InterruptedException e) {
-            logger.error("File analysis task submission was interrupted", e);
+            logger.error("Waiting for a free analysis task slot was interrupted", e);
             Thread.currentThread().interrupt();
-            throw new ThreadInterruptedException("File analysis task submission was interrupted", e);
+            throw new ThreadInterruptedException("Analysis task submission was interrupted", e);
         }
+    }
 
-        return futures;
+    // A task that fails without FileStats is still counted in the totals
+    private <T> FileStats analyzeOrRecordFailure(T source, Function<T, FileStats> analysis,
+                                                 AnalysisAccumulator accumulator) {
+        try {
+            return analysis.apply(source);
+        } catch (RuntimeException e) {
+            accumulator.addFailure(String.valueOf(source), e);
+            throw e;
+        }
     }
 
     /**
      * Submits archive creation task to the archive thread pool.
-     * Archive operation is performed by a single dedicated thread.
+     * Every batch gets one archive writer thread of its own, from a pool bounded by
+     * file.analyzer.archive.max-concurrent-batches. It starts right away and writes the file
+     * content the analysis tasks pass through the pipeline, so archiving overlaps analysis
+     * and every file is read only once.
      *
-     * @param inputDirectory Directory containing files to archive
+     * @param archivePipeline Pipeline the analysis threads write file content into
      * @param outputZipPath Path where the ZIP file will be created
      * @param deleteSourceFiles Whether to delete source files after archiving
+     * @param listener Receives the archive progress after every entry
      * @return Future object for tracking completion
-     * @throws ThreadExecutionException if task submission fails
+     * @throws ThreadExecutionException if task submission fails, e.g. because every archive writer is busy
      */
-    public Future<ArchiveInfo> submitArchiveTask(String inputDirectory, String outputZipPath, boolean deleteSourceFiles) {
-        logger.info("Starting archive task submission for directory: {}", inputDirectory);
+    public Future<ArchiveInfo> submitArchiveTask(ArchivePipeline archivePipeline, String outputZipPath,
+                                                 boolean deleteSourceFiles, AnalysisProgressListener listener) {
+        logger.info("Starting archive task submission for: {}", outputZipPath);
         long startTime = System.nanoTime();
         LocalDateTime startDateTime = LocalDateTime.now();
 
@@ -116,26 +287,13 @@ public class ThreadManagementService implements IThreadManagementService {
             logger.debug("Archive task starting execution in thread: {}",
                     Thread.currentThread().getName());
 
-            // Create archive
-            ArchiveInfo archiveInfo = archiveService.createArchive(inputDirectory, outputZipPath);
-
-            // Delete source files if requested and archiving was successful
-            if (deleteSourceFiles && archiveInfo.getArchivedFileCount() > 0) {
-                try {
-                    List<Path> txtFiles = archiveService.findTxtFiles(inputDirectory);
-                    archiveService.deleteSourceFiles(txtFiles);
-                    logger.info("Source files deleted after successful archiving: {} files", txtFiles.size());
-                } catch (Exception e) {
-                    logger.error("Failed to delete source files after archiving", e);
-                }
-            }
-
-            return archiveInfo;
+            // Source files are deleted by the archive service once the archive is closed
+            return archiveService.createArchive(archivePipeline, outputZipPath, deleteSourceFiles, listener);
         };
 
         Future<ArchiveInfo> future;
         try {
-            // Submit archive task to the single-threaded archive executor
+            // Submit archive task to the archive executor, one writer thread per batch
             future = archiveExecutor.submit(archiveTask);
 
             long endTime = System.nanoTime();
@@ -146,6 +304,9 @@ public class ThreadManagementService implements IThreadManagementService {
             logger.info("Archive task submitted to archive thread pool at {}", startDateTime);
             logger.debug("Archive operation will be executed by: archive thread pool");
 
+        } catch (RejectedExecutionException e) {
+            logger.error("Archive task rejected, every archive writer thread is busy", e);
+            throw new ThreadExecutionException("Too many batches are being archived at the same time, try again later", e);
         } catch (Exception e) {
             logger.error("Archive task submission failed", e);
             throw new ThreadExecutionException("Archive task submission failed", e);
@@ -155,147 +316,42 @@ public class ThreadManagementService implements IThreadManagementService {
     }
 
     /**
-     * Submits total result calculation task to the general thread pool.
-     * This method calculates the overall analysis results using a separate thread.
-     *
-     * @param fileStatsList List of individual file analysis results
-     * @param analysisStartTime Start time of the overall analysis process
-     * @return Future object for tracking completion
-     * @throws ThreadExecutionException if task submission fails
-     */
-    public Future<AnalysisResult> submitTotalResultCalculationTask(List<FileStats> fileStatsList, LocalDateTime analysisStartTime) {
-        logger.info("Starting total result calculation task submission for {} files", fileStatsList.size());
-        long startTime = System.nanoTime();
-        LocalDateTime startDateTime = LocalDateTime.now();
-
-        // Create callable task for total result calculation
-        Callable<AnalysisResult> calculationTask = () -> {
-            logger.debug("Total result calculation task starting execution in thread: {}",
-                    Thread.currentThread().getName());
-
-            return fileProcessingService.calculateTotalResult(fileStatsList, analysisStartTime);
-        };
-
-        Future<AnalysisResult> future;
-        try {
-            // Submit calculation task to the general thread pool
-            future = generalExecutor.submit(calculationTask);
-
-            long endTime = System.nanoTime();
-            long durationNanos = endTime - startTime;
-
-            logger.info("Total result calculation task submission completed in {} ms ({} ns)",
-                    durationNanos / 1_000_000.0, durationNanos);
-            logger.info("Total result calculation task submitted to general thread pool at {}", startDateTime);
-            logger.debug("Total result calculation will be executed by: general thread pool");
-
-        } catch (Exception e) {
-            logger.error("Total result calculation task submission failed", e);
-            throw new ThreadExecutionException("Total result calculation task submission failed", e);
-        }
-
-        return future;
-    }
-
-
-    /**
-     * Waits for total result calculation to complete and returns the result.
-     * Provides detailed logging about calculation completion.
+     * Waits for all file analysis tasks to complete. The results are already in the accumulator
+     * of the batch, which received each one as its file finished.
+     * Returns as soon as a task fails; tasks of the window that have not started yet are skipped.
+     * Provides detailed logging about completion status and timing.
      *
-     * @param calculationFuture Future object from total result calculation task
-     * @return AnalysisResult containing aggregated statistics
+     * @param window Task window of the file analysis tasks
      * @throws ThreadInterruptedException if thread is interrupted during wait
      * @throws ThreadExecutionException if execution fails
      */
-    public AnalysisResult waitForTotalResultCalculation(Future<AnalysisResult> calculationFuture) {
-        logger.info("Waiting for total result calculation completion");
+    public void waitForAnalysisCompletion(TaskWindow<FileStats> window) {
+        logger.info("Waiting for completion of {} file analysis tasks", window.getSubmittedCount());
         long startTime = System.nanoTime();
 
-        AnalysisResult result;
         try {
-            logger.debug("Blocking wait for total result calculation completion");
-            result = calculationFuture.get(); // Blocking wait
-
-            long endTime = System.nanoTime();
-            long waitDurationNanos = endTime - startTime;
-
-            logger.info("Total result calculation completed successfully:");
-            logger.info("- Total files processed: {}", result.getTotalProcessedFiles());
-            logger.info("- Successful files: {}", result.getSuccessfulFileCount());
-            logger.info("- Failed files: {}", result.getFailedFileCount());
-            logger.info("- Total lines: {}", result.getTotalLineCount());
-            logger.info("- Total characters: {}", result.getTotalCharacterCount());
-            logger.info("- Total processing time: {} ms", result.getTotalProcessingTimeMillis());
-            logger.info("- Analysis duration: {} seconds", result.getTotalProcessingTimeSeconds());
-            logger.info("- Wait time for calculation completion: {} ms ({} ns)",
-                    waitDurationNanos / 1_000_000.0, waitDurationNanos);
-
+            window.awaitCompletion();
         } catch (InterruptedException e) {
-            logger.error("Total result calculation was interrupted", e);
+            logger.error("Waiting for analysis tasks was interrupted after {} completions", window.getCompletedCount(), e);
             Thread.currentThread().interrupt();
-            throw new ThreadInterruptedException("Total result calculation was interrupted", e);
+            window.cancel();
+            throw new ThreadInterruptedException("Analysis task was interrupted", e);
         } catch (ExecutionException e) {
-            logger.error("Total result calculation failed during execution", e);
-            throw new ThreadExecutionException("Total result calculation execution failed", e);
-        }
-
-        return result;
-    }
-
-    /**
-     * Waits for all file analysis tasks to complete and collects results.
-     * Provides detailed logging about completion status and timing.
-     *
-     * @param futures List of Future objects from file analysis tasks
-     * @return List of FileStats results
-     * @throws ThreadInterruptedException if thread is interrupted during wait
-     * @throws ThreadExecutionException if execution fails
-     */
-    public List<FileStats> waitForAnalysisCompletion(List<Future<FileStats>> futures) {
-        logger.info("Waiting for completion of {} file analysis tasks", futures.size());
-        long startTime = System.nanoTime();
-        LocalDateTime startDateTime = LocalDateTime.now();
-
-        List<FileStats> results = new CopyOnWriteArrayList<>();
-        int completedCount = 0;
-        int failedCount = 0;
-
-        for (int i = 0; i < futures.size(); i++) {
-            Future<FileStats> future = futures.get(i);
-            try {
-                logger.debug("Waiting for analysis task {} to complete", i + 1);
-                FileStats result = future.get(); // Blocking wait
-                results.add(result);
-                completedCount++;
-
-                logger.debug("Analysis task {} completed successfully. File: {}, Thread: {}, Duration: {} ms",
-                        i + 1, result.getFileName(), result.getThreadName(),
-                        result.getProcessingTimeMillis());
-
-            } catch (InterruptedException e) {
-                logger.error("Analysis task {} was interrupted", i + 1, e);
-                Thread.currentThread().interrupt();
-                failedCount++;
-                throw new ThreadInterruptedException("Analysis task was interrupted", e);
-            } catch (ExecutionException e) {
-                logger.error("Analysis task {} failed during execution", i + 1, e);
-                failedCount++;
-                throw new ThreadExecutionException("Analysis task execution failed", e);
-            }
+            logger.error("Analysis task failed during execution after {} completions", window.getCompletedCount(), e);
+            window.cancel();
+            throw new ThreadExecutionException("Analysis task execution failed", e);
         }
 
         long endTime = System.nanoTime();
         long totalDurationNanos = endTime - startTime;
 
         logger.info("File analysis completion summary:");
-        logger.info("- Total tasks: {}", futures.size());
-        logger.info("- Completed successfully: {}", completedCount);
-        logger.info("- Failed: {}", failedCount);
+        logger.info("- Total tasks: {}", window.getSubmittedCount());
+        logger.info("- Completed successfully: {}", window.getCompletedCount());
+        logger.info("- Run by the submitting thread: {}", window.getCallerRunCount());
         logger.info("- Total wait time: {} ms ({} ns)",
                 totalDurationNanos / 1_000_000.0, totalDurationNanos);
         logger.info("- Analysis completion finished at: {}", LocalDateTime.now());
-
-        return results;
     }
 
     /**
@@ -360,6 +416,12 @@ public class ThreadManagementService implements IThreadManagementService {
             logger.info("- Active threads: {}", analysisPool.getActiveCount());
             logger.info("- Completed tasks: {}", analysisPool.getCompletedTaskCount());
             logger.info("- Total tasks: {}", analysisPool.getTaskCount());
+            logger.info("- Queued tasks: {}", analysisPool.getQueue().size());
+            if (analysisPool instanceof AdaptiveThreadPoolExecutor adaptivePool) {
+                logger.info("- Adaptive size limits: {}-{}", adaptivePool.getMinThreads(), adaptivePool.getMaxThreads());
+            }
+        } else {
+            logger.info("File Analysis executor: one virtual thread per task");
         }
 
         // Archive thread pool status
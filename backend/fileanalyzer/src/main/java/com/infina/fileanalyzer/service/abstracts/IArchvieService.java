@@ -1,5 +1,7 @@
 package com.infina.fileanalyzer.service.abstracts;
 
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
 import com.infina.fileanalyzer.entity.ArchiveInfo;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -19,7 +21,34 @@ public interface IArchvieService {
     ArchiveInfo createArchive(String inputDirectory, String outputZipPath);
 
     /**
-     * Finds all .txt files in the specified directory
+     * Creates a pipeline that analysis threads write file content into while they count it
+     * @return New pipeline for one archive
+     */
+    ArchivePipeline createPipeline();
+
+    /**
+     * Creates an archive (ZIP) from the content streamed through the pipeline
+     * The archive is kept only after the analysis committed the pipeline
+     * @param pipeline The pipeline the analysis threads write into
+     * @param outputZipPath The path where the ZIP file will be created
+     * @param deleteSourceFiles Whether to delete the archived files afterwards
+     * @return ArchiveInfo containing information about the archiving process
+     */
+    ArchiveInfo createArchive(ArchivePipeline pipeline, String outputZipPath, boolean deleteSourceFiles);
+
+    /**
+     * Creates an archive (ZIP) from the content streamed through the pipeline and reports its progress
+     * @param pipeline The pipeline the analysis threads write into
+     * @param outputZipPath The path where the ZIP file will be created
+     * @param deleteSourceFiles Whether to delete the archived files afterwards
+     * @param listener Receives the archive progress after every entry
+     * @return ArchiveInfo containing information about the archiving process
+     */
+    ArchiveInfo createArchive(ArchivePipeline pipeline, String outputZipPath, boolean deleteSourceFiles,
+                              AnalysisProgressListener listener);
+
+    /**
+     * Finds all .txt files in the specified directory and its subdirectories
      * @param inputDirectory The directory to search for .txt files
      * @return List of Path objects representing found .txt files
      * @throws IOException if an I/O error occurs
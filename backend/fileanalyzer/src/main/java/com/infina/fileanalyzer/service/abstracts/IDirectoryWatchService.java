@@ -0,0 +1,21 @@
+package com.infina.fileanalyzer.service.abstracts;
+
+import java.util.Map;
+
+/**
+ * Interface for watch mode, which analyzes files as they appear in the input directory
+ */
+public interface IDirectoryWatchService {
+
+    /**
+     * Starts watching the input directory if watch mode is enabled
+     */
+    void start();
+
+    /**
+     * Returns the state of watch mode
+     * @return Map containing whether the directory is watched, the waiting and running files,
+     * the number of batches and the ID of the last batch job
+     */
+    Map<String, Object> getStatus();
+}
@@ -1,6 +1,8 @@
 package com.infina.fileanalyzer.service.abstracts;
 
 import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -20,4 +22,70 @@ public interface IFileAnalysisService {
      * @return FileAnalysisResponseDto containing both analysis results and archive information
      */
     FileAnalysisResponseDto processFile(List<Path> filePaths, String inputDirectory, String outputZipPath);
+
+    /**
+     * Processes a list of files and reports every finished file to the listener while the batch runs.
+     *
+     * @param filePaths List of paths to the files to be processed
+     * @param inputDirectory Directory containing the input files
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing both analysis results and archive information
+     */
+    FileAnalysisResponseDto processFile(List<Path> filePaths, String inputDirectory, String outputZipPath,
+                                        AnalysisProgressListener listener);
+
+    /**
+     * Processes a list of files and reports their progress, optionally keeping the files once they are archived.
+     *
+     * @param filePaths List of paths to the files to be processed
+     * @param inputDirectory Directory containing the input files
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @param listener Receives the progress of the batch
+     * @param deleteSourceFiles Whether to delete the files after they are archived
+     * @return FileAnalysisResponseDto containing both analysis results and archive information
+     */
+    FileAnalysisResponseDto processFile(List<Path> filePaths, String inputDirectory, String outputZipPath,
+                                        AnalysisProgressListener listener, boolean deleteSourceFiles);
+
+    /**
+     * Processes every .txt file of a directory tree, starting the analysis of each file as soon as it is found
+     *
+     * @param inputDirectory Root of the directory tree
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing both analysis results and archive information
+     */
+    FileAnalysisResponseDto processDirectory(Path inputDirectory, String outputZipPath, AnalysisProgressListener listener);
+
+    /**
+     * Processes the .txt entries of a ZIP file without extracting them to disk,
+     * analyzing each entry and archiving its content from the same inflation.
+     *
+     * @param zipPath ZIP file containing the text files
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @return FileAnalysisResponseDto containing both analysis results and archive information
+     */
+    FileAnalysisResponseDto processZipEntries(Path zipPath, String outputZipPath);
+
+    /**
+     * Processes the .txt entries of a ZIP file and reports every finished entry to the listener.
+     *
+     * @param zipPath ZIP file containing the text files
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @param listener Receives the progress of the batch
+     * @return FileAnalysisResponseDto containing both analysis results and archive information
+     */
+    FileAnalysisResponseDto processZipEntries(Path zipPath, String outputZipPath, AnalysisProgressListener listener);
+
+    /**
+     * Processes a single .txt file while its content is being received,
+     * analyzing and archiving it without storing it first.
+     *
+     * @param fileName Name of the streamed file
+     * @param content Stream delivering the file content
+     * @param outputZipPath Path where the output ZIP file will be created
+     * @return FileAnalysisResponseDto containing both analysis results and archive information
+     */
+    FileAnalysisResponseDto processStream(String fileName, InputStream content, String outputZipPath);
 }
@@ -0,0 +1,34 @@
+package com.infina.fileanalyzer.service.abstracts;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interface for finding the text files of an input directory tree
+ */
+public interface IFileDiscoveryService {
+
+    /**
+     * Walks the directory tree and passes every selected text file on as soon as it is found
+     * @param directory Root of the tree
+     * @param consumer Receives the files, concurrently from several threads
+     * @return Number of files found
+     */
+    long discover(Path directory, Consumer<Path> consumer);
+
+    /**
+     * Walks the directory tree and returns all selected text files
+     * @param directory Root of the tree
+     * @return Files found, sorted by path
+     */
+    List<Path> findFiles(Path directory);
+
+    /**
+     * Returns the name a discovered file is analyzed and archived under
+     * @param directory Root of the tree
+     * @param file File found below the root
+     * @return Path of the file relative to the root, with / as separator
+     */
+    String entryNameOf(Path directory, Path file);
+}
@@ -1,9 +1,14 @@
 package com.infina.fileanalyzer.service.abstracts;
 
+import com.infina.fileanalyzer.engine.AnalysisResultCache;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
 import com.infina.fileanalyzer.entity.FileStats;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.concurrent.Callable;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 
 /**
@@ -20,6 +25,56 @@ public interface IFileProcessingService {
      */
     FileStats analyzeFile(Path filePath) throws IOException;
 
+    /**
+     * Analyzes a file and writes its content to an archive entry in the same read
+     * @param filePath Path to the file to be analyzed
+     * @param archivePipeline Pipeline receiving the file content, or null
+     * @return FileStats containing analysis results and processing information
+     */
+    FileStats analyzeFile(Path filePath, ArchivePipeline archivePipeline);
+
+    /**
+     * Analyzes a file and archives its content under the given name, e.g. its path in the analyzed directory
+     * @param filePath Path to the file to be analyzed
+     * @param name Name of the file in the results and the archive
+     * @param archivePipeline Pipeline receiving the file content, or null
+     * @return FileStats containing analysis results and processing information
+     */
+    FileStats analyzeFile(Path filePath, String name, ArchivePipeline archivePipeline);
+
+    /**
+     * Analyzes a .txt entry of a ZIP file straight from its inflating stream, without extracting it
+     * @param zipFile Archive containing the entry
+     * @param zipEntry Entry to be analyzed
+     * @param archivePipeline Pipeline receiving the entry content, or null
+     * @return FileStats containing analysis results, named after the entry file name
+     */
+    FileStats analyzeZipEntry(ZipFile zipFile, ZipEntry zipEntry, ArchivePipeline archivePipeline);
+
+    /**
+     * Analyzes .txt content while it is read from a stream, without storing it first
+     * @param fileName Name of the streamed file
+     * @param content Stream delivering the file content
+     * @param archivePipeline Pipeline receiving the content, or null
+     * @return FileStats containing analysis results
+     */
+    FileStats analyzeStream(String fileName, InputStream content, ArchivePipeline archivePipeline);
+
+    /**
+     * Returns the hit, miss and eviction counts of the analysis result cache
+     * @return Cache statistics, or null if the cache is disabled
+     */
+    AnalysisResultCache.Stats getResultCacheStats();
+
+    /**
+     * Returns the content hash the analysis result cache recorded for a version of a file
+     * @param filePath File that was analyzed
+     * @param size Size of the file when it was analyzed
+     * @param lastModifiedMillis Modification time of the file when it was analyzed
+     * @return SHA-256 of the content, or null if unknown
+     */
+    String findContentHash(Path filePath, long size, long lastModifiedMillis);
+
     /**
      * Returns a Callable that can be used with thread pools for file analysis
      * @param filePath Path to the file to be analyzed
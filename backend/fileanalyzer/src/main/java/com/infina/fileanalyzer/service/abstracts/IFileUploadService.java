@@ -1,8 +1,11 @@
 package com.infina.fileanalyzer.service.abstracts;
 
 import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 /**
  * Service interface for handling file upload operations and processing
  */
@@ -15,6 +18,28 @@ public interface IFileUploadService {
      */
     FileAnalysisResponseDto processUploadedFile(MultipartFile uploadedFile);
 
+    /**
+     * Stores the uploaded file and analyzes it in a background job
+     * @param uploadedFile The uploaded file
+     * @return Status of the started job
+     */
+    JobStatusDto submitUploadedFile(MultipartFile uploadedFile);
+
+    /**
+     * Stores the uploaded files and analyzes them in a background job
+     * @param uploadedFiles Array of uploaded files
+     * @return Status of the started job
+     */
+    JobStatusDto submitMultipleUploadedFiles(MultipartFile[] uploadedFiles);
+
+    /**
+     * Analyzes a TXT file sent as the raw request body while it is being received
+     * @param fileName Name of the uploaded file
+     * @param content The request body
+     * @return Analysis results
+     */
+    FileAnalysisResponseDto processStreamedFile(String fileName, InputStream content);
+
     /**
      * Processes multiple uploaded files and returns analysis results
      * @param uploadedFiles Array of uploaded files
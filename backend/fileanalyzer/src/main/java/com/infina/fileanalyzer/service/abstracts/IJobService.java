@@ -0,0 +1,44 @@
+package com.infina.fileanalyzer.service.abstracts;
+
+import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.function.Function;
+
+/**
+ * Interface for running analyses as background jobs that clients poll by job ID
+ */
+public interface IJobService {
+
+    /**
+     * Starts an analysis job on a background thread and returns immediately
+     * @param description Short description of the job
+     * @param work Analysis to run, reporting its progress to the given listener
+     * @param cleanup Runs after the job finished, successfully or not, or null
+     * @return Status of the queued job
+     */
+    JobStatusDto submit(String description, Function<AnalysisProgressListener, FileAnalysisResponseDto> work,
+                        Runnable cleanup);
+
+    /**
+     * Starts a job that analyzes all text files in the input directory
+     * @return Status of the queued job
+     */
+    JobStatusDto submitInputDirectoryAnalysis();
+
+    /**
+     * Returns the current status of a job
+     * @param jobId ID of the job
+     * @return Status including the files finished so far and, once completed, the final result
+     */
+    JobStatusDto getJobStatus(String jobId);
+
+    /**
+     * Opens a Server-Sent Events stream that pushes the progress of a job until it finishes
+     * @param jobId ID of the job
+     * @return Emitter streaming the job events
+     */
+    SseEmitter subscribe(String jobId);
+}
@@ -0,0 +1,34 @@
+package com.infina.fileanalyzer.service.abstracts;
+
+import com.infina.fileanalyzer.engine.DirectoryManifest;
+
+import java.nio.file.Path;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Interface for loading and saving the manifests used for incremental directory analysis
+ */
+public interface IManifestService {
+
+    /**
+     * Returns the lock that serializes the analyses of a directory.
+     * The lock is reentrant and may be shared with other directories
+     * @param directory Analyzed directory
+     * @return Lock of the directory
+     */
+    Lock lockFor(Path directory);
+
+    /**
+     * Loads the manifest of a directory
+     * @param directory Analyzed directory
+     * @return Saved manifest, or an empty one if the directory was never analyzed incrementally
+     */
+    DirectoryManifest load(Path directory);
+
+    /**
+     * Saves the manifest of a directory, replacing the previous one
+     * @param directory Analyzed directory
+     * @param manifest Manifest to save
+     */
+    void save(Path directory, DirectoryManifest manifest);
+}
@@ -0,0 +1,41 @@
+package com.infina.fileanalyzer.service.abstracts;
+
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.engine.AnalysisResultCache;
+import com.infina.fileanalyzer.engine.TextCounts;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Interface for the local store that keeps analysis results across restarts
+ */
+public interface IResultStoreService extends AnalysisResultCache.Store {
+
+    /**
+     * Starts loading the store in the background, passing every stored file to the given consumer
+     * @param consumer Receives the stored files, oldest first
+     */
+    void warmUp(Consumer<AnalysisResultCache.Entry> consumer);
+
+    /**
+     * Returns the stored counts of a content
+     * @param contentHash SHA-256 of the content
+     * @return Stored counts, or null if the content is unknown
+     */
+    @Override
+    TextCounts find(String contentHash);
+
+    /**
+     * Stores the final status of a finished job
+     * @param status Status of the job, including its result or error message
+     */
+    void storeJob(JobStatusDto status);
+
+    /**
+     * Returns the stored final status of a job
+     * @param jobId ID of the job
+     * @return Stored status, or empty if the job was never stored
+     */
+    Optional<JobStatusDto> findJob(String jobId);
+}
@@ -1,12 +1,17 @@
 package com.infina.fileanalyzer.service.abstracts;
 
-import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.engine.AnalysisAccumulator;
+import com.infina.fileanalyzer.engine.AnalysisProgressListener;
+import com.infina.fileanalyzer.engine.ArchivePipeline;
+import com.infina.fileanalyzer.engine.TaskWindow;
 import com.infina.fileanalyzer.entity.ArchiveInfo;
 import com.infina.fileanalyzer.entity.FileStats;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Interface for thread management service that determines which thread pool will execute which operations.
@@ -15,51 +20,69 @@ import java.util.concurrent.Future;
 public interface IThreadManagementService {
     /**
      * Submits multiple file analysis tasks to the file analysis thread pool.
-     * Each file is processed by a separate thread from the pool.
+     * Each file is processed by a separate thread from the pool and folded into the accumulator.
+     * The content each thread reads is also written to the archive pipeline.
+     * Only a bounded number of tasks is in flight at a time; submission waits for or runs
+     * the next file itself while the window is full.
      *
-     * @param filePaths List of file paths to analyze
-     * @return List of Future objects for tracking completion
+     * @param filePaths       List of file paths to analyze
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the file content
+     * @return Task window tracking the submitted tasks
      */
-    List<Future<FileStats>> submitFileAnalysisTasks(List<Path> filePaths);
+    TaskWindow<FileStats> submitFileAnalysisTasks(List<Path> filePaths, AnalysisAccumulator accumulator,
+                                                  ArchivePipeline archivePipeline);
 
     /**
-     * Submits archive creation task to the archive thread pool.
-     * Archive operation is performed by a single dedicated thread.
+     * Submits analysis tasks for the .txt entries of an open ZIP file to the file analysis thread pool.
+     * Each entry is counted straight from the archive and written to the archive pipeline,
+     * without being extracted to disk.
      *
-     * @param inputDirectory Directory containing files to archive
-     * @param outputZipPath Path where the ZIP file will be created
-     * @param deleteSourceFiles Whether to delete source files after archiving
-     * @return Future object for tracking completion
+     * @param zipFile         Archive containing the entries
+     * @param zipEntries      Entries to analyze
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the entry content
+     * @return Task window tracking the submitted tasks
      */
-    Future<ArchiveInfo> submitArchiveTask(String inputDirectory, String outputZipPath, boolean deleteSourceFiles);
+    TaskWindow<FileStats> submitZipEntryAnalysisTasks(ZipFile zipFile, List<ZipEntry> zipEntries,
+                                                      AnalysisAccumulator accumulator,
+                                                      ArchivePipeline archivePipeline);
 
     /**
-     * Submits total result calculation task to the general thread pool.
-     * This method calculates the overall analysis results using a separate thread.
+     * Runs the analysis of streamed content on the calling thread, which owns the stream,
+     * while the archive task compresses the same content.
      *
-     * @param fileStatsList List of individual file analysis results
-     * @param analysisStartTime Start time of the overall analysis process
-     * @return Future object for tracking completion
+     * @param fileName        Name of the streamed file
+     * @param content         Stream delivering the file content
+     * @param accumulator     Running totals of the batch
+     * @param archivePipeline Pipeline receiving the content
+     * @return Task window whose only task is already complete when this method returns
      */
-    Future<AnalysisResult> submitTotalResultCalculationTask(List<FileStats> fileStatsList, LocalDateTime analysisStartTime);
+    TaskWindow<FileStats> runStreamAnalysisTask(String fileName, InputStream content,
+                                                AnalysisAccumulator accumulator,
+                                                ArchivePipeline archivePipeline);
 
     /**
-     * Waits for total result calculation to complete and returns the result.
-     * Provides detailed logging about calculation completion.
+     * Submits archive creation task to the archive thread pool.
+     * Each batch is archived by a writer thread of its own that writes the content
+     * of the pipeline while the analysis threads read the files.
      *
-     * @param calculationFuture Future object from total result calculation task
-     * @return AnalysisResult containing aggregated statistics
+     * @param archivePipeline Pipeline the analysis threads write file content into
+     * @param outputZipPath Path where the ZIP file will be created
+     * @param deleteSourceFiles Whether to delete source files after archiving
+     * @param listener Receives the archive progress after every entry
+     * @return Future object for tracking completion
      */
-    AnalysisResult waitForTotalResultCalculation(Future<AnalysisResult> calculationFuture);
+    Future<ArchiveInfo> submitArchiveTask(ArchivePipeline archivePipeline, String outputZipPath, boolean deleteSourceFiles,
+                                          AnalysisProgressListener listener);
 
     /**
-     * Waits for all file analysis tasks to complete and collects results.
+     * Waits for all file analysis tasks to complete; their results are already in the accumulator of the batch.
      * Provides detailed logging about completion status and timing.
      *
-     * @param futures List of Future objects from file analysis tasks
-     * @return List of FileStats results
+     * @param window Task window of the file analysis tasks
      */
-    List<FileStats> waitForAnalysisCompletion(List<Future<FileStats>> futures);
+    void waitForAnalysisCompletion(TaskWindow<FileStats> window);
 
     /**
      * Waits for archive task to complete and returns the result.
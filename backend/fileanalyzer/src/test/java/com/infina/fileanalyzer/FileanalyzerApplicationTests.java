@@ -3,7 +3,8 @@ package com.infina.fileanalyzer;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// The result store would otherwise create its log in the working directory
+@SpringBootTest(properties = "file.analyzer.store.enabled=false")
 class FileanalyzerApplicationTests {
 
 	@Test
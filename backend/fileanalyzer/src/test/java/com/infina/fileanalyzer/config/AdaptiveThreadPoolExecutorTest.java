@@ -0,0 +1,106 @@
+package com.infina.fileanalyzer.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveThreadPoolExecutorTest {
+
+    // Long enough that the scheduled tuner never runs during a test; the tests step it themselves
+    private static final long TUNING_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AdaptiveThreadPoolExecutor executor;
+
+    @AfterEach
+    void shutDownExecutor() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void growsWhileTasksWaitInTheQueueUpToTheMaximum() {
+        executor = create(2, 8);
+        submitBlockedTasks(20);
+        assertEquals(2, executor.getCorePoolSize());
+
+        executor.tune();
+        assertEquals(3, executor.getCorePoolSize());
+
+        for (int step = 0; step < 20; step++) {
+            executor.tune();
+        }
+        assertEquals(8, executor.getCorePoolSize());
+        assertEquals(8, executor.getMaximumPoolSize());
+    }
+
+    @Test
+    void shrinksToTheMinimumOnceThreadsSitIdle() throws Exception {
+        executor = create(2, 8);
+        submitBlockedTasks(20);
+        for (int step = 0; step < 20; step++) {
+            executor.tune();
+        }
+        assertEquals(8, executor.getCorePoolSize());
+
+        release.countDown();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+                Thread.sleep(10);
+            }
+        });
+        for (int step = 0; step < 20; step++) {
+            executor.tune();
+        }
+
+        assertEquals(2, executor.getCorePoolSize());
+        assertEquals(2, executor.getMaximumPoolSize());
+    }
+
+    @Test
+    void fullPoolRunsNewTasksOnTheSubmittingThread() throws Exception {
+        executor = AdaptiveThreadPoolExecutor.create(1, 1, 1, 50, TUNING_INTERVAL_MILLIS,
+                Executors.defaultThreadFactory());
+        submitBlockedTasks(2);    // One running, one queued
+
+        Future<Thread> overflow = executor.submit(Thread::currentThread);
+
+        assertSame(Thread.currentThread(), overflow.get());
+    }
+
+    @Test
+    void invalidSettingsAreRejectedBeforeAnyThreadStarts() {
+        assertThrows(IllegalArgumentException.class, () -> create(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> create(4, 2));
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveThreadPoolExecutor.create(1, 2, 0, 50,
+                TUNING_INTERVAL_MILLIS, Executors.defaultThreadFactory()));
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveThreadPoolExecutor.create(1, 2, 10, 50, 0,
+                Executors.defaultThreadFactory()));
+    }
+
+    private static AdaptiveThreadPoolExecutor create(int minThreads, int maxThreads) {
+        return AdaptiveThreadPoolExecutor.create(minThreads, maxThreads, 100, 1, TUNING_INTERVAL_MILLIS,
+                Executors.defaultThreadFactory());
+    }
+
+    private void submitBlockedTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.infina.fileanalyzer.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadPoolConfigTest {
+
+    private final ThreadPoolConfig config = new ThreadPoolConfig();
+    private ExecutorService executor;
+
+    @AfterEach
+    void shutDownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void virtualModeRunsEachTaskOnANamedVirtualThread() throws Exception {
+        executor = fileAnalysisExecutor(ExecutorMode.VIRTUAL);
+
+        Future<Thread> first = executor.submit(Thread::currentThread);
+        Future<Thread> second = executor.submit(Thread::currentThread);
+
+        assertTrue(first.get().isVirtual());
+        assertTrue(first.get().getName().startsWith("FileAnalysis-virtual-"), first.get().getName());
+        assertNotSame(first.get(), second.get());
+    }
+
+    @Test
+    void virtualModeDoesNotLimitTheNumberOfBlockedTasks() throws Exception {
+        executor = fileAnalysisExecutor(ExecutorMode.VIRTUAL);
+        int taskCount = 1000;
+        CountDownLatch allStarted = new CountDownLatch(taskCount);
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < taskCount; i++) {
+            executor.submit(() -> {
+                allStarted.countDown();
+                release.await();
+                return null;
+            });
+        }
+
+        // A fixed pool would leave all but its threads queued behind the blocked ones
+        assertTrue(allStarted.await(10, TimeUnit.SECONDS), "blocked tasks did not all start");
+        release.countDown();
+    }
+
+    @Test
+    void platformModeRunsOnNamedPlatformThreads() throws Exception {
+        executor = fileAnalysisExecutor(ExecutorMode.PLATFORM);
+
+        Thread thread = executor.submit(Thread::currentThread).get();
+
+        assertFalse(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("FileAnalysis-"), thread.getName());
+    }
+
+    private ExecutorService fileAnalysisExecutor(ExecutorMode mode) {
+        return config.fileAnalysisExecutor(mode, 2, 4, 100, 50, 1000);
+    }
+}
@@ -0,0 +1,160 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisResultCacheTest {
+
+    private static final int SIZE = 32 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final DirectBufferPool bufferPool = new DirectBufferPool(8192, 4);
+    private final AtomicInteger analyses = new AtomicInteger();
+
+    @Test
+    void unchangedFileIsNotCountedAgainButStillReachesTheSink() throws IOException {
+        AnalysisResultCache cache = new AnalysisResultCache(16, bufferPool);
+        byte[] content = content('a');
+        Path file = write("a.txt", content);
+
+        assertEquals(content.length, analyze(cache, file, new Collector()).getByteCount());
+        Collector sink = new Collector();
+        assertEquals(content.length, analyze(cache, file, sink).getByteCount());
+        assertEquals(content.length, analyze(cache, file, null).getByteCount());
+
+        assertEquals(1, analyses.get());
+        assertArrayEquals(content, sink.bytes());
+        AnalysisResultCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.versionHits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void copyOfAFileIsRecognizedByItsContent() throws IOException {
+        AnalysisResultCache cache = new AnalysisResultCache(16, bufferPool);
+        byte[] content = content('a');
+        analyze(cache, write("a.txt", content), null);
+
+        Collector sink = new Collector();
+        analyze(cache, write("copy.txt", content), sink);
+
+        assertEquals(1, analyses.get());
+        assertArrayEquals(content, sink.bytes());
+        assertEquals(1, cache.getStats().contentHits());
+    }
+
+    @Test
+    void fileWithTheSameSampleButDifferentContentIsCounted() throws IOException {
+        AnalysisResultCache cache = new AnalysisResultCache(16, bufferPool);
+        byte[] content = content('a');
+        analyze(cache, write("a.txt", content), null);
+
+        // Same size, head and tail; only the middle differs
+        byte[] changed = content.clone();
+        changed[SIZE / 2] = 'x';
+        Collector sink = new Collector();
+        analyze(cache, write("b.txt", changed), sink);
+
+        assertEquals(2, analyses.get());
+        assertArrayEquals(changed, sink.bytes());
+        AnalysisResultCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.sampleCollisions());
+        assertEquals(2, stats.misses());
+        assertEquals(0, stats.contentHits());
+    }
+
+    @Test
+    void modifiedFileIsCountedAgain() throws IOException {
+        AnalysisResultCache cache = new AnalysisResultCache(16, bufferPool);
+        Path file = write("a.txt", content('a'));
+        analyze(cache, file, null);
+
+        Files.write(file, content('b'));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        analyze(cache, file, null);
+
+        assertEquals(2, analyses.get());
+        assertEquals(0, cache.getStats().versionHits());
+    }
+
+    @Test
+    void contentIsIdentifiedBySha256AndOtherHashesAreNotRestored() throws IOException {
+        Path file = write("a.txt", content('a'));
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        AnalysisResultCache cache = new AnalysisResultCache(16, bufferPool);
+        analyze(cache, file, null);
+        String hash = cache.findContentHash(file, SIZE, modified);
+        assertEquals(ContentDigest.hash(content('a'), 0, SIZE), hash);
+
+        // A CRC32C identity, as written by older versions, could be shared by different contents
+        AnalysisResultCache restored = new AnalysisResultCache(16, bufferPool);
+        restored.restore(new AnalysisResultCache.Entry("crc32c:" + SIZE + ":0a1b2c3d", "sample",
+                file.toAbsolutePath().normalize(), SIZE, modified, new TextCounts(1, SIZE, SIZE)));
+        assertNull(restored.findContentHash(file, SIZE, modified));
+        assertEquals(0, restored.getStats().entries());
+    }
+
+    @Test
+    void leastRecentlyUsedContentIsEvicted() throws IOException {
+        AnalysisResultCache cache = new AnalysisResultCache(1, bufferPool);
+        Path first = write("a.txt", content('a'));
+        analyze(cache, first, null);
+        analyze(cache, write("b.txt", content('b')), null);
+        analyze(cache, first, null);
+
+        assertEquals(3, analyses.get());
+        assertEquals(2, cache.getStats().evictions());
+        assertEquals(1, cache.getStats().entries());
+    }
+
+    private TextCounts analyze(AnalysisResultCache cache, Path file, ContentSink sink) throws IOException {
+        return cache.analyze(file, Files.size(file), sink, analysisSink -> {
+            analyses.incrementAndGet();
+            byte[] content = Files.readAllBytes(file);
+            if (analysisSink != null) {
+                analysisSink.write(ByteBuffer.wrap(content));
+            }
+            return new TextCounts(1, content.length, content.length);
+        });
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(directory.resolve(name), content);
+    }
+
+    private static byte[] content(char fill) {
+        byte[] content = new byte[SIZE];
+        Arrays.fill(content, (byte) fill);
+        return content;
+    }
+
+    private static final class Collector implements ContentSink {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        @Override
+        public void write(ByteBuffer data) {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+}
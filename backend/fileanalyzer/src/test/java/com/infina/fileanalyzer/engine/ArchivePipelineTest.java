@@ -0,0 +1,120 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivePipelineTest {
+
+    @Test
+    void writerReceivesEntriesInOpeningOrderWhileReadersAreBlocked() throws Exception {
+        ArchivePipeline pipeline = new ArchivePipeline(4, 2);
+        ArchivePipeline.Entry first = pipeline.openEntry("a.txt", null, -1);
+        ArchivePipeline.Entry second = pipeline.openEntry("b.txt", null, -1);
+        pipeline.finish();
+
+        // Each reader writes more than its queue holds, so it only finishes while the writer drains it
+        Thread firstReader = reader(first, "first entry content");
+        Thread secondReader = reader(second, "second entry content");
+
+        assertEquals(new Drained("a.txt", "first entry content"), drain(pipeline.nextEntry()));
+        assertEquals(new Drained("b.txt", "second entry content"), drain(pipeline.nextEntry()));
+        assertNull(pipeline.nextEntry());
+        assertNull(pipeline.nextEntry());
+        firstReader.join();
+        secondReader.join();
+    }
+
+    @Test
+    void failureUnblocksReadersAndStopsTheWriter() {
+        ArchivePipeline pipeline = new ArchivePipeline(4, 1);
+        ArchivePipeline.Entry entry = pipeline.openEntry("a.txt", null, -1);
+        pipeline.fail(new IllegalStateException("analysis failed"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            entry.write(ByteBuffer.wrap("content that would not fit the queue".getBytes(StandardCharsets.UTF_8)));
+            assertThrows(IOException.class, pipeline::nextEntry);
+        });
+    }
+
+    @Test
+    void failureAfterFinishStopsAWriterWaitingForTheNextEntry() throws Exception {
+        ArchivePipeline pipeline = new ArchivePipeline(4, 1);
+        ArchivePipeline.Entry entry = pipeline.openEntry("a.txt", null, -1);
+        Thread entryReader = reader(entry, "complete content");
+        assertEquals(new Drained("a.txt", "complete content"), drain(pipeline.nextEntry()));
+        entryReader.join();
+
+        // The analysis side fails, then still finishes the pipeline from its finally block
+        pipeline.fail(new IllegalStateException("analysis failed"));
+        pipeline.finish();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(IOException.class, pipeline::nextEntry));
+    }
+
+    @Test
+    void awaitCommitReturnsOnceTheAnalysisCommits() throws Exception {
+        ArchivePipeline pipeline = new ArchivePipeline(4, 1);
+        Thread committer = new Thread(pipeline::commit);
+        committer.start();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertNull(pipeline.nextEntry());
+            pipeline.awaitCommit();
+        });
+        committer.join();
+    }
+
+    @Test
+    void awaitCommitFailsWhenTheAnalysisFails() {
+        ArchivePipeline pipeline = new ArchivePipeline(4, 1);
+        pipeline.finish();
+        Thread failer = new Thread(() -> pipeline.fail(new IllegalStateException("analysis failed")));
+        failer.start();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IOException.class, () -> {
+                assertNull(pipeline.nextEntry());
+                pipeline.awaitCommit();
+            });
+        });
+    }
+
+    @Test
+    void openingAnEntryAfterFinishIsRejected() {
+        ArchivePipeline pipeline = new ArchivePipeline(4, 1);
+        pipeline.finish();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.openEntry("late.txt", null, 1));
+    }
+
+    private static Thread reader(ArchivePipeline.Entry entry, String content) {
+        Thread thread = new Thread(() -> {
+            try {
+                entry.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+                entry.complete();
+            } catch (IOException e) {
+                entry.abort(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static Drained drain(ArchivePipeline.Entry entry) throws IOException, InterruptedException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] chunk = entry.nextChunk(); chunk != null; chunk = entry.nextChunk()) {
+            content.write(chunk);
+        }
+        return new Drained(entry.getName(), content.toString(StandardCharsets.UTF_8));
+    }
+
+    private record Drained(String name, String content) {
+    }
+}
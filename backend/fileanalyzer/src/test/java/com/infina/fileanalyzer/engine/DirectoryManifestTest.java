@@ -0,0 +1,119 @@
+package com.infina.fileanalyzer.engine;
+
+import com.infina.fileanalyzer.entity.FileStats;
+import com.infina.fileanalyzer.entity.ManifestEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryManifestTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void firstScanReportsEveryFileAsChanged() throws IOException {
+        Path a = write("a.txt", "one\n");
+        Path b = write("sub/b.txt", "two\n");
+
+        DirectoryManifest.Changes changes = new DirectoryManifest().diff(directory, List.of(a, b));
+
+        assertEquals(List.of("a.txt", "sub/b.txt"), changes.changed().stream().map(DirectoryManifest.FileState::name).toList());
+        assertTrue(changes.unchanged().isEmpty());
+        assertTrue(changes.removed().isEmpty());
+        assertEquals(List.of(a, b), changes.changedFiles());
+    }
+
+    @Test
+    void rescanFindsUnchangedChangedAndRemovedFiles() throws IOException {
+        Path kept = write("kept.txt", "kept\n");
+        Path edited = write("edited.txt", "before\n");
+        Path deleted = write("deleted.txt", "deleted\n");
+        DirectoryManifest manifest = new DirectoryManifest();
+        DirectoryManifest.Changes first = manifest.diff(directory, List.of(kept, edited, deleted));
+        manifest.apply(first, List.of(stats("kept.txt"), stats("edited.txt"), stats("deleted.txt")), state -> "hash");
+
+        Files.writeString(edited, "after, longer\n");
+        Files.delete(deleted);
+        Path added = write("added.txt", "added\n");
+        DirectoryManifest.Changes second = manifest.diff(directory, List.of(kept, edited, added));
+
+        assertEquals(List.of("kept.txt"), second.unchanged().stream().map(ManifestEntry::getFileName).toList());
+        assertEquals(List.of("edited.txt", "added.txt"), second.changed().stream().map(DirectoryManifest.FileState::name).toList());
+        assertEquals(List.of("deleted.txt"), second.removed());
+        assertFalse(second.isEmpty());
+
+        manifest.apply(second, List.of(stats("edited.txt"), stats("added.txt")), state -> null);
+        assertEquals(List.of("added.txt", "edited.txt", "kept.txt"),
+                manifest.getFileStats().stream().map(FileStats::getFileName).toList());
+        assertTrue(manifest.diff(directory, List.of(kept, edited, added)).isEmpty());
+    }
+
+    @Test
+    void sameSizeWithANewModificationTimeIsAChange() throws IOException {
+        Path file = write("a.txt", "aaaa\n");
+        DirectoryManifest manifest = new DirectoryManifest();
+        manifest.apply(manifest.diff(directory, List.of(file)), List.of(stats("a.txt")), state -> null);
+
+        Files.writeString(file, "bbbb\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+        assertEquals(1, manifest.diff(directory, List.of(file)).changed().size());
+    }
+
+    @Test
+    void failedFilesAreLeftOutSoTheyAreAnalyzedAgain() throws IOException {
+        Path good = write("good.txt", "good\n");
+        Path bad = write("bad.txt", "bad\n");
+        FileStats failed = new FileStats();
+        failed.setFileName("bad.txt");
+        DirectoryManifest manifest = new DirectoryManifest();
+
+        manifest.apply(manifest.diff(directory, List.of(good, bad)), List.of(stats("good.txt"), failed), state -> null);
+
+        assertEquals(List.of("good.txt"), manifest.getEntries().stream().map(ManifestEntry::getFileName).toList());
+        assertEquals(List.of("bad.txt"), manifest.diff(directory, List.of(good, bad)).changed().stream()
+                .map(DirectoryManifest.FileState::name).toList());
+    }
+
+    @Test
+    void emptyDirectoryRemovesEveryEntry() throws IOException {
+        Path file = write("a.txt", "a\n");
+        DirectoryManifest manifest = new DirectoryManifest();
+        manifest.apply(manifest.diff(directory, List.of(file)), List.of(stats("a.txt")), state -> "hash");
+        Files.delete(file);
+
+        DirectoryManifest.Changes changes = manifest.diff(directory, List.of());
+        assertEquals(List.of("a.txt"), changes.removed());
+        manifest.apply(changes, List.of(), state -> null);
+
+        assertTrue(manifest.getEntries().isEmpty());
+    }
+
+    @Test
+    void savedEntriesWithoutResultsAreIgnored() {
+        ManifestEntry complete = new ManifestEntry("a.txt", 2, 1000, "hash", stats("a.txt"));
+        ManifestEntry withoutStats = new ManifestEntry("b.txt", 2, 1000, null, null);
+
+        DirectoryManifest manifest = new DirectoryManifest(List.of(complete, withoutStats));
+
+        assertEquals(List.of(complete), manifest.getEntries());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static FileStats stats(String fileName) {
+        return new FileStats(fileName, 1, 4);
+    }
+}
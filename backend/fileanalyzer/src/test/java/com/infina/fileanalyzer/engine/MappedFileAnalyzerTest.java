@@ -0,0 +1,97 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileAnalyzerTest {
+
+    private static final String TEXT = "first line\r\nsecond ç€ line\rthird 😀\n\nlast line without terminator";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsMatchASinglePassForEveryWindowSize() throws Exception {
+        byte[] data = TEXT.getBytes(StandardCharsets.UTF_8);
+        Path file = write("windows.txt", data);
+        TextCounts expected = singlePass(data);
+
+        // Small windows split "\r\n" pairs and multi-byte sequences at every position
+        for (int windowSize = 1; windowSize <= data.length + 1; windowSize++) {
+            TextCounts actual = new MappedFileAnalyzer(windowSize, null).analyze(file);
+            assertEquals(expected.toString(), actual.toString(), "window size " + windowSize);
+        }
+    }
+
+    @Test
+    void emptyFileHasNoLines() throws Exception {
+        Path file = write("empty.txt", new byte[0]);
+
+        TextCounts counts = new MappedFileAnalyzer(16, null).analyze(file);
+
+        assertEquals(0, counts.getLineCount());
+        assertEquals(0, counts.getByteCount());
+    }
+
+    @Test
+    void sinkReceivesTheWholeFileEvenIfItIsMalformed() throws Exception {
+        byte[] data = "valid start ç then".getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = new byte[data.length + 5];
+        System.arraycopy(data, 0, malformed, 0, data.length);
+        malformed[data.length] = (byte) 0xFF;
+        System.arraycopy("tail".getBytes(StandardCharsets.UTF_8), 0, malformed, data.length + 1, 4);
+        Path file = write("malformed.txt", malformed);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        assertThrows(MalformedInputException.class, () -> new MappedFileAnalyzer(7, null).analyze(file, buffer -> {
+            byte[] copy = new byte[buffer.remaining()];
+            buffer.get(copy);
+            received.write(copy);
+        }));
+        assertArrayEquals(malformed, received.toByteArray());
+    }
+
+    @Test
+    void fileCanBeDeletedRightAfterTheAnalysis() throws Exception {
+        Path file = write("delete.txt", TEXT.repeat(100).getBytes(StandardCharsets.UTF_8));
+
+        new MappedFileAnalyzer(1024, null).analyze(file);
+
+        Files.delete(file);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void faultWhileReadingAWindowIsReportedAsIOException() throws Exception {
+        Path file = write("fault.txt", TEXT.getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            IOException failure = assertThrows(IOException.class, () -> MappedWindows.withWindow(channel, 0, 4,
+                    window -> {
+                        throw new InternalError("a fault occurred in an unsafe memory access operation");
+                    }));
+            assertInstanceOf(InternalError.class, failure.getCause());
+        }
+    }
+
+    private Path write(String name, byte[] data) throws IOException {
+        return Files.write(tempDir.resolve(name), data);
+    }
+
+    private static TextCounts singlePass(byte[] data) throws MalformedInputException {
+        Utf8TextCounter counter = new Utf8TextCounter();
+        counter.update(data, 0, data.length);
+        return counter.finish();
+    }
+}
@@ -0,0 +1,97 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFileAnalyzerTest {
+
+    // "\r\n" pairs, lone terminators and 2-, 3- and 4-byte sequences at varying offsets
+    private static final String TEXT = "a\r\nb\rc\n\r\nçç\r\n€x😀\r\n😀😀\n\n€€€ tail ğüş";
+
+    @TempDir
+    Path tempDir;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void countsMatchASinglePassForEveryChunkSize() throws Exception {
+        byte[] data = TEXT.getBytes(StandardCharsets.UTF_8);
+        Path file = write("chunks.txt", data);
+        TextCounts expected = singlePass(data);
+
+        // Chunk boundaries fall inside "\r\n" pairs and inside multi-byte sequences
+        for (int chunkSize = 4; chunkSize <= data.length + 1; chunkSize++) {
+            TextCounts actual = new ParallelFileAnalyzer(pool, chunkSize, null).analyze(file);
+            assertEquals(expected.toString(), actual.toString(), "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void boundaryInsideAFourByteSequenceMovesToTheNextCharacter() throws Exception {
+        // Every chunk boundary of size 5 lands on a continuation byte of an emoji
+        byte[] data = "x😀😀😀😀😀😀".getBytes(StandardCharsets.UTF_8);
+        Path file = write("emoji.txt", data);
+
+        TextCounts counts = new ParallelFileAnalyzer(pool, 5, null).analyze(file);
+
+        assertEquals(singlePass(data).toString(), counts.toString());
+        assertEquals(13, counts.getCharacterCount());
+        assertEquals(1, counts.getLineCount());
+    }
+
+    @Test
+    void sinkReceivesTheChunksInFileOrder() throws Exception {
+        byte[] data = TEXT.repeat(50).getBytes(StandardCharsets.UTF_8);
+        Path file = write("ordered.txt", data);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        TextCounts counts = new ParallelFileAnalyzer(pool, 64, null).analyze(file, buffer -> {
+            byte[] copy = new byte[buffer.remaining()];
+            buffer.get(copy);
+            received.write(copy);
+        });
+
+        assertArrayEquals(data, received.toByteArray());
+        assertEquals(singlePass(data).toString(), counts.toString());
+    }
+
+    @Test
+    void malformedChunkFailsTheFile() throws Exception {
+        byte[] data = TEXT.repeat(10).getBytes(StandardCharsets.UTF_8);
+        data[data.length / 2] = (byte) 0xFF;
+        Path file = write("malformed.txt", data);
+
+        assertThrows(MalformedInputException.class, () -> new ParallelFileAnalyzer(pool, 16, null).analyze(file));
+    }
+
+    @Test
+    void chunkSizeMustHoldALongestSequence() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelFileAnalyzer(pool, 3, null));
+    }
+
+    private Path write(String name, byte[] data) throws IOException {
+        return Files.write(tempDir.resolve(name), data);
+    }
+
+    private static TextCounts singlePass(byte[] data) throws MalformedInputException {
+        Utf8TextCounter counter = new Utf8TextCounter();
+        counter.update(data, 0, data.length);
+        return counter.finish();
+    }
+}
@@ -0,0 +1,113 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelZipExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void entriesLeavingTheDestinationAreSkipped() throws Exception {
+        Path zip = zip("unsafe.zip",
+                "../escape.txt", "outside",
+                "nested/../../escape2.txt", "outside",
+                "safe/inner.txt", "inside");
+        Path destination = tempDir.resolve("out");
+
+        ParallelZipExtractor.Result result = extractor().extract(zip, destination, name -> true, false);
+
+        assertEquals(List.of("../escape.txt", "nested/../../escape2.txt"), result.unsafeEntries());
+        assertEquals(List.of(destination.toAbsolutePath().normalize().resolve("safe/inner.txt")),
+                result.extractedFiles());
+        assertFalse(Files.exists(tempDir.resolve("escape.txt")));
+        assertFalse(Files.exists(tempDir.resolve("escape2.txt")));
+        assertEquals("inside", Files.readString(destination.resolve("safe/inner.txt")));
+    }
+
+    @Test
+    void flattenedDuplicatesKeepTheLastEntry() throws Exception {
+        Path zip = zip("duplicates.zip",
+                "first/same.txt", "first content that is longer",
+                "second/same.txt", "second",
+                "other.txt", "other");
+        Path destination = tempDir.resolve("out");
+
+        ParallelZipExtractor.Result result = extractor().extract(zip, destination, name -> true, true);
+
+        assertEquals(2, result.extractedFiles().size());
+        assertEquals("second", Files.readString(destination.resolve("same.txt")));
+        assertEquals("other", Files.readString(destination.resolve("other.txt")));
+        assertFalse(Files.exists(destination.resolve("first")));
+    }
+
+    @Test
+    void filteredEntriesAreCountedAndNotWritten() throws Exception {
+        Path zip = zip("filtered.zip",
+                "a.txt", "a",
+                "b.log", "b",
+                "dir/c.csv", "c",
+                "dir/d.txt", "d");
+        Path destination = tempDir.resolve("out");
+
+        ParallelZipExtractor.Result result = extractor().extract(zip, destination,
+                name -> name.endsWith(".txt"), false);
+
+        assertEquals(2, result.filteredEntries());
+        assertEquals(2, result.extractedFiles().size());
+        assertTrue(result.unsafeEntries().isEmpty());
+        assertFalse(Files.exists(destination.resolve("b.log")));
+        assertFalse(Files.exists(destination.resolve("dir/c.csv")));
+        assertEquals("d", Files.readString(destination.resolve("dir/d.txt")));
+    }
+
+    @Test
+    void relativeNamesAreNormalizedAndEscapingNamesRejected() {
+        assertEquals("logs/2024/app.txt", ParallelZipExtractor.relativeNameOf("logs\\2024/./app.txt"));
+        assertEquals("app.txt", ParallelZipExtractor.relativeNameOf("logs/../app.txt"));
+        assertNull(ParallelZipExtractor.relativeNameOf("../app.txt"));
+        assertNull(ParallelZipExtractor.relativeNameOf("logs/../../app.txt"));
+        assertNull(ParallelZipExtractor.relativeNameOf("/etc/app.txt"));
+        assertNull(ParallelZipExtractor.relativeNameOf("logs/"));
+    }
+
+    private ParallelZipExtractor extractor() {
+        return new ParallelZipExtractor(pool, 8);
+    }
+
+    // Arguments alternate between entry names and their content
+    private Path zip(String name, String... entries) throws IOException {
+        Path zip = tempDir.resolve(name);
+        try (OutputStream file = Files.newOutputStream(zip);
+             ZipOutputStream output = new ZipOutputStream(file)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                output.putNextEntry(new ZipEntry(entries[i]));
+                output.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+        }
+        return zip;
+    }
+}
@@ -0,0 +1,152 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultLogTest {
+
+    private static final byte TYPE = 1;
+    // Length, type and checksum around every payload
+    private static final int OVERHEAD = 9;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadBackAfterReopening() throws IOException {
+        Path file = directory.resolve("results.log");
+        long second;
+        try (ResultLog log = new ResultLog(file)) {
+            log.scan((offset, type, payload) -> fail("new log is empty"));
+            log.append(TYPE, bytes("first"));
+            second = log.append((byte) 2, bytes("second"));
+        }
+
+        try (ResultLog log = new ResultLog(file)) {
+            List<String> records = new ArrayList<>();
+            ResultLog.ScanResult scan = log.scan((offset, type, payload) -> records.add(type + ":" + string(payload)));
+
+            assertEquals(List.of("1:first", "2:second"), records);
+            assertEquals(2, scan.records());
+            assertEquals(0, scan.discardedBytes());
+            assertEquals("second", new String(log.read(second, (byte) 2), StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> log.read(second, TYPE));
+        }
+    }
+
+    @Test
+    void tornRecordAtTheEndIsCutOffAndOverwritten() throws IOException {
+        Path file = directory.resolve("results.log");
+        try (ResultLog log = new ResultLog(file)) {
+            log.scan((offset, type, payload) -> { });
+            log.append(TYPE, bytes("complete"));
+            log.append(TYPE, bytes("torn record"));
+        }
+        long completeSize = OVERHEAD + "complete".length();
+        truncate(file, completeSize + 7);
+
+        try (ResultLog log = new ResultLog(file)) {
+            ResultLog.ScanResult scan = log.scan((offset, type, payload) -> { });
+            assertEquals(1, scan.records());
+            assertEquals(7, scan.discardedBytes());
+            assertEquals(completeSize, scan.discardedAt());
+            assertEquals(completeSize, Files.size(file));
+            assertEquals(completeSize, log.append(TYPE, bytes("next")));
+        }
+
+        try (ResultLog log = new ResultLog(file)) {
+            List<String> records = new ArrayList<>();
+            log.scan((offset, type, payload) -> records.add(string(payload)));
+            assertEquals(List.of("complete", "next"), records);
+        }
+    }
+
+    @Test
+    void damagedRecordCutsOffTheRestOfTheLog() throws IOException {
+        Path file = directory.resolve("results.log");
+        long damaged;
+        try (ResultLog log = new ResultLog(file)) {
+            log.scan((offset, type, payload) -> { });
+            log.append(TYPE, bytes("first"));
+            damaged = log.append(TYPE, bytes("second"));
+            log.append(TYPE, bytes("third"));
+        }
+        long size = Files.size(file);
+        // Flip a payload byte, so the checksum no longer matches
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("X")), damaged + 5);
+        }
+
+        try (ResultLog log = new ResultLog(file)) {
+            List<String> records = new ArrayList<>();
+            ResultLog.ScanResult scan = log.scan((offset, type, payload) -> records.add(string(payload)));
+
+            assertEquals(List.of("first"), records);
+            assertEquals(damaged, scan.discardedAt());
+            assertEquals(size - damaged, scan.discardedBytes());
+            assertEquals(damaged, log.size());
+        }
+    }
+
+    @Test
+    void compactionKeepsTheSelectedRecordsAtTheirNewOffsets() throws IOException {
+        Path file = directory.resolve("results.log");
+        try (ResultLog log = new ResultLog(file)) {
+            log.scan((offset, type, payload) -> { });
+            log.append(TYPE, bytes("first"));
+            log.append(TYPE, bytes("dropped"));
+            long third = log.append((byte) 2, bytes("third"));
+
+            Map<Long, Long> offsets = log.compact((offset, type, payload) -> !string(payload).equals("dropped"));
+
+            long movedThird = offsets.get(third);
+            assertEquals(Map.of(0L, 0L, third, movedThird), offsets);
+            assertEquals(OVERHEAD + "first".length(), movedThird);
+            assertEquals("third", new String(log.read(movedThird, (byte) 2), StandardCharsets.UTF_8));
+            // Appends continue right after the last kept record
+            assertEquals(movedThird + OVERHEAD + "third".length(), log.append(TYPE, bytes("next")));
+        }
+
+        try (ResultLog log = new ResultLog(file)) {
+            List<String> records = new ArrayList<>();
+            ResultLog.ScanResult scan = log.scan((offset, type, payload) -> records.add(string(payload)));
+            assertEquals(List.of("first", "third", "next"), records);
+            assertEquals(0, scan.discardedBytes());
+        }
+        assertFalse(Files.exists(directory.resolve("results.log.compact")));
+    }
+
+    @Test
+    void appendRequiresAScan() throws IOException {
+        try (ResultLog log = new ResultLog(directory.resolve("store").resolve("results.log"))) {
+            assertThrows(IllegalStateException.class, () -> log.append(TYPE, bytes("record")));
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+    }
+}
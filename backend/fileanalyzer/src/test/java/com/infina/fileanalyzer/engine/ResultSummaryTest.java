@@ -0,0 +1,106 @@
+package com.infina.fileanalyzer.engine;
+
+import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.entity.FileStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSummaryTest {
+
+    @Test
+    void keepsTheSlowestAndLargestFilesInDescendingOrder() {
+        List<FileStats> rows = new ArrayList<>();
+        ResultSummary summary = new ResultSummary(3, rows::add);
+        for (int i = 0; i < 10; i++) {
+            // Processing time rises with i, size falls with it
+            summary.add(stats("file" + i, i * 100L, 1000 - i));
+        }
+
+        assertEquals(List.of("file9", "file8", "file7"), names(summary.getSlowestFiles()));
+        assertEquals(List.of("file0", "file1", "file2"), names(summary.getLargestFiles()));
+        assertEquals(10, rows.size());
+    }
+
+    @Test
+    void failedFilesAreSpilledButNotRanked() {
+        List<FileStats> rows = new ArrayList<>();
+        ResultSummary summary = new ResultSummary(2, rows::add);
+        FileStats failed = new FileStats();
+        failed.setFileName("failed.txt");
+        failed.setProcessingTimeNanos(Long.MAX_VALUE);
+
+        summary.add(failed);
+        summary.add(stats("ok.txt", 1, 1));
+
+        assertEquals(List.of("failed.txt", "ok.txt"), names(rows));
+        assertEquals(List.of("ok.txt"), names(summary.getSlowestFiles()));
+    }
+
+    @Test
+    void zeroTopFilesOnlySpills() {
+        List<FileStats> rows = new ArrayList<>();
+        ResultSummary summary = new ResultSummary(0, rows::add);
+        summary.add(stats("a.txt", 1, 1));
+
+        assertTrue(summary.getSlowestFiles().isEmpty());
+        assertTrue(summary.getLargestFiles().isEmpty());
+        assertEquals(1, rows.size());
+        assertThrows(IllegalArgumentException.class, () -> new ResultSummary(-1, row -> { }));
+    }
+
+    @Test
+    void concurrentAddsKeepTheTrueTopFiles() throws InterruptedException {
+        List<FileStats> rows = Collections.synchronizedList(new ArrayList<>());
+        ResultSummary summary = new ResultSummary(5, rows::add);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            long value = i;
+            executor.execute(() -> summary.add(stats("file" + value, value, value)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_000, rows.size());
+        List<String> top = List.of("file9999", "file9998", "file9997", "file9996", "file9995");
+        assertEquals(top, names(summary.getSlowestFiles()));
+        assertEquals(top, names(summary.getLargestFiles()));
+    }
+
+    @Test
+    void summarizingAccumulatorReturnsTopFilesInsteadOfTheFileList() {
+        List<FileStats> rows = new ArrayList<>();
+        AnalysisAccumulator accumulator = new AnalysisAccumulator(LocalDateTime.now(), AnalysisProgressListener.NONE,
+                new ResultSummary(1, rows::add));
+        accumulator.add(stats("small.txt", 5, 10));
+        accumulator.add(stats("large.txt", 1, 90));
+
+        AnalysisResult result = accumulator.toResult();
+
+        assertEquals(ResultMode.SUMMARY, result.getResultMode());
+        assertEquals(2, result.getTotalProcessedFiles());
+        assertEquals(100, result.getTotalByteCount());
+        assertEquals(List.of("small.txt"), names(result.getSlowestFiles()));
+        assertEquals(List.of("large.txt"), names(result.getLargestFiles()));
+        assertEquals(2, rows.size());
+    }
+
+    private static FileStats stats(String fileName, long processingTimeNanos, long byteCount) {
+        FileStats stats = new FileStats(fileName, 1, byteCount);
+        stats.setProcessingTimeNanos(processingTimeNanos);
+        stats.setByteCount(byteCount);
+        return stats;
+    }
+
+    private static List<String> names(List<FileStats> files) {
+        return files.stream().map(FileStats::getFileName).toList();
+    }
+}
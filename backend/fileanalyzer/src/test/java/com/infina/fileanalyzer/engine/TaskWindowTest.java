@@ -0,0 +1,184 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskWindowTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void passesEveryResultToTheSink() throws Exception {
+        Queue<Integer> results = new ConcurrentLinkedQueue<>();
+        TaskWindow<Integer> window = new TaskWindow<>(executor, 2, BackpressureMode.BLOCK, results::add);
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            assertTrue(window.submit(() -> value));
+        }
+
+        window.awaitCompletion();
+
+        assertEquals(100, results.size());
+        assertEquals(4950, results.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(100, window.getCompletedCount());
+    }
+
+    @Test
+    void failingSinkFailsTheWindow() throws Exception {
+        IllegalStateException failure = new IllegalStateException("sink failed");
+        TaskWindow<Integer> window = new TaskWindow<>(executor, 2, BackpressureMode.BLOCK, result -> {
+            throw failure;
+        });
+        window.submit(() -> 1);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, window::awaitCompletion);
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    void blockingWindowKeepsAtMostMaxInFlightTasks() throws Exception {
+        TaskWindow<Integer> window = new TaskWindow<>(executor, 2, BackpressureMode.BLOCK);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        for (int i = 0; i < 50; i++) {
+            window.submit(() -> {
+                maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(1);
+                inFlight.decrementAndGet();
+                return 0;
+            });
+        }
+        window.awaitCompletion();
+
+        assertTrue(maxSeen.get() <= 2, "at most 2 tasks in flight, saw " + maxSeen.get());
+        assertEquals(0, window.getCallerRunCount());
+    }
+
+    @Test
+    void callerRunsTheTaskWhenTheWindowIsFull() throws Exception {
+        Queue<String> results = new ConcurrentLinkedQueue<>();
+        TaskWindow<String> window = new TaskWindow<>(executor, 1, BackpressureMode.CALLER_RUNS, results::add);
+        CountDownLatch release = new CountDownLatch(1);
+        window.submit(() -> {
+            await(release);
+            return "pool";
+        });
+
+        window.submit(() -> Thread.currentThread().getName());
+        release.countDown();
+
+        window.awaitCompletion();
+        assertTrue(results.contains(Thread.currentThread().getName()));
+        assertEquals(1, window.getCallerRunCount());
+        assertEquals(2, window.getSubmittedCount());
+    }
+
+    @Test
+    void failureStopsSubmissionAndIsReported() throws Exception {
+        TaskWindow<Integer> window = new TaskWindow<>(executor, 4, BackpressureMode.BLOCK);
+        IllegalStateException failure = new IllegalStateException("task failed");
+        window.submit(() -> {
+            throw failure;
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, window::awaitCompletion);
+        assertSame(failure, thrown.getCause());
+        AtomicInteger runs = new AtomicInteger();
+        assertFalse(window.submit(runs::incrementAndGet));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void cancelSkipsTasksThatHaveNotStarted() throws Exception {
+        Queue<Integer> results = new ConcurrentLinkedQueue<>();
+        TaskWindow<Integer> window = new TaskWindow<>(executor, 1, BackpressureMode.CALLER_RUNS, results::add);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        window.submit(() -> {
+            started.countDown();
+            await(release);
+            return 1;
+        });
+        started.await();
+
+        window.cancel();
+        AtomicInteger runs = new AtomicInteger();
+        assertFalse(window.submit(runs::incrementAndGet));
+        release.countDown();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), window::awaitCompletion);
+        assertEquals(1, results.size());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void cancelAndAwaitReturnsOnlyAfterRunningTasksFinishedEvenAfterAFailure() throws Exception {
+        TaskWindow<Integer> window = new TaskWindow<>(executor, 4, BackpressureMode.BLOCK);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger();
+        window.submit(() -> {
+            started.countDown();
+            sleep(200);
+            finished.incrementAndGet();
+            return 1;
+        });
+        started.await();
+        window.submit(() -> {
+            throw new IllegalStateException("task failed");
+        });
+        assertThrows(ExecutionException.class, window::awaitCompletion);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), window::cancelAndAwait);
+
+        assertEquals(1, finished.get());
+        assertEquals(window.getSubmittedCount(), window.getCompletedCount());
+    }
+
+    @Test
+    void rejectedTaskIsNotCounted() throws Exception {
+        ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+        TaskWindow<Integer> window = new TaskWindow<>(stopped, 1, BackpressureMode.BLOCK);
+
+        assertThrows(RejectedExecutionException.class, () -> window.submit(() -> 1));
+
+        assertEquals(0, window.getSubmittedCount());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), window::awaitCompletion);
+        // The slot of the rejected task was given back
+        assertThrows(RejectedExecutionException.class, () -> window.submit(() -> 1));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
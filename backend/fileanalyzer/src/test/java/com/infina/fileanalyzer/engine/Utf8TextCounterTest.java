@@ -0,0 +1,158 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8TextCounterTest {
+
+    private static final String[] MALFORMED = {
+            "80",               // Lone continuation byte
+            "c080",             // Overlong encoding of NUL
+            "e08080",           // Overlong three-byte sequence
+            "eda080",           // UTF-16 surrogate
+            "f4908080",         // Beyond U+10FFFF
+            "f5808080",         // Invalid lead byte
+            "ff",               // Invalid byte
+            "c3",               // Truncated two-byte sequence at the end
+            "e282",             // Truncated three-byte sequence at the end
+            "f09f98",           // Truncated four-byte sequence at the end
+            "e228a1",           // Lead byte followed by an ASCII byte
+            "41c32842"          // Invalid sequence between valid characters
+    };
+
+    @Test
+    void countsMatchTheReferenceForWellFormedText() throws Exception {
+        for (String text : sampleTexts()) {
+            byte[] data = text.getBytes(StandardCharsets.UTF_8);
+            TextCounts expected = reference(data);
+            for (CountingKernel kernel : kernels()) {
+                assertCounts(expected, count(data, kernel, data.length), text);
+                assertCounts(expected, count(data, kernel, 1), text);
+                assertCounts(expected, count(data, kernel, 7), text);
+            }
+        }
+    }
+
+    @Test
+    void countsMatchTheReferenceForRandomTextSplitAnywhere() throws Exception {
+        Random random = new Random(7);
+        String alphabet = "ab\n\r ç€😀\t";
+        for (int round = 0; round < 50; round++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(5000);
+            for (int i = 0; i < length; i++) {
+                text.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0,
+                        random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+            }
+            byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+            TextCounts expected = reference(data);
+            for (CountingKernel kernel : kernels()) {
+                assertCounts(expected, count(data, kernel, 1 + random.nextInt(300)), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedAndTruncatedInputLikeTheStrictDecoder() {
+        for (String hex : MALFORMED) {
+            byte[] data = HexFormat.of().parseHex(hex);
+            assertThrows(CharacterCodingException.class, () -> reference(data), hex);
+            for (CountingKernel kernel : kernels()) {
+                assertThrows(MalformedInputException.class, () -> count(data, kernel, data.length), hex);
+                assertThrows(MalformedInputException.class, () -> count(data, kernel, 1), hex);
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedInputAfterLongAsciiRuns() {
+        byte[] prefix = "x".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        for (String hex : MALFORMED) {
+            byte[] tail = HexFormat.of().parseHex(hex);
+            byte[] data = new byte[prefix.length + tail.length];
+            System.arraycopy(prefix, 0, data, 0, prefix.length);
+            System.arraycopy(tail, 0, data, prefix.length, tail.length);
+            for (CountingKernel kernel : kernels()) {
+                assertThrows(MalformedInputException.class, () -> count(data, kernel, 64), hex);
+            }
+        }
+    }
+
+    @Test
+    void mergedChunkCountsEqualASinglePass() throws Exception {
+        byte[] data = "first\r\nsecond\rthird\n\nfourth ç😀".getBytes(StandardCharsets.UTF_8);
+        TextCounts expected = reference(data);
+        for (int split = 0; split <= data.length; split++) {
+            if (split < data.length && (data[split] & 0xC0) == 0x80) {
+                continue;   // Ranges start on sequence boundaries
+            }
+            Utf8TextCounter head = new Utf8TextCounter();
+            head.update(data, 0, split);
+            Utf8TextCounter tail = new Utf8TextCounter();
+            tail.update(data, split, data.length - split);
+            TextCounts merged = head.finishChunk().merge(tail.finishChunk()).toTextCounts();
+            assertCounts(expected, merged, "split at " + split);
+        }
+    }
+
+    private static List<String> sampleTexts() {
+        return List.of("", "a", "\n", "\r", "\r\n", "\n\r", "a\r\nb", "line\n", "no terminator",
+                "a\n\nb\r\rc\r\n\r\n", "ç€😀\n", "😀".repeat(100), "x".repeat(1000) + "\r" + "y".repeat(1000) + "\n");
+    }
+
+    private static List<CountingKernel> kernels() {
+        List<CountingKernel> kernels = new ArrayList<>();
+        kernels.add(null);
+        if (CountingKernels.isVectorApiAvailable() && CountingKernels.isVectorKernelIncluded()) {
+            kernels.add(CountingKernels.createVectorKernel());
+        }
+        return kernels;
+    }
+
+    private static TextCounts count(byte[] data, CountingKernel kernel, int chunkSize) throws MalformedInputException {
+        Utf8TextCounter counter = kernel != null ? new Utf8TextCounter(kernel) : new Utf8TextCounter();
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            counter.update(ByteBuffer.wrap(data, offset, Math.min(chunkSize, data.length - offset)));
+        }
+        return counter.finish();
+    }
+
+    // Strict decoder, UTF-16 length and terminators "\n", "\r" and "\r\n", plus an unterminated last line
+    private static TextCounts reference(byte[] data) throws CharacterCodingException {
+        CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(data));
+        String text = chars.toString();
+        long lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == text.length() || text.charAt(i + 1) != '\n'))) {
+                lines++;
+            }
+        }
+        char last = text.isEmpty() ? '\n' : text.charAt(text.length() - 1);
+        if (last != '\n' && last != '\r') {
+            lines++;
+        }
+        return new TextCounts(lines, text.length(), data.length);
+    }
+
+    private static void assertCounts(TextCounts expected, TextCounts actual, String input) {
+        assertEquals(expected.getLineCount(), actual.getLineCount(), "lines of " + input);
+        assertEquals(expected.getCharacterCount(), actual.getCharacterCount(), "characters of " + input);
+        assertEquals(expected.getByteCount(), actual.getByteCount(), "bytes of " + input);
+    }
+}
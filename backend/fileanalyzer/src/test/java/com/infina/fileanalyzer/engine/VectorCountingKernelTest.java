@@ -0,0 +1,130 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// The kernel is only compiled with the vector-api profile, so it is created through CountingKernels
+class VectorCountingKernelTest {
+
+    private static final String ALPHABET = "ab \t\n\r\r\nç€😀";
+
+    private CountingKernel kernel;
+
+    @BeforeEach
+    void createKernel() {
+        assumeTrue(CountingKernels.isVectorApiAvailable() && CountingKernels.isVectorKernelIncluded(),
+                "Vector API kernel not available");
+        kernel = CountingKernels.createVectorKernel();
+    }
+
+    @Test
+    void blockCountsMatchAScalarClassificationAtEveryOffsetAndLength() {
+        Random random = new Random(11);
+        byte[] data = randomText(random, 600);
+        for (int round = 0; round < 500; round++) {
+            int from = random.nextInt(data.length);
+            int to = from + random.nextInt(data.length - from + 1);
+            ByteClassCounts expected = new ByteClassCounts();
+            boolean expectedAscii = classify(data, from, to, expected);
+            ByteClassCounts actual = new ByteClassCounts();
+
+            boolean ascii = kernel.count(data, from, to, actual);
+
+            String range = "[" + from + ", " + to + ")";
+            assertEquals(expectedAscii, ascii, "ascii " + range);
+            assertEquals(expected.lineFeeds, actual.lineFeeds, "line feeds " + range);
+            assertEquals(expected.carriageReturns, actual.carriageReturns, "carriage returns " + range);
+            assertEquals(expected.crLfPairs, actual.crLfPairs, "\\r\\n pairs " + range);
+            assertEquals(expected.sequenceStarts, actual.sequenceStarts, "sequence starts " + range);
+            assertEquals(expected.fourByteStarts, actual.fourByteStarts, "4-byte starts " + range);
+        }
+    }
+
+    @Test
+    void crLfPairOnAVectorBoundaryIsCountedOnce() {
+        // Pairs at every offset, so one of them straddles each vector boundary
+        for (int offset = 0; offset < 130; offset++) {
+            byte[] data = ("x".repeat(offset) + "\r\n" + "y".repeat(70)).getBytes(StandardCharsets.UTF_8);
+            ByteClassCounts counts = new ByteClassCounts();
+
+            assertTrue(kernel.count(data, 0, data.length, counts));
+
+            assertEquals(1, counts.crLfPairs, "offset " + offset);
+        }
+    }
+
+    @Test
+    void counterResultsMatchTheScalarPathForDirectBuffers() throws Exception {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            byte[] data = randomText(random, 30_000);
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length).put(data).flip();
+            Utf8TextCounter vector = new Utf8TextCounter(kernel);
+            vector.update(direct);
+            Utf8TextCounter scalar = new Utf8TextCounter();
+            scalar.update(data, 0, data.length);
+
+            assertEquals(scalar.finish().toString(), vector.finish().toString(), "round " + round);
+        }
+    }
+
+    @Test
+    void malformedBlockIsRejectedLikeOnTheScalarPath() {
+        byte[] data = ("x".repeat(9000) + "ç").getBytes(StandardCharsets.UTF_8);
+        data[data.length - 1] = 'x';    // Lead byte followed by ASCII
+
+        Utf8TextCounter counter = new Utf8TextCounter(kernel);
+        assertThrows(MalformedInputException.class, () -> {
+            counter.update(data, 0, data.length);
+            counter.finish();
+        });
+    }
+
+    @Test
+    void selfTestPasses() {
+        assertTrue(CountingKernels.selfTest(kernel));
+    }
+
+    private static byte[] randomText(Random random, int codePoints) {
+        StringBuilder text = new StringBuilder();
+        int alphabetSize = ALPHABET.codePointCount(0, ALPHABET.length());
+        for (int i = 0; i < codePoints; i++) {
+            text.appendCodePoint(ALPHABET.codePointAt(ALPHABET.offsetByCodePoints(0, random.nextInt(alphabetSize))));
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Reference classification, byte by byte
+    private static boolean classify(byte[] data, int from, int to, ByteClassCounts counts) {
+        boolean ascii = true;
+        for (int i = from; i < to; i++) {
+            int b = data[i] & 0xFF;
+            if (b == '\n') {
+                counts.lineFeeds++;
+            } else if (b == '\r') {
+                counts.carriageReturns++;
+                if (i + 1 < to && data[i + 1] == '\n') {
+                    counts.crLfPairs++;
+                }
+            }
+            if (b >= 0x80) {
+                ascii = false;
+            }
+            if (b < 0x80 || b >= 0xC0) {
+                counts.sequenceStarts++;
+            }
+            if (b >= 0xF0) {
+                counts.fourByteStarts++;
+            }
+        }
+        return ascii;
+    }
+}
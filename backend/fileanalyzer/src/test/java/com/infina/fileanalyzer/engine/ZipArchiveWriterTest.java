@@ -0,0 +1,187 @@
+package com.infina.fileanalyzer.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipArchiveWriterTest {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService compressionPool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutDownPool() {
+        compressionPool.shutdownNow();
+    }
+
+    @Test
+    void roundTripsEntriesThroughZipFileAndZipInputStream() throws Exception {
+        Map<String, byte[]> contents = sampleContents();
+        Path zip = tempDir.resolve("out.zip");
+
+        writeArchive(zip, compressionPool, contents, false);
+
+        assertZipFileContains(zip, contents);
+        assertZipInputStreamContains(zip, contents);
+    }
+
+    @Test
+    void serialCompressionWritesTheSameContent() throws Exception {
+        Map<String, byte[]> contents = sampleContents();
+        Path zip = tempDir.resolve("serial.zip");
+
+        writeArchive(zip, null, contents, false);
+
+        assertZipFileContains(zip, contents);
+        assertZipInputStreamContains(zip, contents);
+    }
+
+    @Test
+    void entriesOfUnknownSizeGetZip64HeadersAndStayReadable() throws Exception {
+        Map<String, byte[]> contents = sampleContents();
+        Path zip = tempDir.resolve("unknown-sizes.zip");
+
+        writeArchive(zip, compressionPool, contents, true);
+
+        assertZipFileContains(zip, contents);
+        assertZipInputStreamContains(zip, contents);
+    }
+
+    @Test
+    void moreThan65535EntriesUseTheZip64EndRecord() throws Exception {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < 70_000; i++) {
+            contents.put("f" + i + ".txt", ("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        Path zip = tempDir.resolve("many.zip");
+
+        writeArchive(zip, null, contents, false);
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertEquals(70_000, zipFile.size());
+            assertArrayEquals(contents.get("f69999.txt"), zipFile.getInputStream(zipFile.getEntry("f69999.txt")).readAllBytes());
+        }
+        assertZipInputStreamContains(zip, contents);
+    }
+
+    @Test
+    void smallAndIncompressibleEntriesAreStored() throws Exception {
+        Map<String, byte[]> contents = sampleContents();
+        Path zip = tempDir.resolve("methods.zip");
+
+        writeArchive(zip, compressionPool, contents, false);
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("small.txt").getMethod());
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("random.bin").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("large.txt").getMethod());
+        }
+    }
+
+    @Test
+    void abortedEntryFailsTheWriter() throws Exception {
+        ArchivePipeline pipeline = new ArchivePipeline(CHUNK_SIZE, 1024);
+        ArchivePipeline.Entry entry = pipeline.openEntry("broken.txt", null, 10);
+        entry.write(ByteBuffer.wrap("12345".getBytes(StandardCharsets.UTF_8)));
+        entry.abort(new IOException("disk gone"));
+
+        try (ZipArchiveWriter writer = newWriter(tempDir.resolve("broken.zip"), null)) {
+            assertThrows(IOException.class, () -> writer.writeEntry(pipeline.nextEntry()));
+            writer.abort();
+        }
+    }
+
+    private static Map<String, byte[]> sampleContents() {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        contents.put("empty.txt", new byte[0]);
+        contents.put("small.txt", "hello\nworld\n".getBytes(StandardCharsets.UTF_8));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 5 * BLOCK_SIZE + 123; i++) {
+            text.append("Line ").append(i).append(": ğüşiöç the quick brown fox\n");
+        }
+        contents.put("large.txt", text.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] random = new byte[3 * BLOCK_SIZE + 7];
+        new Random(42).nextBytes(random);
+        contents.put("random.bin", random);
+        contents.put("dir/nested name.txt", "nested\r\n".getBytes(StandardCharsets.UTF_8));
+        return contents;
+    }
+
+    private ZipArchiveWriter newWriter(Path zip, ExecutorService pool) throws IOException {
+        CompressionPolicy policy = new CompressionPolicy(CompressionTarget.BALANCED, 512, 0.95);
+        return new ZipArchiveWriter(zip, pool, BLOCK_SIZE, policy, 8);
+    }
+
+    // Entries are fully queued before the writer drains them, so the queues hold the whole content
+    private void writeArchive(Path zip, ExecutorService pool, Map<String, byte[]> contents,
+                              boolean unknownSizes) throws Exception {
+        ArchivePipeline pipeline = new ArchivePipeline(CHUNK_SIZE, 1024);
+        ZipArchiveWriter writer = newWriter(zip, pool);
+        try (writer) {
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                byte[] data = content.getValue();
+                ArchivePipeline.Entry entry = pipeline.openEntry(content.getKey(), null,
+                        unknownSizes ? -1 : data.length);
+                entry.write(ByteBuffer.wrap(data));
+                entry.complete();
+                writer.writeEntry(pipeline.nextEntry());
+            }
+        }
+        assertEquals(contents.size(), writer.getEntryCount());
+    }
+
+    private static void assertZipFileContains(Path zip, Map<String, byte[]> contents) throws IOException {
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            assertEquals(contents.size(), zipFile.size());
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                ZipEntry entry = zipFile.getEntry(content.getKey());
+                assertNotNull(entry, content.getKey());
+                assertEquals(content.getValue().length, entry.getSize(), content.getKey());
+                assertEquals(crcOf(content.getValue()), entry.getCrc(), content.getKey());
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    assertArrayEquals(content.getValue(), in.readAllBytes(), content.getKey());
+                }
+            }
+        }
+    }
+
+    private static void assertZipInputStreamContains(Path zip, Map<String, byte[]> contents) throws IOException {
+        int entryCount = 0;
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                assertArrayEquals(contents.get(entry.getName()), in.readAllBytes(), entry.getName());
+                entryCount++;
+            }
+        }
+        assertEquals(contents.size(), entryCount);
+    }
+
+    private static long crcOf(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+}
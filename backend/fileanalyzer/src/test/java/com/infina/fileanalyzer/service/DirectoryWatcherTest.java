@@ -0,0 +1,67 @@
+package com.infina.fileanalyzer.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private final BlockingQueue<List<Path>> batches = new LinkedBlockingQueue<>();
+    private DirectoryWatcher watcher;
+
+    @AfterEach
+    void closeWatcher() throws Exception {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void stableFilesAreHandedOverInOneBatch() throws Exception {
+        Path first = Files.writeString(directory.resolve("a.txt"), "a");
+        Path second = Files.writeString(directory.resolve("b.txt"), "b");
+        Files.writeString(directory.resolve("ignored.log"), "c");
+        startWatcher(CompletableFuture.completedFuture(null));
+
+        assertEquals(List.of(first, second), sorted(batches.poll(5, TimeUnit.SECONDS)));
+        assertNull(batches.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void filesOfAFailedBatchAreHandedOverAgainUpToTheAttemptLimit() throws Exception {
+        Path file = Files.writeString(directory.resolve("a.txt"), "a");
+        startWatcher(CompletableFuture.failedFuture(new IllegalStateException("batch failed")));
+
+        for (int attempt = 0; attempt < DirectoryWatcher.MAX_BATCH_ATTEMPTS; attempt++) {
+            assertEquals(List.of(file), batches.poll(5, TimeUnit.SECONDS), "attempt " + attempt);
+        }
+        assertNull(batches.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    private void startWatcher(CompletableFuture<?> outcome) throws Exception {
+        watcher = new DirectoryWatcher(directory, file -> file.toString().endsWith(".txt"), 50, 100,
+                Long.MAX_VALUE, 100, 1, files -> {
+                    batches.add(files);
+                    return outcome;
+                });
+        Thread.ofPlatform().daemon().start(watcher);
+    }
+
+    private static List<Path> sorted(List<Path> files) {
+        assertNotNull(files, "no batch handed over");
+        return files.stream().sorted().toList();
+    }
+}
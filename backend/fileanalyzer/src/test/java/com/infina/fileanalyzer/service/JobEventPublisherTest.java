@@ -0,0 +1,147 @@
+package com.infina.fileanalyzer.service;
+
+import com.infina.fileanalyzer.dto.JobEventDto;
+import com.infina.fileanalyzer.entity.AnalysisJob;
+import com.infina.fileanalyzer.entity.FileStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobEventPublisherTest {
+
+    // Runs the drain tasks only when the test says so, like a client that is slow to receive
+    private final ManualExecutor executor = new ManualExecutor();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final AnalysisJob job = new AnalysisJob("job-1", "test job");
+
+    @Test
+    void fileEventsOfAClientThatFellBehindAreCoalescedIntoOneSnapshot() {
+        new JobEventPublisher(job, emitter, executor).start();
+        int fileCount = JobEventPublisher.MAX_QUEUED_FILE_EVENTS + 10;
+        for (int i = 0; i < fileCount; i++) {
+            job.onFileCompleted(fileStats("file" + i + ".txt"));
+        }
+
+        executor.runAll();
+
+        assertEquals(JobEventPublisher.EVENT_STATUS, emitter.names.get(0));
+        assertEquals(JobEventPublisher.MAX_QUEUED_FILE_EVENTS,
+                emitter.names.stream().filter(JobEventPublisher.EVENT_FILE_COMPLETED::equals).count());
+        // The snapshot after the file events carries the totals of the dropped ones too
+        int last = emitter.names.size() - 1;
+        assertEquals(JobEventPublisher.EVENT_STATUS, emitter.names.get(last));
+        assertEquals(fileCount, ((JobEventDto) emitter.data.get(last)).getProcessedFileCount());
+    }
+
+    @Test
+    void archiveProgressIsCoalescedIntoTheLatestState() {
+        new JobEventPublisher(job, emitter, executor).start();
+        for (int entry = 1; entry <= 5; entry++) {
+            job.onArchiveProgress(entry, entry * 100L, entry * 50L);
+        }
+
+        executor.runAll();
+
+        assertEquals(List.of(JobEventPublisher.EVENT_STATUS, JobEventPublisher.EVENT_ARCHIVE_PROGRESS), emitter.names);
+        assertEquals(5, ((JobEventDto) emitter.data.get(1)).getArchivedEntryCount());
+    }
+
+    @Test
+    void finishedEventIsSentAfterTheQueuedEventsAndCompletesTheStream() {
+        new JobEventPublisher(job, emitter, executor).start();
+        job.onFileCompleted(fileStats("a.txt"));
+        job.onFileFailed("b.txt", new IllegalStateException("unreadable"));
+        job.complete(null);
+
+        executor.runAll();
+
+        assertEquals(List.of(JobEventPublisher.EVENT_STATUS, JobEventPublisher.EVENT_FILE_COMPLETED,
+                JobEventPublisher.EVENT_FILE_FAILED, JobEventPublisher.EVENT_FINISHED), emitter.names);
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void finishedJobIsAnsweredRightAway() {
+        job.complete(null);
+
+        new JobEventPublisher(job, emitter, executor).start();
+        executor.runAll();
+
+        assertEquals(List.of(JobEventPublisher.EVENT_STATUS, JobEventPublisher.EVENT_FINISHED), emitter.names);
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void disconnectedClientIsNoLongerFollowed() {
+        new JobEventPublisher(job, emitter, executor).start();
+        emitter.failSends = true;
+        job.onFileCompleted(fileStats("a.txt"));
+        executor.runAll();
+
+        job.onFileCompleted(fileStats("b.txt"));
+        job.complete(null);
+
+        assertTrue(executor.tasks.isEmpty());
+        assertTrue(emitter.names.isEmpty());
+        assertFalse(emitter.completed);
+    }
+
+    private static FileStats fileStats(String fileName) {
+        FileStats stats = new FileStats();
+        stats.setFileName(fileName);
+        stats.setLineCount(1);
+        stats.setCharacterCount(10);
+        stats.setByteCount(10);
+        return stats;
+    }
+
+    private static class ManualExecutor implements Executor {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                task.run();
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<Object> data = new ArrayList<>();
+        private boolean failSends;
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+            if (failSends) {
+                throw new IOException("client disconnected");
+            }
+            // The first part is the "event:<name>\ndata:" text, the second one the data object
+            Iterator<DataWithMediaType> parts = event.build().iterator();
+            String head = String.valueOf(parts.next().getData());
+            names.add(head.substring("event:".length(), head.indexOf('\n')));
+            data.add(parts.next().getData());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.infina.fileanalyzer.service;
+
+import com.infina.fileanalyzer.dto.FileAnalysisResponseDto;
+import com.infina.fileanalyzer.dto.JobStatusDto;
+import com.infina.fileanalyzer.engine.AnalysisResultCache;
+import com.infina.fileanalyzer.engine.ResultMode;
+import com.infina.fileanalyzer.engine.TextCounts;
+import com.infina.fileanalyzer.entity.AnalysisResult;
+import com.infina.fileanalyzer.entity.ArchiveInfo;
+import com.infina.fileanalyzer.entity.JobStatus;
+import com.infina.fileanalyzer.exception.job.JobNotFoundException;
+import com.infina.fileanalyzer.exception.thread.ThreadExecutionException;
+import com.infina.fileanalyzer.service.abstracts.IResultStoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final InMemoryResultStore resultStore = new InMemoryResultStore();
+    private final AtomicInteger cleanups = new AtomicInteger();
+
+    @AfterEach
+    void shutDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void completedJobKeepsItsResultAndIsStored() throws Exception {
+        JobService jobService = jobService(60);
+        FileAnalysisResponseDto result = new FileAnalysisResponseDto(new AnalysisResult(), new ArchiveInfo());
+
+        JobStatusDto submitted = jobService.submit("test job", listener -> result, cleanups::incrementAndGet);
+        awaitJobs();
+
+        JobStatusDto status = jobService.getJobStatus(submitted.getJobId());
+        assertEquals(JobStatus.COMPLETED, status.getStatus());
+        assertSame(result, status.getResult());
+        assertEquals(JobStatus.COMPLETED, resultStore.jobs.get(submitted.getJobId()).getStatus());
+        assertEquals(1, cleanups.get());
+    }
+
+    @Test
+    void failedJobReportsTheErrorAndStillCleansUp() throws Exception {
+        JobService jobService = jobService(60);
+
+        JobStatusDto submitted = jobService.submit("failing job", listener -> {
+            throw new IllegalStateException("analysis failed");
+        }, cleanups::incrementAndGet);
+        awaitJobs();
+
+        JobStatusDto status = jobService.getJobStatus(submitted.getJobId());
+        assertEquals(JobStatus.FAILED, status.getStatus());
+        assertTrue(status.getErrorMessage().contains("analysis failed"), status.getErrorMessage());
+        assertTrue(resultStore.jobs.containsKey(submitted.getJobId()));
+        assertEquals(1, cleanups.get());
+    }
+
+    @Test
+    void rejectedJobIsCleanedUpAndForgotten() {
+        executor.shutdown();
+        JobService jobService = jobService(60);
+
+        assertThrows(ThreadExecutionException.class,
+                () -> jobService.submit("rejected job", listener -> null, cleanups::incrementAndGet));
+
+        assertEquals(1, cleanups.get());
+        assertTrue(resultStore.jobs.isEmpty());
+    }
+
+    @Test
+    void expiredJobsLeaveMemoryButStayAvailableFromTheStore() throws Exception {
+        JobService jobService = jobService(0);
+        CountDownLatch release = new CountDownLatch(1);
+        JobStatusDto finished = jobService.submit("finished job", listener -> null, null);
+        JobStatusDto running = jobService.submit("running job", listener -> {
+            await(release);
+            return null;
+        }, null);
+        while (!resultStore.jobs.containsKey(finished.getJobId())) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(5);
+
+        jobService.removeExpiredJobs();
+
+        // Only the store knows the finished job now, the running one cannot be followed without memory
+        assertEquals(JobStatus.COMPLETED, jobService.getJobStatus(finished.getJobId()).getStatus());
+        assertThrows(JobNotFoundException.class, () -> jobService.subscribe(finished.getJobId()));
+        assertEquals(JobStatus.RUNNING, jobService.getJobStatus(running.getJobId()).getStatus());
+        release.countDown();
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        JobService jobService = jobService(60);
+
+        assertThrows(JobNotFoundException.class, () -> jobService.getJobStatus("missing"));
+    }
+
+    private JobService jobService(long retentionMinutes) {
+        return new JobService(executor, null, resultStore, retentionMinutes, 1000, ResultMode.FULL, 10);
+    }
+
+    private void awaitJobs() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class InMemoryResultStore implements IResultStoreService {
+
+        private final Map<String, JobStatusDto> jobs = new ConcurrentHashMap<>();
+
+        @Override
+        public void warmUp(Consumer<AnalysisResultCache.Entry> consumer) {
+        }
+
+        @Override
+        public void stored(AnalysisResultCache.Entry entry) {
+        }
+
+        @Override
+        public TextCounts find(String contentHash) {
+            return null;
+        }
+
+        @Override
+        public void storeJob(JobStatusDto status) {
+            jobs.put(status.getJobId(), status);
+        }
+
+        @Override
+        public Optional<JobStatusDto> findJob(String jobId) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+}
@@ -9,6 +9,7 @@ const FileAnalyzerApp = () => {
     const [error, setError] = useState(null);
     const [uploadMode, setUploadMode] = useState('single'); // 'single' or 'multiple'
     const [downloadUrl, setDownloadUrl] = useState(null);
+    const [progress, setProgress] = useState(null);
 
 
   
@@ -62,6 +63,7 @@ const FileAnalyzerApp = () => {
 
         setIsLoading(true);
         setError(null);
+        setProgress(null);
 
         const formData = new FormData();
 
@@ -75,8 +77,8 @@ const FileAnalyzerApp = () => {
 
         try {
             const endpoint = uploadMode === 'single'
-                ? '/api/v1/files/upload-and-analyze'
-                : '/api/v1/files/upload-multiple-and-analyze';
+                ? '/api/v1/jobs/upload-and-analyze'
+                : '/api/v1/jobs/upload-multiple-and-analyze';
 
             const response = await fetch(`http://localhost:8080${endpoint}`, {
                 method: 'POST',
@@ -87,29 +89,65 @@ const FileAnalyzerApp = () => {
                 throw new Error(`HTTP error! status: ${response.status}`);
             }
 
-            const result = await response.json();
+            const job = await response.json();
+            const result = await followJob(job.jobId);
             setAnalysisResult(result);
         } catch (err) {
             setError('Dosya analizi sırasında bir hata oluştu: ' + err.message);
         } finally {
             setIsLoading(false);
+            setProgress(null);
         }
     };
 
+    // Follows the job over Server-Sent Events and resolves with its final result
+    const followJob = (jobId) => new Promise((resolve, reject) => {
+        const source = new EventSource(`http://localhost:8080/api/v1/jobs/${jobId}/events`);
+        const updateProgress = (event) => setProgress(JSON.parse(event.data));
+
+        ['status', 'file-completed', 'file-failed', 'archive-progress'].forEach((name) =>
+            source.addEventListener(name, updateProgress));
+
+        source.addEventListener('finished', (event) => {
+            source.close();
+            const finishedJob = JSON.parse(event.data);
+            if (finishedJob.status === 'COMPLETED') {
+                resolve(finishedJob.result);
+            } else {
+                reject(new Error(finishedJob.errorMessage || 'İş başarısız oldu'));
+            }
+        });
+
+        source.onerror = () => {
+            source.close();
+            reject(new Error('İlerleme bağlantısı kesildi'));
+        };
+    });
+
+    const formatProgress = () => {
+        if (!progress || progress.totalFileCount < 0) {
+            return 'Analiz Ediliyor...';
+        }
+        return `Analiz Ediliyor... ${progress.processedFileCount}/${progress.totalFileCount} dosya, `
+            + `${formatFileSize(Math.round(progress.bytesPerSecond))}/s`;
+    };
+
     const clearFiles = () => {
         setSelectedFiles([]);
         setAnalysisResult(null);
         setError(null);
     };
 
-    const downloadZipFile = async () => {
-        if (!analysisResult?.archiveInfo?.archiveFileName) {
+    const downloadZipFile = () => downloadFile(analysisResult?.archiveInfo?.archiveFileName);
+
+    const downloadFile = async (fileName) => {
+        if (!fileName) {
             setError('İndirilecek dosya bulunamadı');
             return;
         }
 
         try {
-            const response = await fetch(`http://localhost:8080/api/v1/files/download/${analysisResult.archiveInfo.archiveFileName}`, {
+            const response = await fetch(`http://localhost:8080/api/v1/files/download/${fileName}`, {
                 method: 'GET',
             });
 
@@ -122,7 +160,7 @@ const FileAnalyzerApp = () => {
             const a = document.createElement('a');
             a.style.display = 'none';
             a.href = url;
-            a.download = analysisResult.archiveInfo.archiveFileName;
+            a.download = fileName;
             document.body.appendChild(a);
             a.click();
             window.URL.revokeObjectURL(url);
@@ -132,6 +170,70 @@ const FileAnalyzerApp = () => {
         }
     };
 
+    const renderFileTable = (title, files) => (
+        <div className="table-container">
+            <div className="table-header">
+                <h3 className="table-title">{title}</h3>
+            </div>
+            <div className="table-wrapper">
+                <table className="data-table">
+                    <thead className="table-head">
+                    <tr>
+                        <th>Dosya Adı</th>
+                        <th>Satır Sayısı</th>
+                        <th>Karakter Sayısı</th>
+                        <th>İşlem Süresi</th>
+                        <th>Başlangıç Zamanı</th>
+                        <th>Bitiş Zamanı</th>
+                        <th>Thread</th>
+                        <th>Durum</th>
+                    </tr>
+                    </thead>
+                    <tbody className="table-body">
+                    {files?.map((file, index) => (
+                        <tr key={index}>
+                            <td className="cell-primary">
+                                {file.fileName}
+                            </td>
+                            <td className="cell-secondary">
+                                {file.lineCount}
+                            </td>
+                            <td className="cell-secondary">
+                                {file.characterCount}
+                            </td>
+                            <td className="cell-secondary">
+                                {file.processingTimeMillis?.toFixed(2)} ms
+                            </td>
+                            <td className="cell-secondary">
+                                {formatDateTime(file.processingStartTime)}
+                            </td>
+                            <td className="cell-secondary">
+                                {formatDateTime(file.processingEndTime)}
+                            </td>
+                            <td className="cell-secondary">
+                                {file.threadName}
+                            </td>
+                            <td>
+                                {file.processingCompleted ? (
+                                    <span className="status-badge success">
+                                            <CheckCircle className="status-icon"/>
+                                            Tamamlandı
+                                        </span>
+                                ) : (
+                                    <span className="status-badge error">
+                                            <AlertCircle className="status-icon"/>
+                                            Başarısız
+                                        </span>
+                                )}
+                            </td>
+                        </tr>
+                    ))}
+                    </tbody>
+                </table>
+            </div>
+        </div>
+    );
+
     return (
         <div className="app-container">
             <div className="content-wrapper">
@@ -213,7 +315,7 @@ const FileAnalyzerApp = () => {
                                     ) : (
                                         <Upload className="btn-icon" />
                                     )}
-                                    <span>{isLoading ? 'Analiz Ediliyor...' : 'Analiz Et'}</span>
+                                    <span>{isLoading ? formatProgress() : 'Analiz Et'}</span>
                                 </button>
                                 <button
                                     onClick={clearFiles}
@@ -294,68 +396,26 @@ const FileAnalyzerApp = () => {
                             </div>
                         </div>
 
-                        {/* File Details Table */}
-                        <div className="table-container">
-                            <div className="table-header">
-                                <h3 className="table-title">Dosya Detayları</h3>
-                            </div>
-                            <div className="table-wrapper">
-                                <table className="data-table">
-                                    <thead className="table-head">
-                                    <tr>
-                                        <th>Dosya Adı</th>
-                                        <th>Satır Sayısı</th>
-                                        <th>Karakter Sayısı</th>
-                                        <th>İşlem Süresi</th>
-                                        <th>Başlangıç Zamanı</th>
-                                        <th>Bitiş Zamanı</th>
-                                        <th>Thread</th>
-                                        <th>Durum</th>
-                                    </tr>
-                                    </thead>
-                                    <tbody className="table-body">
-                                    {analysisResult.totalResult.fileStatsList?.map((file, index) => (
-                                        <tr key={index}>
-                                            <td className="cell-primary">
-                                                {file.fileName}
-                                            </td>
-                                            <td className="cell-secondary">
-                                                {file.lineCount}
-                                            </td>
-                                            <td className="cell-secondary">
-                                                {file.characterCount}
-                                            </td>
-                                            <td className="cell-secondary">
-                                                {file.processingTimeMillis?.toFixed(2)} ms
-                                            </td>
-                                            <td className="cell-secondary">
-                                                {formatDateTime(file.processingStartTime)}
-                                            </td>
-                                            <td className="cell-secondary">
-                                                {formatDateTime(file.processingEndTime)}
-                                            </td>
-                                            <td className="cell-secondary">
-                                                {file.threadName}
-                                            </td>
-                                            <td>
-                                                {file.processingCompleted ? (
-                                                    <span className="status-badge success">
-                                                            <CheckCircle className="status-icon"/>
-                                                            Tamamlandı
-                                                        </span>
-                                                ) : (
-                                                    <span className="status-badge error">
-                                                            <AlertCircle className="status-icon"/>
-                                                            Başarısız
-                                                        </span>
-                                                )}
-                                            </td>
-                                        </tr>
-                                    ))}
-                                    </tbody>
-                                </table>
-                            </div>
-                        </div>
+                        {/* File Details Table; in summary mode only the top files are returned, all rows are in the NDJSON file */}
+                        {analysisResult.totalResult.resultMode === 'SUMMARY' ? (
+                            <>
+                                {analysisResult.totalResult.fileStatsFileName && (
+                                    <div className="download-section" style={{marginTop: '20px', textAlign: 'center'}}>
+                                        <button
+                                            onClick={() => downloadFile(analysisResult.totalResult.fileStatsFileName)}
+                                            className="btn btn-primary"
+                                        >
+                                            <FileText className="btn-icon"/>
+                                            <span>Tüm Dosya Sonuçlarını İndir (NDJSON)</span>
+                                        </button>
+                                    </div>
+                                )}
+                                {renderFileTable('En Yavaş Dosyalar', analysisResult.totalResult.slowestFiles)}
+                                {renderFileTable('En Büyük Dosyalar', analysisResult.totalResult.largestFiles)}
+                            </>
+                        ) : (
+                            renderFileTable('Dosya Detayları', analysisResult.totalResult.fileStatsList)
+                        )}
 
                         {/* Archive Information */}
                         {analysisResult.archiveInfo && (
@@ -381,6 +441,10 @@ const FileAnalyzerApp = () => {
                                         <p className="info-label">Sıkıştırma Yöntemi</p>
                                         <p className="info-value">{analysisResult.archiveInfo.compressionMethod}</p>
                                     </div>
+                                    <div className="info-item">
+                                        <p className="info-label">Sıkıştırma Oranı</p>
+                                        <p className="info-value">{analysisResult.archiveInfo.compressionRatio != null ? `${(analysisResult.archiveInfo.compressionRatio * 100).toFixed(1)}%` : '-'}</p>
+                                    </div>
                                     <div className="info-item">
                                         <p className="info-label">Arşivleme Süresi</p>
                                         <p className="info-value">{analysisResult.archiveInfo.archiveProcessingTimeMillis?.toFixed(2)} ms</p>